@@ -5,10 +5,12 @@
 
 package de.muspellheim.todomvc;
 
+import de.muspellheim.todomvc.backend.ChangeDetector;
 import de.muspellheim.todomvc.backend.MessageHandler;
 import de.muspellheim.todomvc.backend.TodoRepository;
 import de.muspellheim.todomvc.backend.adapters.JsonTodoRepository;
 import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
+import de.muspellheim.todomvc.backend.adapters.WriteBehindTodoRepository;
 import de.muspellheim.todomvc.contract.data.Todo;
 import de.muspellheim.todomvc.frontend.MainView;
 import de.muspellheim.todomvc.frontend.ViewModelFactory;
@@ -21,6 +23,7 @@ import javafx.stage.Stage;
 
 public class App extends Application {
   private TodoRepository repository;
+  private ChangeDetector changeDetector = ChangeDetector.NONE;
 
   public static void main(String[] args) {
     Application.launch(args);
@@ -38,13 +41,17 @@ public class App extends Application {
               new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)));
     } else {
       var file = Paths.get("todos.json");
-      repository = new JsonTodoRepository(file);
+      var jsonRepository = new JsonTodoRepository(file);
+      var writeBehindRepository = new WriteBehindTodoRepository(jsonRepository);
+      // Another instance of the app may change the file
+      changeDetector = writeBehindRepository.detectChanges(jsonRepository::getVersion);
+      repository = writeBehindRepository;
     }
   }
 
   @Override
   public void start(Stage primaryStage) throws Exception {
-    var backend = new MessageHandler(repository);
+    var backend = new MessageHandler(repository, changeDetector);
     ViewModelFactory.initMessageHandling(backend);
 
     var url = getClass().getResource("/app.png");
@@ -59,4 +66,11 @@ public class App extends Application {
     var frontend = MainView.create(primaryStage);
     frontend.run();
   }
+
+  @Override
+  public void stop() throws Exception {
+    if (repository instanceof AutoCloseable) {
+      ((AutoCloseable) repository).close();
+    }
+  }
 }
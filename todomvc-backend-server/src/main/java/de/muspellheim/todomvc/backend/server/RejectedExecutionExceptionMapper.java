@@ -0,0 +1,36 @@
+/*
+ * TodoMVC - Backend Server
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.server;
+
+import de.muspellheim.todomvc.contract.messages.commands.Failure;
+import de.muspellheim.todomvc.contract.messages.commands.HttpCommandStatus;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Answers a request with 503 if the queue of the handler executor is full, so the client retries
+ * later instead of getting a server error.
+ */
+@Provider
+public class RejectedExecutionExceptionMapper
+    implements ExceptionMapper<RejectedExecutionException> {
+  @ConfigProperty(name = "todomvc.handler-retry-after", defaultValue = "1S")
+  Duration retryAfter;
+
+  @Override
+  public Response toResponse(RejectedExecutionException exception) {
+    return Response.status(Status.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, Math.max(1, retryAfter.toSeconds()))
+        .entity(new HttpCommandStatus(new Failure("Too many requests, retry later.")))
+        .build();
+  }
+}
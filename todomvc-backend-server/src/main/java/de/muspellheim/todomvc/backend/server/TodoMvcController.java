@@ -5,35 +5,59 @@
 
 package de.muspellheim.todomvc.backend.server;
 
-import de.muspellheim.todomvc.contract.MessageHandling;
+import de.muspellheim.todomvc.contract.AsyncMessageHandling;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommand;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommandStatus;
 import de.muspellheim.todomvc.contract.messages.commands.ClearCompletedCommand;
 import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.Conflict;
 import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
 import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
 import de.muspellheim.todomvc.contract.messages.commands.Failure;
+import de.muspellheim.todomvc.contract.messages.commands.HttpBatchCommandStatus;
 import de.muspellheim.todomvc.contract.messages.commands.HttpCommandStatus;
 import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
 import de.muspellheim.todomvc.contract.messages.commands.Success;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleAllCommand;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import de.muspellheim.todomvc.contract.messages.notifications.TodosChangedNotification;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQueryResult;
 import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
 import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import javax.inject.Inject;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 
+/**
+ * The endpoints return a completion stage, so a request does not pin a worker thread while the
+ * todos are read or written.
+ */
 @Path("/")
 public class TodoMvcController {
-  @Inject MessageHandling messageHandling;
+  @Inject AsyncMessageHandling messageHandling;
+  @Inject TodosChangeStream todosChangeStream;
 
   @Path("new-todo-command")
   @POST
@@ -54,6 +78,14 @@ public class TodoMvcController {
           @Content(
               mediaType = MediaType.APPLICATION_JSON,
               schema = @Schema(implementation = HttpCommandStatus.class)))
+  @APIResponse(
+      responseCode = "409",
+      description =
+          "Das Command wurde nicht ausgeführt, weil bereits ein To-Do mit der ID existiert.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpCommandStatus.class)))
   @APIResponse(
       responseCode = "500",
       description = "Beim Ausführen des Commands ist ein Fehler aufgetreten.",
@@ -61,16 +93,22 @@ public class TodoMvcController {
           @Content(
               mediaType = MediaType.APPLICATION_JSON,
               schema = @Schema(implementation = HttpCommandStatus.class)))
-  public Response handleNewTodoCommand(NewTodoCommand command) {
-    if (command.getTitle() == null) {
-      return badRequest("Missing property `title` in new todo command.");
-    }
-    if (command.getTitle().isBlank()) {
-      return badRequest("Property `title` is empty in new todo command.");
+  @APIResponse(
+      responseCode = "503",
+      description =
+          "Der Server ist überlastet, der Request soll nach der im Header Retry-After angegebenen"
+              + " Zeit wiederholt werden.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpCommandStatus.class)))
+  public CompletionStage<Response> handleNewTodoCommand(NewTodoCommand command) {
+    var errorMessage = validate(command);
+    if (errorMessage != null) {
+      return CompletableFuture.completedFuture(badRequest(errorMessage));
     }
 
-    var status = messageHandling.handle(command);
-    return checkCommandStatus(status);
+    return messageHandling.handle(command).thenApply(this::checkCommandStatus);
   }
 
   @Path("toggle-command")
@@ -92,6 +130,15 @@ public class TodoMvcController {
           @Content(
               mediaType = MediaType.APPLICATION_JSON,
               schema = @Schema(implementation = HttpCommandStatus.class)))
+  @APIResponse(
+      responseCode = "409",
+      description =
+          "Das Command wurde nicht ausgeführt, weil das To-Do nicht existiert oder nicht die"
+              + " erwartete Version hat.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpCommandStatus.class)))
   @APIResponse(
       responseCode = "500",
       description = "Beim Ausführen des Commands ist ein Fehler aufgetreten.",
@@ -99,16 +146,22 @@ public class TodoMvcController {
           @Content(
               mediaType = MediaType.APPLICATION_JSON,
               schema = @Schema(implementation = HttpCommandStatus.class)))
-  public Response handleToggleCommand(ToggleCommand command) {
-    if (command.getId() == null) {
-      return badRequest("Missing property `id` in toggle command.");
-    }
-    if (command.getId().isBlank()) {
-      return badRequest("Property `id` is empty in toggle command.");
+  @APIResponse(
+      responseCode = "503",
+      description =
+          "Der Server ist überlastet, der Request soll nach der im Header Retry-After angegebenen"
+              + " Zeit wiederholt werden.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpCommandStatus.class)))
+  public CompletionStage<Response> handleToggleCommand(ToggleCommand command) {
+    var errorMessage = validate(command);
+    if (errorMessage != null) {
+      return CompletableFuture.completedFuture(badRequest(errorMessage));
     }
 
-    var status = messageHandling.handle(command);
-    return checkCommandStatus(status);
+    return messageHandling.handle(command).thenApply(this::checkCommandStatus);
   }
 
   @Path("toggle-all-command")
@@ -137,13 +190,22 @@ public class TodoMvcController {
           @Content(
               mediaType = MediaType.APPLICATION_JSON,
               schema = @Schema(implementation = HttpCommandStatus.class)))
-  public Response handleToggleAllCommand(ToggleAllCommand command) {
-    if (command.getCompleted() == null) {
-      return badRequest("Missing property `completed` in toggle all command.");
+  @APIResponse(
+      responseCode = "503",
+      description =
+          "Der Server ist überlastet, der Request soll nach der im Header Retry-After angegebenen"
+              + " Zeit wiederholt werden.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpCommandStatus.class)))
+  public CompletionStage<Response> handleToggleAllCommand(ToggleAllCommand command) {
+    var errorMessage = validate(command);
+    if (errorMessage != null) {
+      return CompletableFuture.completedFuture(badRequest(errorMessage));
     }
 
-    var status = messageHandling.handle(command);
-    return checkCommandStatus(status);
+    return messageHandling.handle(command).thenApply(this::checkCommandStatus);
   }
 
   @Path("edit-command")
@@ -165,6 +227,15 @@ public class TodoMvcController {
           @Content(
               mediaType = MediaType.APPLICATION_JSON,
               schema = @Schema(implementation = HttpCommandStatus.class)))
+  @APIResponse(
+      responseCode = "409",
+      description =
+          "Das Command wurde nicht ausgeführt, weil das To-Do nicht existiert oder nicht die"
+              + " erwartete Version hat.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpCommandStatus.class)))
   @APIResponse(
       responseCode = "500",
       description = "Beim Ausführen des Commands ist ein Fehler aufgetreten.",
@@ -172,23 +243,27 @@ public class TodoMvcController {
           @Content(
               mediaType = MediaType.APPLICATION_JSON,
               schema = @Schema(implementation = HttpCommandStatus.class)))
-  public Response handleEditCommand(EditCommand command) {
-    if (command.getId() == null) {
-      return badRequest("Missing property `id` in edit command.");
-    }
-    if (command.getId().isBlank()) {
-      return badRequest("Property `id` is empty in edit command.");
-    }
-    if (command.getTitle() == null) {
-      return badRequest("Missing property `title` in edit command.");
+  @APIResponse(
+      responseCode = "503",
+      description =
+          "Der Server ist überlastet, der Request soll nach der im Header Retry-After angegebenen"
+              + " Zeit wiederholt werden.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpCommandStatus.class)))
+  public CompletionStage<Response> handleEditCommand(EditCommand command) {
+    var errorMessage = validate(command);
+    if (errorMessage != null) {
+      return CompletableFuture.completedFuture(badRequest(errorMessage));
     }
 
     if (command.getTitle().isBlank()) {
-      var status = messageHandling.handle(new DestroyCommand(command.getId()));
-      return checkCommandStatus(status);
+      return messageHandling
+          .handle(new DestroyCommand(command.getId(), command.getExpectedVersion()))
+          .thenApply(this::checkCommandStatus);
     } else {
-      var status = messageHandling.handle(command);
-      return checkCommandStatus(status);
+      return messageHandling.handle(command).thenApply(this::checkCommandStatus);
     }
   }
 
@@ -211,6 +286,15 @@ public class TodoMvcController {
           @Content(
               mediaType = MediaType.APPLICATION_JSON,
               schema = @Schema(implementation = HttpCommandStatus.class)))
+  @APIResponse(
+      responseCode = "409",
+      description =
+          "Das Command wurde nicht ausgeführt, weil das To-Do nicht existiert oder nicht die"
+              + " erwartete Version hat.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpCommandStatus.class)))
   @APIResponse(
       responseCode = "500",
       description = "Beim Ausführen des Commands ist ein Fehler aufgetreten.",
@@ -218,16 +302,22 @@ public class TodoMvcController {
           @Content(
               mediaType = MediaType.APPLICATION_JSON,
               schema = @Schema(implementation = HttpCommandStatus.class)))
-  public Response handleDestroyCommand(DestroyCommand command) {
-    if (command.getId() == null) {
-      return badRequest("Missing property `id` in destroy command.");
-    }
-    if (command.getId().isBlank()) {
-      return badRequest("Property `id` is empty in destroy command.");
+  @APIResponse(
+      responseCode = "503",
+      description =
+          "Der Server ist überlastet, der Request soll nach der im Header Retry-After angegebenen"
+              + " Zeit wiederholt werden.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpCommandStatus.class)))
+  public CompletionStage<Response> handleDestroyCommand(DestroyCommand command) {
+    var errorMessage = validate(command);
+    if (errorMessage != null) {
+      return CompletableFuture.completedFuture(badRequest(errorMessage));
     }
 
-    var status = messageHandling.handle(command);
-    return checkCommandStatus(status);
+    return messageHandling.handle(command).thenApply(this::checkCommandStatus);
   }
 
   @Path("clear-completed-command")
@@ -256,9 +346,191 @@ public class TodoMvcController {
           @Content(
               mediaType = MediaType.APPLICATION_JSON,
               schema = @Schema(implementation = HttpCommandStatus.class)))
-  public Response handleClearCompletedCommand(ClearCompletedCommand command) {
-    var status = messageHandling.handle(command);
-    return checkCommandStatus(status);
+  @APIResponse(
+      responseCode = "503",
+      description =
+          "Der Server ist überlastet, der Request soll nach der im Header Retry-After angegebenen"
+              + " Zeit wiederholt werden.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpCommandStatus.class)))
+  public CompletionStage<Response> handleClearCompletedCommand(ClearCompletedCommand command) {
+    return messageHandling.handle(command).thenApply(this::checkCommandStatus);
+  }
+
+  @Path("batch-command")
+  @POST
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  @Operation(
+      summary =
+          "Führt mehrere Commands in der angegebenen Reihenfolge aus, entweder alle oder keins.")
+  @APIResponse(
+      responseCode = "200",
+      description = "Alle Commands wurden erfolgreich ausgeführt.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpBatchCommandStatus.class)))
+  @APIResponse(
+      responseCode = "400",
+      description = "Kein Command wurde ausgeführt, weil ein Command fehlerhaft formuliert war.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpBatchCommandStatus.class)))
+  @APIResponse(
+      responseCode = "409",
+      description =
+          "Kein Command wurde ausgeführt, weil ein To-Do nicht existiert oder nicht die erwartete"
+              + " Version hat.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpBatchCommandStatus.class)))
+  @APIResponse(
+      responseCode = "500",
+      description = "Kein Command wurde ausgeführt, weil bei einem Command ein Fehler auftrat.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpBatchCommandStatus.class)))
+  @APIResponse(
+      responseCode = "503",
+      description =
+          "Der Server ist überlastet, der Request soll nach der im Header Retry-After angegebenen"
+              + " Zeit wiederholt werden.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpCommandStatus.class)))
+  public CompletionStage<Response> handleBatchCommand(BatchCommand command) {
+    if (command.getCommands() == null) {
+      return CompletableFuture.completedFuture(
+          Response.status(Status.BAD_REQUEST)
+              .entity(new HttpBatchCommandStatus(false, List.of()))
+              .build());
+    }
+
+    var errorMessages =
+        command.getCommands().stream().map(this::validate).collect(Collectors.toList());
+    var invalidIndex =
+        IntStream.range(0, errorMessages.size())
+            .filter(it -> errorMessages.get(it) != null)
+            .findFirst();
+    if (invalidIndex.isPresent()) {
+      var notExecuted =
+          new HttpCommandStatus(
+              new Failure(
+                  "Batch not executed, because command "
+                      + (invalidIndex.getAsInt() + 1)
+                      + " is invalid."));
+      var statuses =
+          errorMessages.stream()
+              .map(it -> it != null ? new HttpCommandStatus(new Failure(it)) : notExecuted)
+              .collect(Collectors.toList());
+      return CompletableFuture.completedFuture(
+          Response.status(Status.BAD_REQUEST)
+              .entity(new HttpBatchCommandStatus(false, statuses))
+              .build());
+    }
+
+    var items =
+        command.getCommands().stream()
+            .map(this::destroyIfTitleIsBlank)
+            .collect(Collectors.toList());
+    return messageHandling.handle(new BatchCommand(items)).thenApply(this::checkBatchCommandStatus);
+  }
+
+  private String validate(BatchCommand.Item item) {
+    if (item.getClearCompleted() != null) {
+      return null;
+    } else if (item.getDestroy() != null) {
+      return validate(item.getDestroy());
+    } else if (item.getEdit() != null) {
+      return validate(item.getEdit());
+    } else if (item.getNewTodo() != null) {
+      return validate(item.getNewTodo());
+    } else if (item.getToggleAll() != null) {
+      return validate(item.getToggleAll());
+    } else if (item.getToggle() != null) {
+      return validate(item.getToggle());
+    } else {
+      return "Missing command in batch command.";
+    }
+  }
+
+  private BatchCommand.Item destroyIfTitleIsBlank(BatchCommand.Item item) {
+    var edit = item.getEdit();
+    if (edit == null || !edit.getTitle().isBlank()) {
+      return item;
+    }
+
+    return BatchCommand.Item.of(new DestroyCommand(edit.getId(), edit.getExpectedVersion()));
+  }
+
+  private String validate(NewTodoCommand command) {
+    if (command.getTitle() == null) {
+      return "Missing property `title` in new todo command.";
+    }
+    if (command.getTitle().isBlank()) {
+      return "Property `title` is empty in new todo command.";
+    }
+    if (command.getId() != null && command.getId().isBlank()) {
+      return "Property `id` is empty in new todo command.";
+    }
+    return null;
+  }
+
+  private String validate(ToggleCommand command) {
+    if (command.getId() == null) {
+      return "Missing property `id` in toggle command.";
+    }
+    if (command.getId().isBlank()) {
+      return "Property `id` is empty in toggle command.";
+    }
+    return null;
+  }
+
+  private String validate(ToggleAllCommand command) {
+    if (command.getCompleted() == null) {
+      return "Missing property `completed` in toggle all command.";
+    }
+    return null;
+  }
+
+  private String validate(EditCommand command) {
+    if (command.getId() == null) {
+      return "Missing property `id` in edit command.";
+    }
+    if (command.getId().isBlank()) {
+      return "Property `id` is empty in edit command.";
+    }
+    if (command.getTitle() == null) {
+      return "Missing property `title` in edit command.";
+    }
+    return null;
+  }
+
+  private String validate(DestroyCommand command) {
+    if (command.getId() == null) {
+      return "Missing property `id` in destroy command.";
+    }
+    if (command.getId().isBlank()) {
+      return "Property `id` is empty in destroy command.";
+    }
+    return null;
+  }
+
+  private String validate(TodosQuery query) {
+    if (query.getOffset() < 0) {
+      return "Property `offset` is negative in todos query.";
+    }
+    if (query.getLimit() != null && query.getLimit() < 0) {
+      return "Property `limit` is negative in todos query.";
+    }
+    return null;
   }
 
   private Response badRequest(String errorMessage) {
@@ -270,6 +542,8 @@ public class TodoMvcController {
   private Response checkCommandStatus(CommandStatus status) {
     if (status instanceof Success) {
       return Response.ok().entity(new HttpCommandStatus(new Success())).build();
+    } else if (status instanceof Conflict) {
+      return Response.status(Status.CONFLICT).entity(new HttpCommandStatus(status)).build();
     } else {
       var failure = (Failure) status;
       return Response.status(Status.INTERNAL_SERVER_ERROR)
@@ -278,6 +552,17 @@ public class TodoMvcController {
     }
   }
 
+  private Response checkBatchCommandStatus(BatchCommandStatus status) {
+    var entity = new HttpBatchCommandStatus(status);
+    if (status.isSuccess()) {
+      return Response.ok().entity(entity).build();
+    } else if (status.getStatuses().stream().anyMatch(it -> it instanceof Conflict)) {
+      return Response.status(Status.CONFLICT).entity(entity).build();
+    } else {
+      return Response.status(Status.INTERNAL_SERVER_ERROR).entity(entity).build();
+    }
+  }
+
   @Path("todos-query")
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
@@ -290,7 +575,83 @@ public class TodoMvcController {
           @Content(
               mediaType = MediaType.APPLICATION_JSON,
               schema = @Schema(implementation = TodosQueryResult.class)))
-  public TodosQueryResult handleTodosQuery(TodosQuery query) {
-    return messageHandling.handle(new TodosQuery());
+  @APIResponse(
+      responseCode = "400",
+      description = "Die Query wurde nicht ausgeführt, weil sie fehlerhaft formuliert war.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpCommandStatus.class)))
+  @APIResponse(
+      responseCode = "503",
+      description =
+          "Der Server ist überlastet, der Request soll nach der im Header Retry-After angegebenen"
+              + " Zeit wiederholt werden.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpCommandStatus.class)))
+  public CompletionStage<Response> handleTodosQuery(TodosQuery query) {
+    if (query == null) {
+      query = new TodosQuery();
+    }
+    var errorMessage = validate(query);
+    if (errorMessage != null) {
+      return CompletableFuture.completedFuture(badRequest(errorMessage));
+    }
+
+    return messageHandling
+        .handle(query)
+        .thenApply(result -> Response.ok().entity(result).build());
+  }
+
+  @Path("todo-stats-query")
+  @POST
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  @Operation(summary = "Gibt die Anzahl der To-Dos zurück.")
+  @APIResponse(
+      responseCode = "200",
+      description = "Das Ergebnis der Query.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = TodoStatsQueryResult.class)))
+  @APIResponse(
+      responseCode = "503",
+      description =
+          "Der Server ist überlastet, der Request soll nach der im Header Retry-After angegebenen"
+              + " Zeit wiederholt werden.",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON,
+              schema = @Schema(implementation = HttpCommandStatus.class)))
+  public CompletionStage<TodoStatsQueryResult> handleTodoStatsQuery(TodoStatsQuery query) {
+    return messageHandling.handle(new TodoStatsQuery());
+  }
+
+  @Path("todos-changes")
+  @GET
+  @Produces(MediaType.SERVER_SENT_EVENTS)
+  @Operation(
+      summary =
+          "Sendet die Änderungen der To-Do-Liste als Server-Sent Events, beginnend mit den"
+              + " Änderungen seit der angegebenen oder der zuletzt empfangenen Version.")
+  @APIResponse(
+      responseCode = "200",
+      description =
+          "Die Änderungen der To-Do-Liste. Sind die Änderungen nicht bekannt, wird ein Resync"
+              + " gesendet und der Client muss die ganze Liste abfragen.",
+      content =
+          @Content(
+              mediaType = MediaType.SERVER_SENT_EVENTS,
+              schema = @Schema(implementation = TodosChangedNotification.class)))
+  public void streamTodosChanges(
+      @Context SseEventSink eventSink,
+      @Context Sse sse,
+      @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) Long lastEventId,
+      @QueryParam("sinceVersion") Long sinceVersion)
+      throws Exception {
+    todosChangeStream.subscribe(eventSink, sse, lastEventId != null ? lastEventId : sinceVersion);
   }
 }
@@ -5,26 +5,53 @@
 
 package de.muspellheim.todomvc.backend.server;
 
+import de.muspellheim.todomvc.backend.AsyncMessageHandler;
+import de.muspellheim.todomvc.backend.HandlerExecutor;
 import de.muspellheim.todomvc.backend.MessageHandler;
 import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.backend.adapters.JdbcTodoRepository;
 import de.muspellheim.todomvc.backend.adapters.JsonTodoRepository;
 import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
-import de.muspellheim.todomvc.contract.MessageHandling;
+import de.muspellheim.todomvc.contract.AsyncMessageHandling;
 import de.muspellheim.todomvc.contract.data.Todo;
 import io.quarkus.runtime.configuration.ProfileManager;
 import java.nio.file.Paths;
+import java.sql.SQLException;
 import java.util.List;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Produces;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.sql.DataSource;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @ApplicationScoped
 public class TodoMvcProducer {
+  @ConfigProperty(name = "todomvc.repository", defaultValue = "json")
+  String repositoryType;
+
   @ConfigProperty(name = "todomvc.todos-file")
   String todosFile;
 
+  /** One of {@code auto}, {@code virtual}, {@code platform} or {@code caller}. */
+  @ConfigProperty(name = "todomvc.handler-executor", defaultValue = "auto")
+  String handlerExecutorType;
+
+  @ConfigProperty(name = "todomvc.handler-threads", defaultValue = "64")
+  int handlerThreads;
+
+  @ConfigProperty(name = "todomvc.handler-queue-capacity", defaultValue = "10000")
+  int handlerQueueCapacity;
+
+  @Inject DataSource dataSource;
+
+  private HandlerExecutor handlerExecutor;
+
+  /** A single repository, so its lock serializes the commands of all requests. */
   @Produces
-  TodoRepository getTodoRepository() {
+  @Singleton
+  TodoRepository getTodoRepository() throws SQLException {
     var profile = ProfileManager.getActiveProfile();
     if (profile.equals("test")) {
       var repository = new MemoryTodoRepository();
@@ -33,14 +60,63 @@ public class TodoMvcProducer {
               new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
               new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)));
       return repository;
+    } else if (repositoryType.equals("jdbc")) {
+      var repository = new JdbcTodoRepository(dataSource);
+      repository.createSchema();
+      return repository;
     } else {
       var file = Paths.get(todosFile);
       return new JsonTodoRepository(file);
     }
   }
 
+  /** A single message handler, so all requests share the change journal and its subscribers. */
   @Produces
-  MessageHandling getMessageHandling() {
-    return new MessageHandler(getTodoRepository());
+  @Singleton
+  MessageHandler getMessageHandler(TodoRepository repository) {
+    if (repository instanceof JdbcTodoRepository) {
+      // Other server instances may change the todos in a shared database.
+      return new MessageHandler(repository, ((JdbcTodoRepository) repository)::getVersion);
+    } else if (repository instanceof JsonTodoRepository) {
+      // Other processes may change the todos file.
+      return new MessageHandler(repository, ((JsonTodoRepository) repository)::getVersion);
+    }
+    return new MessageHandler(repository);
+  }
+
+  /**
+   * The messages are handled on threads of their own, so requests waiting for I/O do not pin the
+   * worker threads of the server.
+   */
+  @Produces
+  @Singleton
+  AsyncMessageHandling getAsyncMessageHandling(MessageHandler messageHandler) {
+    handlerExecutor = createHandlerExecutor();
+    return new AsyncMessageHandler(messageHandler, handlerExecutor);
+  }
+
+  private HandlerExecutor createHandlerExecutor() {
+    switch (handlerExecutorType) {
+      case "auto":
+        // Virtual threads need JDK 21 or later
+        return HandlerExecutor.isVirtualThreadsSupported()
+            ? HandlerExecutor.virtualThreads()
+            : HandlerExecutor.platformThreads(handlerThreads, handlerQueueCapacity);
+      case "virtual":
+        return HandlerExecutor.virtualThreads();
+      case "platform":
+        return HandlerExecutor.platformThreads(handlerThreads, handlerQueueCapacity);
+      case "caller":
+        return HandlerExecutor.callerThread();
+      default:
+        throw new IllegalArgumentException("Unknown handler executor: " + handlerExecutorType);
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (handlerExecutor != null) {
+      handlerExecutor.close();
+    }
   }
 }
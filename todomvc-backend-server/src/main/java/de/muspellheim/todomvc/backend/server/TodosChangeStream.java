@@ -0,0 +1,172 @@
+/*
+ * TodoMVC - Backend Server
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.server;
+
+import de.muspellheim.todomvc.backend.MessageHandler;
+import de.muspellheim.todomvc.backend.TodosChangeSubscription;
+import de.muspellheim.todomvc.contract.messages.notifications.TodosChangedNotification;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Sends the changes of the todo list as server-sent events to every subscriber.
+ *
+ * <p>The id of an event is the version of the list, so a reconnecting client resumes with the
+ * changes since the last received event. Without changes a comment is sent as heartbeat.
+ *
+ * <p>The subscriptions push their notifications, which are sent asynchronously by one shared
+ * thread, so a subscriber does not occupy a thread while waiting. The next event of a subscriber is
+ * sent after the former one is written, so the buffer of a slow subscriber overflows and the
+ * subscriber gets a resync instead of an unbounded backlog.
+ */
+@ApplicationScoped
+public class TodosChangeStream {
+  @ConfigProperty(name = "todomvc.changes.heartbeat-interval", defaultValue = "15S")
+  Duration heartbeatInterval;
+
+  @ConfigProperty(name = "todomvc.changes.buffer-capacity", defaultValue = "100")
+  int bufferCapacity;
+
+  @Inject MessageHandler messageHandler;
+
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private ScheduledExecutorService scheduler;
+
+  @PostConstruct
+  void start() {
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              var thread = new Thread(runnable, "TodosChangeStream");
+              thread.setDaemon(true);
+              return thread;
+            });
+    var interval = heartbeatInterval.toMillis();
+    scheduler.scheduleWithFixedDelay(
+        this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  void subscribe(SseEventSink eventSink, Sse sse, Long sinceVersion) throws Exception {
+    var subscription = messageHandler.subscribeTodosChanges(sinceVersion, bufferCapacity);
+    var subscriber = new Subscriber(subscription, eventSink, sse);
+    subscribers.add(subscriber);
+    subscription.setListener(() -> execute(subscriber::sendNext));
+    // The subscription starts with the changes since the version or a resync
+    execute(subscriber::sendNext);
+  }
+
+  /** Checks changes made outside of this backend once for all subscribers. */
+  private void sendHeartbeats() {
+    try {
+      if (!subscribers.isEmpty()) {
+        messageHandler.checkTodosChanges();
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+    subscribers.forEach(Subscriber::sendHeartbeat);
+  }
+
+  private void execute(Runnable task) {
+    try {
+      scheduler.execute(task);
+    } catch (RejectedExecutionException e) {
+      // Shutting down
+    }
+  }
+
+  private static OutboundSseEvent createEvent(Sse sse, TodosChangedNotification notification) {
+    return sse.newEventBuilder()
+        .id(String.valueOf(notification.getVersion()))
+        .name(notification.isResync() ? "resync" : "changes")
+        .mediaType(MediaType.APPLICATION_JSON_TYPE)
+        .data(TodosChangedNotification.class, notification)
+        .build();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    scheduler.shutdownNow();
+    subscribers.forEach(Subscriber::close);
+  }
+
+  private class Subscriber {
+    private final TodosChangeSubscription subscription;
+    private final SseEventSink eventSink;
+    private final Sse sse;
+    private boolean sending;
+    private boolean sentSinceHeartbeat;
+
+    Subscriber(TodosChangeSubscription subscription, SseEventSink eventSink, Sse sse) {
+      this.subscription = subscription;
+      this.eventSink = eventSink;
+      this.sse = sse;
+    }
+
+    synchronized void sendNext() {
+      if (sending) {
+        return;
+      }
+
+      var notification = subscription.poll();
+      if (notification != null) {
+        send(createEvent(sse, notification));
+      }
+    }
+
+    /** A heartbeat is sent if nothing was sent since the last heartbeat. */
+    synchronized void sendHeartbeat() {
+      if (!sending && !sentSinceHeartbeat) {
+        send(sse.newEventBuilder().comment("heartbeat").build());
+      }
+      sentSinceHeartbeat = false;
+    }
+
+    private void send(OutboundSseEvent event) {
+      if (eventSink.isClosed()) {
+        close();
+        return;
+      }
+
+      sending = true;
+      sentSinceHeartbeat = true;
+      eventSink.send(event).whenComplete((result, error) -> sent(error));
+    }
+
+    private void sent(Throwable error) {
+      if (error != null) {
+        // The subscriber disconnected
+        close();
+        return;
+      }
+
+      synchronized (this) {
+        sending = false;
+      }
+      execute(this::sendNext);
+    }
+
+    void close() {
+      subscribers.remove(this);
+      subscription.close();
+      eventSink.close();
+    }
+  }
+}
@@ -9,16 +9,29 @@ import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.any;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommand;
 import de.muspellheim.todomvc.contract.messages.commands.ClearCompletedCommand;
 import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
 import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
 import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleAllCommand;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQuery;
 import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import io.quarkus.test.common.http.TestHTTPResource;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import javax.ws.rs.core.Response.Status;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.Order;
@@ -28,6 +41,9 @@ import org.junit.jupiter.api.TestMethodOrder;
 @QuarkusTest
 @TestMethodOrder(OrderAnnotation.class)
 class TodoMvcControllerTests {
+  @TestHTTPResource("/api/todos-changes")
+  URI todosChangesUri;
+
   @Test
   @Order(1)
   void handleTodosQuery() {
@@ -49,6 +65,51 @@ class TodoMvcControllerTests {
         .body("todos[1].completed", is(false));
   }
 
+  @Test
+  void handleTodosQueryNegativeOffsetWithFailure() {
+    given()
+        .when()
+        .accept(ContentType.JSON)
+        .contentType(ContentType.JSON)
+        .body(new TodosQuery(TodosQuery.Filter.ALL, -1, null))
+        .post("/api/todos-query")
+        .then()
+        .statusCode(Status.BAD_REQUEST.getStatusCode())
+        .body("success", is(false))
+        .body("errorMessage", is("Property `offset` is negative in todos query."));
+  }
+
+  @Test
+  void handleTodosQueryNegativeLimitWithFailure() {
+    given()
+        .when()
+        .accept(ContentType.JSON)
+        .contentType(ContentType.JSON)
+        .body(new TodosQuery(TodosQuery.Filter.ALL, 0, -1))
+        .post("/api/todos-query")
+        .then()
+        .statusCode(Status.BAD_REQUEST.getStatusCode())
+        .body("success", is(false))
+        .body("errorMessage", is("Property `limit` is negative in todos query."));
+  }
+
+  @Test
+  @Order(1)
+  void handleTodoStatsQuery() {
+    given()
+        .when()
+        .accept(ContentType.JSON)
+        .contentType(ContentType.JSON)
+        .body(new TodoStatsQuery())
+        .post("/api/todo-stats-query")
+        .then()
+        .statusCode(Status.OK.getStatusCode())
+        .contentType(is(ContentType.JSON.toString()))
+        .body("totalCount", is(2))
+        .body("activeCount", is(1))
+        .body("completedCount", is(1));
+  }
+
   @Test
   @Order(2)
   void handleNewTodoCommandWithSuccess() {
@@ -145,6 +206,21 @@ class TodoMvcControllerTests {
         .body("todos[2].completed", is(false));
   }
 
+  @Test
+  @Order(3)
+  void handleToggleCommandWithStaleVersionWithConflict() {
+    given()
+        .when()
+        .accept(ContentType.JSON)
+        .contentType(ContentType.JSON)
+        .body(new ToggleCommand("d2f7760d-8f03-4cb3-9176-06311cb89993", 42L))
+        .post("/api/toggle-command")
+        .then()
+        .statusCode(Status.CONFLICT.getStatusCode())
+        .body("success", is(false))
+        .body("conflict", is(true));
+  }
+
   @Test
   void handleToggleCommandMissingIdWithFailure() {
     given()
@@ -408,4 +484,89 @@ class TodoMvcControllerTests {
         .contentType(is(ContentType.JSON.toString()))
         .body("todos", hasSize(0));
   }
+
+  @Test
+  @Order(9)
+  void streamTodosChanges() throws Exception {
+    var request =
+        HttpRequest.newBuilder(todosChangesUri).header("Accept", "text/event-stream").build();
+    var response = HttpClient.newHttpClient().send(request, BodyHandlers.ofInputStream());
+    try (var reader =
+        new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+      assertEquals(Status.OK.getStatusCode(), response.statusCode(), "status code");
+      assertEquals("resync", readEventName(reader), "first event");
+
+      given()
+          .when()
+          .accept(ContentType.JSON)
+          .contentType(ContentType.JSON)
+          .body(new NewTodoCommand("Foobar"))
+          .post("/api/new-todo-command")
+          .then()
+          .statusCode(Status.OK.getStatusCode());
+
+      assertEquals("changes", readEventName(reader), "second event");
+    }
+  }
+
+  @Test
+  @Order(10)
+  void handleBatchCommandWithSuccess() {
+    given()
+        .when()
+        .accept(ContentType.JSON)
+        .contentType(ContentType.JSON)
+        .body(
+            new BatchCommand(
+                List.of(
+                    BatchCommand.Item.of(new NewTodoCommand("Barfoo")),
+                    BatchCommand.Item.of(new ToggleAllCommand(true)))))
+        .post("/api/batch-command")
+        .then()
+        .statusCode(Status.OK.getStatusCode())
+        .body("success", is(true))
+        .body("statuses", hasSize(2))
+        .body("statuses[0].success", is(true))
+        .body("statuses[1].success", is(true));
+
+    given()
+        .when()
+        .accept(ContentType.JSON)
+        .contentType(ContentType.JSON)
+        .body(new TodoStatsQuery())
+        .post("/api/todo-stats-query")
+        .then()
+        .statusCode(Status.OK.getStatusCode())
+        .body("totalCount", is(2))
+        .body("completedCount", is(2));
+  }
+
+  @Test
+  void handleBatchCommandWithInvalidCommandWithFailure() {
+    given()
+        .when()
+        .accept(ContentType.JSON)
+        .contentType(ContentType.JSON)
+        .body(
+            new BatchCommand(
+                List.of(
+                    BatchCommand.Item.of(new NewTodoCommand("Barfoo")),
+                    BatchCommand.Item.of(new DestroyCommand("")))))
+        .post("/api/batch-command")
+        .then()
+        .statusCode(Status.BAD_REQUEST.getStatusCode())
+        .body("success", is(false))
+        .body("statuses[0].errorMessage", is("Batch not executed, because command 2 is invalid."))
+        .body("statuses[1].errorMessage", is("Property `id` is empty in destroy command."));
+  }
+
+  private static String readEventName(BufferedReader reader) throws IOException {
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.startsWith("event:")) {
+        return line.substring("event:".length()).trim();
+      }
+    }
+    return null;
+  }
 }
@@ -0,0 +1,85 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import de.muspellheim.todomvc.contract.AsyncMessageHandling;
+import de.muspellheim.todomvc.contract.MessageHandling;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommand;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.ClearCompletedCommand;
+import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
+import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
+import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleAllCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQueryResult;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import lombok.NonNull;
+
+/**
+ * Adapts a blocking message handling to {@link AsyncMessageHandling}. The messages are handled on
+ * the executor, so file or database I/O does not pin the thread of the caller.
+ */
+public class AsyncMessageHandler implements AsyncMessageHandling {
+  private final MessageHandling messageHandling;
+  private final Executor executor;
+
+  public AsyncMessageHandler(@NonNull MessageHandling messageHandling, @NonNull Executor executor) {
+    this.messageHandling = messageHandling;
+    this.executor = executor;
+  }
+
+  @Override
+  public CompletionStage<CommandStatus> handle(ClearCompletedCommand command) {
+    return CompletableFuture.supplyAsync(() -> messageHandling.handle(command), executor);
+  }
+
+  @Override
+  public CompletionStage<CommandStatus> handle(DestroyCommand command) {
+    return CompletableFuture.supplyAsync(() -> messageHandling.handle(command), executor);
+  }
+
+  @Override
+  public CompletionStage<CommandStatus> handle(EditCommand command) {
+    return CompletableFuture.supplyAsync(() -> messageHandling.handle(command), executor);
+  }
+
+  @Override
+  public CompletionStage<CommandStatus> handle(NewTodoCommand command) {
+    return CompletableFuture.supplyAsync(() -> messageHandling.handle(command), executor);
+  }
+
+  @Override
+  public CompletionStage<CommandStatus> handle(ToggleAllCommand command) {
+    return CompletableFuture.supplyAsync(() -> messageHandling.handle(command), executor);
+  }
+
+  @Override
+  public CompletionStage<CommandStatus> handle(ToggleCommand command) {
+    return CompletableFuture.supplyAsync(() -> messageHandling.handle(command), executor);
+  }
+
+  @Override
+  public CompletionStage<BatchCommandStatus> handle(BatchCommand command) {
+    return CompletableFuture.supplyAsync(() -> messageHandling.handle(command), executor);
+  }
+
+  @Override
+  public CompletionStage<TodosQueryResult> handle(TodosQuery query) {
+    return CompletableFuture.supplyAsync(() -> messageHandling.handle(query), executor);
+  }
+
+  @Override
+  public CompletionStage<TodoStatsQueryResult> handle(TodoStatsQuery query) {
+    return CompletableFuture.supplyAsync(() -> messageHandling.handle(query), executor);
+  }
+}
@@ -0,0 +1,18 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+/** Detects changes of the todos made outside of the message handler, e.g. by another process. */
+@FunctionalInterface
+public interface ChangeDetector {
+  ChangeDetector NONE = () -> null;
+
+  /**
+   * Returns a cheap token for the current state of the todos, e.g. a file modification time or a
+   * version row. The todos are considered changed if the token is not equal to the previous one.
+   */
+  Object getVersion() throws Exception;
+}
@@ -0,0 +1,15 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+/** Thrown if a new todo has the id of an existing todo. */
+public class DuplicateTodoException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  public DuplicateTodoException(String id) {
+    super("Todo " + id + " already exists.");
+  }
+}
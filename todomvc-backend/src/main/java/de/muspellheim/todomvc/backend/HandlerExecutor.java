@@ -0,0 +1,151 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the blocking message handlers on the caller thread, a bounded pool of platform threads or
+ * virtual threads. The time a handler waits for a thread is measured separately from the time it
+ * runs.
+ */
+public class HandlerExecutor implements Executor, AutoCloseable {
+  private final Executor executor;
+  private final ExecutorService executorService;
+  private final AtomicLong queuedCount = new AtomicLong();
+  private final AtomicLong runningCount = new AtomicLong();
+  private final LongAdder completedCount = new LongAdder();
+  private final LongAdder rejectedCount = new LongAdder();
+  private final LongAdder totalQueueWaitNanos = new LongAdder();
+  private final LongAdder totalExecutionNanos = new LongAdder();
+  private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Long::max, 0);
+  private final LongAccumulator maxExecutionNanos = new LongAccumulator(Long::max, 0);
+
+  private HandlerExecutor(Executor executor, ExecutorService executorService) {
+    this.executor = executor;
+    this.executorService = executorService;
+  }
+
+  /** Runs the handlers on the calling thread, like the synchronous message handler. */
+  public static HandlerExecutor callerThread() {
+    return new HandlerExecutor(Runnable::run, null);
+  }
+
+  /**
+   * Runs the handlers on a fixed number of platform threads. If the queue is full, a handler is
+   * rejected with a {@link RejectedExecutionException}.
+   */
+  public static HandlerExecutor platformThreads(int threads, int queueCapacity) {
+    var threadNumber = new AtomicInteger();
+    var pool =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            it -> {
+              var thread = new Thread(it, "message-handler-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    return new HandlerExecutor(pool, pool);
+  }
+
+  /**
+   * Runs every handler on a virtual thread of its own, so a handler blocked by I/O does not occupy
+   * a platform thread.
+   *
+   * @throws UnsupportedOperationException if the JDK does not support virtual threads
+   */
+  public static HandlerExecutor virtualThreads() {
+    try {
+      // Looked up by reflection, the code is compiled for Java 11
+      var factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      var executorService = (ExecutorService) factory.invoke(null);
+      return new HandlerExecutor(executorService, executorService);
+    } catch (ReflectiveOperationException e) {
+      throw new UnsupportedOperationException("Virtual threads are not supported by this JDK.", e);
+    }
+  }
+
+  public static boolean isVirtualThreadsSupported() {
+    try {
+      virtualThreads().close();
+      return true;
+    } catch (UnsupportedOperationException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    var enqueued = System.nanoTime();
+    queuedCount.incrementAndGet();
+    try {
+      executor.execute(
+          () -> {
+            var started = System.nanoTime();
+            queuedCount.decrementAndGet();
+            runningCount.incrementAndGet();
+            try {
+              command.run();
+            } finally {
+              var finished = System.nanoTime();
+              runningCount.decrementAndGet();
+              completedCount.increment();
+              totalQueueWaitNanos.add(started - enqueued);
+              totalExecutionNanos.add(finished - started);
+              maxQueueWaitNanos.accumulate(started - enqueued);
+              maxExecutionNanos.accumulate(finished - started);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      queuedCount.decrementAndGet();
+      rejectedCount.increment();
+      throw e;
+    }
+  }
+
+  public HandlerExecutorMetrics getMetrics() {
+    var completed = completedCount.sum();
+    return new HandlerExecutorMetrics(
+        queuedCount.get(),
+        runningCount.get(),
+        completed,
+        rejectedCount.sum(),
+        Duration.ofNanos(completed > 0 ? totalQueueWaitNanos.sum() / completed : 0),
+        Duration.ofNanos(maxQueueWaitNanos.get()),
+        Duration.ofNanos(completed > 0 ? totalExecutionNanos.sum() / completed : 0),
+        Duration.ofNanos(maxExecutionNanos.get()));
+  }
+
+  /** Waits until the queued and running handlers are completed, new handlers are rejected. */
+  @Override
+  public void close() {
+    if (executorService == null) {
+      return;
+    }
+
+    executorService.shutdown();
+    try {
+      executorService.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
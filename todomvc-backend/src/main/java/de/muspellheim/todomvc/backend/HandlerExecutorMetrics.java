@@ -0,0 +1,29 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import java.time.Duration;
+import lombok.Value;
+
+@Value
+public class HandlerExecutorMetrics {
+  /** Number of handlers waiting for a thread. */
+  long queuedCount;
+
+  long runningCount;
+  long completedCount;
+  long rejectedCount;
+
+  /** Time a handler waited for a thread. */
+  Duration averageQueueWait;
+
+  Duration maxQueueWait;
+
+  /** Time a handler ran, including blocking I/O. */
+  Duration averageExecutionTime;
+
+  Duration maxExecutionTime;
+}
@@ -0,0 +1,116 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import lombok.NonNull;
+
+/**
+ * Records the change of every write to the repository in the change journal. The repository
+ * reports its changes with the version of the write, so the writes are not serialized here. The
+ * running writes are tracked, so the journal can tell a change still reported from a write of
+ * another process. A change listener set here is notified after the change is recorded.
+ */
+class JournalingTodoRepository implements TodoRepository {
+  private final TodoRepository repository;
+  private final TodosChangeJournal journal;
+  private volatile ChangeListener changeListener = ChangeListener.NONE;
+
+  JournalingTodoRepository(TodoRepository repository, TodosChangeJournal journal) {
+    this.repository = repository;
+    this.journal = journal;
+    repository.setChangeListener(this::changed);
+  }
+
+  @Override
+  public List<Todo> load() throws Exception {
+    return repository.load();
+  }
+
+  @Override
+  public List<Todo> load(TodosQuery query) throws Exception {
+    return repository.load(query);
+  }
+
+  @Override
+  public TodoStats loadStats() throws Exception {
+    return repository.loadStats();
+  }
+
+  @Override
+  public void store(List<Todo> todos) throws Exception {
+    write(
+        () -> {
+          repository.store(todos);
+          return null;
+        });
+  }
+
+  @Override
+  public void insert(Todo todo) throws Exception {
+    write(
+        () -> {
+          repository.insert(todo);
+          return null;
+        });
+  }
+
+  @Override
+  public boolean update(String id, UnaryOperator<Todo> update) throws Exception {
+    return write(() -> repository.update(id, update));
+  }
+
+  @Override
+  public boolean delete(String id) throws Exception {
+    return write(() -> repository.delete(id));
+  }
+
+  @Override
+  public boolean delete(String id, long expectedVersion) throws Exception {
+    return write(() -> repository.delete(id, expectedVersion));
+  }
+
+  @Override
+  public int updateAllCompleted(boolean completed) throws Exception {
+    return write(() -> repository.updateAllCompleted(completed));
+  }
+
+  @Override
+  public int deleteCompleted() throws Exception {
+    return write(() -> repository.deleteCompleted());
+  }
+
+  @Override
+  public boolean writeBatch(BatchWrite batch) throws Exception {
+    return write(() -> repository.writeBatch(batch));
+  }
+
+  @Override
+  public void setChangeListener(@NonNull ChangeListener listener) {
+    changeListener = listener;
+  }
+
+  private void changed(TodosChange change) {
+    journal.record(change);
+    changeListener.changed(change);
+  }
+
+  private <T> T write(Write<T> write) throws Exception {
+    var id = journal.beginWrite();
+    try {
+      return write.run();
+    } finally {
+      journal.endWrite(id);
+    }
+  }
+
+  private interface Write<T> {
+    T run() throws Exception;
+  }
+}
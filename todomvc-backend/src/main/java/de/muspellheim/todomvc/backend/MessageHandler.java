@@ -5,14 +5,18 @@
 
 package de.muspellheim.todomvc.backend;
 
+import de.muspellheim.todomvc.backend.messagehandlers.BatchCommandHandler;
 import de.muspellheim.todomvc.backend.messagehandlers.ClearCompletedCommandHandler;
 import de.muspellheim.todomvc.backend.messagehandlers.DestroyCommandHandler;
 import de.muspellheim.todomvc.backend.messagehandlers.EditCommandHandler;
 import de.muspellheim.todomvc.backend.messagehandlers.NewTodoCommandHandler;
+import de.muspellheim.todomvc.backend.messagehandlers.TodoStatsQueryHandler;
 import de.muspellheim.todomvc.backend.messagehandlers.TodosQueryHandler;
 import de.muspellheim.todomvc.backend.messagehandlers.ToggleAllCommandHandler;
 import de.muspellheim.todomvc.backend.messagehandlers.ToggleCommandHandler;
 import de.muspellheim.todomvc.contract.MessageHandling;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommand;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommandStatus;
 import de.muspellheim.todomvc.contract.messages.commands.ClearCompletedCommand;
 import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
 import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
@@ -20,6 +24,8 @@ import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
 import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleAllCommand;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQueryResult;
 import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
 import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
 
@@ -30,50 +36,109 @@ public class MessageHandler implements MessageHandling {
   private final NewTodoCommandHandler newTodoCommandHandler;
   private final ToggleAllCommandHandler toggleAllCommandHandler;
   private final ToggleCommandHandler toggleCommandHandler;
+  private final BatchCommandHandler batchCommandHandler;
   private final TodosQueryHandler todosQueryHandler;
+  private final TodoStatsQueryHandler todoStatsQueryHandler;
+  private final TodosSnapshotCache todosSnapshotCache;
+  private final TodosChangeJournal todosChangeJournal;
 
   public MessageHandler(TodoRepository todoRepository) {
+    this(todoRepository, ChangeDetector.NONE);
+  }
+
+  /** @param changeDetector detects changes of the todos made outside of this message handler */
+  public MessageHandler(TodoRepository todoRepository, ChangeDetector changeDetector) {
+    todosChangeJournal =
+        new TodosChangeJournal(TodosChangeJournal.DEFAULT_CAPACITY, changeDetector);
+    todoRepository = new JournalingTodoRepository(todoRepository, todosChangeJournal);
+    // The journal version changes with every write, so subscribers notified about a change
+    // never query an outdated snapshot.
+    todosSnapshotCache = new TodosSnapshotCache(todoRepository, todosChangeJournal::getVersion);
     clearCompletedCommandHandler = new ClearCompletedCommandHandler(todoRepository);
     destroyCommandHandler = new DestroyCommandHandler(todoRepository);
     editCommandHandler = new EditCommandHandler(todoRepository);
     newTodoCommandHandler = new NewTodoCommandHandler(todoRepository);
     toggleAllCommandHandler = new ToggleAllCommandHandler(todoRepository);
     toggleCommandHandler = new ToggleCommandHandler(todoRepository);
-    todosQueryHandler = new TodosQueryHandler(todoRepository);
+    batchCommandHandler = new BatchCommandHandler(todoRepository);
+    todosQueryHandler = new TodosQueryHandler(todosSnapshotCache, todosChangeJournal);
+    todoStatsQueryHandler = new TodoStatsQueryHandler(todoRepository);
+  }
+
+  /**
+   * Subscribes to the changes of the todo list.
+   *
+   * @see TodosChangeJournal#subscribe(Long, int)
+   */
+  public TodosChangeSubscription subscribeTodosChanges(Long sinceVersion, int bufferCapacity)
+      throws Exception {
+    return todosChangeJournal.subscribe(sinceVersion, bufferCapacity);
+  }
+
+  /**
+   * Checks for changes of the todos made outside of this message handler. Subscribers get a resync
+   * notification for them.
+   */
+  public void checkTodosChanges() throws Exception {
+    todosChangeJournal.getVersion();
   }
 
   @Override
   public CommandStatus handle(ClearCompletedCommand command) {
-    return clearCompletedCommandHandler.handle(command);
+    var status = clearCompletedCommandHandler.handle(command);
+    todosSnapshotCache.invalidate();
+    return status;
   }
 
   @Override
   public CommandStatus handle(DestroyCommand command) {
-    return destroyCommandHandler.handle(command);
+    var status = destroyCommandHandler.handle(command);
+    todosSnapshotCache.invalidate();
+    return status;
   }
 
   @Override
   public CommandStatus handle(EditCommand command) {
-    return editCommandHandler.handle(command);
+    var status = editCommandHandler.handle(command);
+    todosSnapshotCache.invalidate();
+    return status;
   }
 
   @Override
   public CommandStatus handle(NewTodoCommand command) {
-    return newTodoCommandHandler.handle(command);
+    var status = newTodoCommandHandler.handle(command);
+    todosSnapshotCache.invalidate();
+    return status;
   }
 
   @Override
   public CommandStatus handle(ToggleAllCommand command) {
-    return toggleAllCommandHandler.handle(command);
+    var status = toggleAllCommandHandler.handle(command);
+    todosSnapshotCache.invalidate();
+    return status;
   }
 
   @Override
   public CommandStatus handle(ToggleCommand command) {
-    return toggleCommandHandler.handle(command);
+    var status = toggleCommandHandler.handle(command);
+    todosSnapshotCache.invalidate();
+    return status;
+  }
+
+  @Override
+  public BatchCommandStatus handle(BatchCommand command) {
+    var status = batchCommandHandler.handle(command);
+    todosSnapshotCache.invalidate();
+    return status;
   }
 
   @Override
   public TodosQueryResult handle(TodosQuery query) {
     return todosQueryHandler.handle(query);
   }
+
+  @Override
+  public TodoStatsQueryResult handle(TodoStatsQuery query) {
+    return todoStatsQueryHandler.handle(query);
+  }
 }
@@ -0,0 +1,158 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Stages the writes of a batch on a copy of the todos and tracks the changed and removed todos, so
+ * the batch can be stored in one write.
+ *
+ * <p>Not safe for concurrent use, a staged repository is confined to one batch. The change
+ * listener is not notified, the repository applying the batch reports its changes.
+ */
+public class StagedTodoRepository implements TodoRepository {
+  private final Map<String, Todo> todos = new LinkedHashMap<>();
+  private final Set<String> changedIds = new LinkedHashSet<>();
+  private final Set<String> removedIds = new LinkedHashSet<>();
+
+  public StagedTodoRepository(List<Todo> todos) {
+    todos.forEach(it -> this.todos.put(it.getId(), it));
+  }
+
+  public List<Todo> getChanged() {
+    return changedIds.stream().map(todos::get).collect(Collectors.toList());
+  }
+
+  public List<String> getRemovedIds() {
+    return List.copyOf(removedIds);
+  }
+
+  @Override
+  public List<Todo> load() {
+    return List.copyOf(todos.values());
+  }
+
+  @Override
+  public List<Todo> load(TodosQuery query) {
+    return todos.values().stream()
+        .filter(query.getFilter())
+        .skip(query.getOffset())
+        .limit(query.getLimit() != null ? query.getLimit() : Long.MAX_VALUE)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public TodoStats loadStats() {
+    var completedCount = (int) todos.values().stream().filter(Todo::isCompleted).count();
+    return new TodoStats(todos.size(), completedCount);
+  }
+
+  @Override
+  public void store(List<Todo> todos) {
+    new ArrayList<>(this.todos.keySet()).forEach(this::removed);
+    this.todos.clear();
+    todos.forEach(this::insert);
+  }
+
+  @Override
+  public void insert(Todo todo) {
+    if (todos.containsKey(todo.getId())) {
+      throw new DuplicateTodoException(todo.getId());
+    }
+
+    todos.put(todo.getId(), todo);
+    changed(todo.getId());
+  }
+
+  @Override
+  public boolean update(String id, UnaryOperator<Todo> update) {
+    var todo = todos.get(id);
+    if (todo == null) {
+      return false;
+    }
+
+    var updated =
+        update.apply(
+            new Todo(todo.getId(), todo.getTitle(), todo.isCompleted(), todo.getVersion()));
+    if (updated.equals(todo)) {
+      return false;
+    }
+
+    todos.put(id, new Todo(id, updated.getTitle(), updated.isCompleted(), todo.getVersion() + 1));
+    changed(id);
+    return true;
+  }
+
+  @Override
+  public boolean delete(String id) {
+    if (todos.remove(id) == null) {
+      return false;
+    }
+
+    removed(id);
+    return true;
+  }
+
+  @Override
+  public boolean delete(String id, long expectedVersion) {
+    var todo = todos.get(id);
+    if (todo == null) {
+      return false;
+    }
+
+    VersionConflictException.check(todo, expectedVersion);
+    return delete(id);
+  }
+
+  @Override
+  public int updateAllCompleted(boolean completed) {
+    var count = 0;
+    for (var todo : List.copyOf(todos.values())) {
+      if (todo.isCompleted() != completed) {
+        todos.put(
+            todo.getId(),
+            new Todo(todo.getId(), todo.getTitle(), completed, todo.getVersion() + 1));
+        changed(todo.getId());
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public int deleteCompleted() {
+    var ids =
+        todos.values().stream()
+            .filter(Todo::isCompleted)
+            .map(Todo::getId)
+            .collect(Collectors.toList());
+    ids.forEach(this::delete);
+    return ids.size();
+  }
+
+  @Override
+  public void setChangeListener(ChangeListener listener) {}
+
+  private void changed(String id) {
+    removedIds.remove(id);
+    changedIds.add(id);
+  }
+
+  private void removed(String id) {
+    changedIds.remove(id);
+    removedIds.add(id);
+  }
+}
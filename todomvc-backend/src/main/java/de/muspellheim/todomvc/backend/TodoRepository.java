@@ -6,10 +6,89 @@
 package de.muspellheim.todomvc.backend;
 
 import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
+/**
+ * Implementations must be safe for concurrent use, every operation is applied atomically. The
+ * update function may be called more than once and must not have side effects.
+ */
 public interface TodoRepository {
   List<Todo> load() throws Exception;
 
+  /** Loads only the todos matching the filter, starting at the offset and at most limit todos. */
+  List<Todo> load(TodosQuery query) throws Exception;
+
+  /** Counts are maintained on every write if possible, so loading them is cheap. */
+  TodoStats loadStats() throws Exception;
+
   void store(List<Todo> todos) throws Exception;
+
+  /** @throws DuplicateTodoException if a todo with the id exists, nothing is written then */
+  void insert(Todo todo) throws Exception;
+
+  /**
+   * Replaces the todo with the given id by the result of the update function. The version of a
+   * changed todo is incremented, the version returned by the update function is ignored.
+   *
+   * @return {@code false} if the id is unknown or the todo is unchanged, nothing is written then
+   */
+  boolean update(String id, UnaryOperator<Todo> update) throws Exception;
+
+  boolean delete(String id) throws Exception;
+
+  /**
+   * Deletes the todo only if it has the expected version.
+   *
+   * @return {@code false} if the id is unknown
+   * @throws VersionConflictException if the todo has another version
+   */
+  boolean delete(String id, long expectedVersion) throws Exception;
+
+  /** @return the number of todos changed */
+  int updateAllCompleted(boolean completed) throws Exception;
+
+  /** @return the number of todos deleted */
+  int deleteCompleted() throws Exception;
+
+  /**
+   * Sets the listener notified about the change of every write. The version of the todos is
+   * incremented by one with every write as part of the write, so a missing version reveals a write
+   * of another process. Concurrent writes may notify out of order.
+   */
+  void setChangeListener(ChangeListener listener);
+
+  /**
+   * Applies the writes of the batch atomically. The batch writes to a staged copy of the todos,
+   * which is stored in one write if the batch completes.
+   *
+   * <p>The default implementation is only atomic if all writes to this repository are serialized.
+   * It stores the whole list, so the change listener is notified about a reset.
+   *
+   * @return {@code false} if the batch was aborted, nothing is written then
+   */
+  default boolean writeBatch(BatchWrite batch) throws Exception {
+    var staged = new StagedTodoRepository(load());
+    if (!batch.writeTo(staged)) {
+      return false;
+    }
+
+    store(staged.load());
+    return true;
+  }
+
+  @FunctionalInterface
+  interface BatchWrite {
+    /** @return {@code false} to abort the batch */
+    boolean writeTo(TodoRepository todos) throws Exception;
+  }
+
+  @FunctionalInterface
+  interface ChangeListener {
+    ChangeListener NONE = change -> {};
+
+    /** Called before the write returns, must not block and not access the repository. */
+    void changed(TodosChange change);
+  }
 }
@@ -0,0 +1,18 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import lombok.Value;
+
+@Value
+public class TodoStats {
+  int totalCount;
+  int completedCount;
+
+  public int getActiveCount() {
+    return totalCount - completedCount;
+  }
+}
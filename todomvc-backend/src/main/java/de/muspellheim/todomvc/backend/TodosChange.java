@@ -0,0 +1,30 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.util.List;
+import lombok.Value;
+
+/**
+ * The todos changed and removed by one write to a repository and the version the write gave the
+ * todos. The changes of a reset are not known, for example after the whole list was replaced.
+ */
+@Value
+public class TodosChange {
+  long version;
+  List<Todo> changed;
+  List<String> removedIds;
+  boolean reset;
+
+  public static TodosChange of(long version, List<Todo> changed, List<String> removedIds) {
+    return new TodosChange(version, List.copyOf(changed), List.copyOf(removedIds), false);
+  }
+
+  public static TodosChange reset(long version) {
+    return new TodosChange(version, List.of(), List.of(), true);
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.notifications.TodosChangedNotification;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Keeps a bounded journal of the todos changed by every version of the todo list, so a client can
+ * fetch only the changes since the version it knows.
+ *
+ * <p>The repository reports the change of every write with the version the write gave the todos.
+ * Concurrent writes may report out of order, so the changes are applied in the order of their
+ * versions. If a version is still missing after all writes running at that time are finished,
+ * another process wrote the todos. Then or if the token of the change detector changed without a
+ * write of this journal, the changes are unknown and the client must fetch the whole list.
+ *
+ * <p>The versions of the journal start with the time the journal was created, so the version a
+ * client got from a former process is older than the journal and the client gets a resync instead
+ * of wrong changes.
+ *
+ * <p>Subscribers are notified about every recorded change and get a resync notification if the
+ * changes are unknown.
+ */
+public class TodosChangeJournal {
+  public static final int DEFAULT_CAPACITY = 1_000;
+
+  private final int capacity;
+  private final ChangeDetector changeDetector;
+  private final Deque<Entry> entries = new ArrayDeque<>();
+  private final NavigableMap<Long, PendingChange> pendingChanges = new TreeMap<>();
+  private final NavigableSet<Long> runningWrites = new TreeSet<>();
+  private final List<TodosChangeSubscription> subscriptions = new ArrayList<>();
+  private long version;
+  private long truncatedVersion;
+  private Long repositoryVersion;
+  private long lastWrite;
+  private Object detectedVersion;
+  private long detectedWrite;
+
+  public TodosChangeJournal() {
+    this(DEFAULT_CAPACITY, ChangeDetector.NONE);
+  }
+
+  /**
+   * @param capacity the maximum number of changed todos kept
+   * @param changeDetector returns a token for the current state of the repository, which is
+   *     compared with equals
+   */
+  public TodosChangeJournal(int capacity, @NonNull ChangeDetector changeDetector) {
+    this.capacity = capacity;
+    this.changeDetector = changeDetector;
+    // Leaves room for a thousand versions per millisecond, a JavaScript number holds it exactly
+    version = System.currentTimeMillis() * 1_000;
+    truncatedVersion = version;
+  }
+
+  public long getVersion() throws Exception {
+    checkExternalChange();
+    synchronized (this) {
+      return version;
+    }
+  }
+
+  /**
+   * Marks the start of a write to the repository, the write reports its change before it ends.
+   *
+   * @return the write to end
+   */
+  synchronized long beginWrite() {
+    lastWrite++;
+    runningWrites.add(lastWrite);
+    return lastWrite;
+  }
+
+  synchronized void endWrite(long write) {
+    runningWrites.remove(write);
+    applyPendingChanges();
+  }
+
+  /** Records the change of one write to the repository. Does not access the repository. */
+  public synchronized void record(@NonNull TodosChange change) {
+    if (repositoryVersion != null && change.getVersion() <= repositoryVersion) {
+      return;
+    }
+
+    pendingChanges.put(change.getVersion(), new PendingChange(change, lastWrite));
+    applyPendingChanges();
+  }
+
+  /** @return {@code null} if the changes since the version are not known */
+  public Changes getChangesSince(long sinceVersion) throws Exception {
+    checkExternalChange();
+    synchronized (this) {
+      return changesSince(sinceVersion);
+    }
+  }
+
+  private Changes changesSince(long sinceVersion) {
+    if (sinceVersion < truncatedVersion || sinceVersion > version) {
+      return null;
+    }
+
+    // Keeps the order of the first change, so new todos are appended in insertion order
+    var latestById = new LinkedHashMap<String, Entry>();
+    for (var entry : entries) {
+      if (entry.getVersion() > sinceVersion) {
+        latestById.put(entry.getId(), entry);
+      }
+    }
+
+    var changed = new ArrayList<Todo>();
+    var removedIds = new ArrayList<String>();
+    for (var entry : latestById.values()) {
+      if (entry.getTodo() != null) {
+        changed.add(entry.getTodo());
+      } else {
+        removedIds.add(entry.getId());
+      }
+    }
+    return new Changes(version, changed, removedIds);
+  }
+
+  /**
+   * Subscribes to the changes of the todo list.
+   *
+   * @param sinceVersion resumes with the changes since this version, or {@code null} to start with
+   *     a resync
+   * @param bufferCapacity the maximum number of notifications buffered for the subscriber
+   */
+  public TodosChangeSubscription subscribe(Long sinceVersion, int bufferCapacity)
+      throws Exception {
+    var subscription = new TodosChangeSubscription(this, bufferCapacity);
+    checkExternalChange();
+    synchronized (this) {
+      var changes = sinceVersion != null ? changesSince(sinceVersion) : null;
+      if (changes == null) {
+        subscription.publish(TodosChangedNotification.resync(version));
+      } else if (changes.getVersion() > sinceVersion) {
+        subscription.publish(
+            new TodosChangedNotification(
+                changes.getVersion(), changes.getChanged(), changes.getRemovedIds(), false));
+      }
+      subscriptions.add(subscription);
+    }
+    return subscription;
+  }
+
+  synchronized void unsubscribe(TodosChangeSubscription subscription) {
+    subscriptions.remove(subscription);
+  }
+
+  private void publish(TodosChangedNotification notification) {
+    subscriptions.forEach(it -> it.publish(notification));
+  }
+
+  private void applyPendingChanges() {
+    while (!pendingChanges.isEmpty()) {
+      var pending = pendingChanges.firstEntry().getValue();
+      var change = pending.getChange();
+      if (repositoryVersion == null || change.getVersion() != repositoryVersion + 1) {
+        if (!runningWrites.isEmpty() && runningWrites.first() <= pending.getLastWrite()) {
+          // The missing version may belong to a write still running
+          return;
+        }
+        if (repositoryVersion != null) {
+          truncate();
+        }
+      }
+
+      pendingChanges.pollFirstEntry();
+      apply(change);
+    }
+  }
+
+  private void apply(TodosChange change) {
+    repositoryVersion = change.getVersion();
+    if (change.isReset()) {
+      truncate();
+      return;
+    }
+
+    version++;
+    change.getChanged().forEach(it -> entries.addLast(new Entry(version, it.getId(), it)));
+    change.getRemovedIds().forEach(it -> entries.addLast(new Entry(version, it, null)));
+    while (entries.size() > capacity) {
+      truncatedVersion = entries.removeFirst().getVersion();
+    }
+    publish(
+        new TodosChangedNotification(version, change.getChanged(), change.getRemovedIds(), false));
+  }
+
+  /**
+   * Compares the token of the change detector with the token of the last check. The writes of this
+   * journal change the token too, so it is only compared if there was no write since the last
+   * check. The repository is queried without holding the lock of the journal and only if no write
+   * is running, a write of another process is revealed by the version of the next write otherwise.
+   */
+  private void checkExternalChange() throws Exception {
+    long write;
+    synchronized (this) {
+      if (!isIdle()) {
+        return;
+      }
+
+      write = lastWrite;
+    }
+
+    var currentVersion = changeDetector.getVersion();
+    if (currentVersion == null) {
+      return;
+    }
+
+    synchronized (this) {
+      if (!isIdle() || lastWrite != write) {
+        return;
+      }
+
+      if (detectedVersion != null
+          && detectedWrite == write
+          && !Objects.equals(detectedVersion, currentVersion)) {
+        truncate();
+      }
+      detectedVersion = currentVersion;
+      detectedWrite = write;
+    }
+  }
+
+  private boolean isIdle() {
+    return runningWrites.isEmpty() && pendingChanges.isEmpty();
+  }
+
+  private void truncate() {
+    version++;
+    entries.clear();
+    truncatedVersion = version;
+    publish(TodosChangedNotification.resync(version));
+  }
+
+  @Value
+  public static class Changes {
+    long version;
+    List<Todo> changed;
+    List<String> removedIds;
+  }
+
+  @Value
+  private static class PendingChange {
+    TodosChange change;
+    long lastWrite;
+  }
+
+  @Value
+  private static class Entry {
+    long version;
+    String id;
+    Todo todo;
+  }
+}
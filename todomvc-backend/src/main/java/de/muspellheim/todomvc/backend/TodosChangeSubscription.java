@@ -0,0 +1,114 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import de.muspellheim.todomvc.contract.messages.notifications.TodosChangedNotification;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+
+/**
+ * Buffers the change notifications of the todo list for one subscriber.
+ *
+ * <p>The buffer is bounded. If a slow subscriber falls behind, the buffered notifications are
+ * dropped and replaced by a single resync notification. Notifications are either polled or
+ * pushed with a listener.
+ */
+public class TodosChangeSubscription implements AutoCloseable {
+  private final TodosChangeJournal journal;
+  private final int bufferCapacity;
+  private final Deque<TodosChangedNotification> notifications = new ArrayDeque<>();
+  private Runnable listener = () -> {};
+  private boolean closed;
+
+  TodosChangeSubscription(TodosChangeJournal journal, int bufferCapacity) {
+    if (bufferCapacity < 1) {
+      throw new IllegalArgumentException("Buffer capacity must be at least 1.");
+    }
+
+    this.journal = journal;
+    this.bufferCapacity = bufferCapacity;
+  }
+
+  synchronized void publish(TodosChangedNotification notification) {
+    if (closed) {
+      return;
+    }
+
+    var pending = notifications.peekLast();
+    if (notifications.size() >= bufferCapacity || (pending != null && pending.isResync())) {
+      // A resync covers all buffered and later changes
+      notifications.clear();
+      notification = TodosChangedNotification.resync(notification.getVersion());
+    }
+    notifications.addLast(notification);
+    notifyAll();
+    listener.run();
+  }
+
+  /**
+   * Sets the listener called when a notification is buffered. The listener is called while the
+   * journal records a change, so it must not block and should hand the notification off to poll
+   * it.
+   */
+  public synchronized void setListener(@NonNull Runnable listener) {
+    this.listener = listener;
+  }
+
+  /** @return the next buffered notification without waiting, or {@code null} if there is none */
+  public synchronized TodosChangedNotification poll() {
+    return notifications.pollFirst();
+  }
+
+  /**
+   * Waits for the next notification. If no notification arrives within the timeout, changes made
+   * outside of this backend are checked.
+   *
+   * @return {@code null} if no notification arrived within the timeout or the subscription is
+   *     closed
+   */
+  public TodosChangedNotification poll(long timeout, TimeUnit unit) throws Exception {
+    var notification = take(unit.toNanos(timeout));
+    if (notification != null || isClosed()) {
+      return notification;
+    }
+
+    journal.getVersion();
+    return take(0);
+  }
+
+  private synchronized TodosChangedNotification take(long timeoutNanos)
+      throws InterruptedException {
+    var deadline = System.nanoTime() + timeoutNanos;
+    while (notifications.isEmpty() && !closed) {
+      var remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return null;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+    }
+    return notifications.pollFirst();
+  }
+
+  public synchronized boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+
+      closed = true;
+      notifications.clear();
+      notifyAll();
+    }
+    journal.unsubscribe(this);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Serves the todos from an immutable snapshot which is loaded from the repository only after it was
+ * invalidated or the change detector reports an external change.
+ */
+public class TodosSnapshotCache {
+  private final TodoRepository repository;
+  private final ChangeDetector changeDetector;
+  private final AtomicLong version = new AtomicLong();
+  private volatile Snapshot snapshot;
+
+  public TodosSnapshotCache(@NonNull TodoRepository repository) {
+    this(repository, ChangeDetector.NONE);
+  }
+
+  public TodosSnapshotCache(
+      @NonNull TodoRepository repository, @NonNull ChangeDetector changeDetector) {
+    this.repository = repository;
+    this.changeDetector = changeDetector;
+  }
+
+  /** Returns the version of the cache, which is incremented by every invalidation. */
+  public long getVersion() {
+    return version.get();
+  }
+
+  /** @return an immutable list of todos, the todos must not be modified */
+  public List<Todo> getTodos() throws Exception {
+    var externalVersion = changeDetector.getVersion();
+    var current = getCurrentSnapshot(externalVersion);
+    if (current != null) {
+      return current.getTodos();
+    }
+
+    var loadedVersion = version.get();
+    var todos = List.copyOf(repository.load());
+    snapshot = new Snapshot(loadedVersion, externalVersion, todos);
+    return todos;
+  }
+
+  /**
+   * Applies the query to the snapshot if it is up to date, otherwise the query is pushed down to
+   * the repository and the snapshot is not loaded.
+   *
+   * @return an immutable list of todos, the todos must not be modified
+   */
+  public List<Todo> getTodos(@NonNull TodosQuery query) throws Exception {
+    if (query.equals(new TodosQuery())) {
+      return getTodos();
+    }
+
+    var current = getCurrentSnapshot(changeDetector.getVersion());
+    if (current == null) {
+      return List.copyOf(repository.load(query));
+    }
+
+    return current.getTodos().stream()
+        .filter(query.getFilter())
+        .skip(query.getOffset())
+        .limit(query.getLimit() != null ? query.getLimit() : Long.MAX_VALUE)
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  private Snapshot getCurrentSnapshot(Object externalVersion) {
+    var current = snapshot;
+    if (current != null
+        && current.getVersion() == version.get()
+        && Objects.equals(current.getExternalVersion(), externalVersion)) {
+      return current;
+    }
+    return null;
+  }
+
+  /** Must be called after every write to the repository. */
+  public void invalidate() {
+    version.incrementAndGet();
+  }
+
+  @Value
+  private static class Snapshot {
+    long version;
+    Object externalVersion;
+    List<Todo> todos;
+  }
+}
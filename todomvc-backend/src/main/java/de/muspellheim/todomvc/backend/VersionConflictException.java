@@ -0,0 +1,31 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+
+/** Thrown if a todo has not the expected version, because someone else changed it. */
+public class VersionConflictException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  public VersionConflictException(Todo todo, long expectedVersion) {
+    super(
+        "Todo "
+            + todo.getId()
+            + " has version "
+            + todo.getVersion()
+            + ", but version "
+            + expectedVersion
+            + " was expected.");
+  }
+
+  /** @throws VersionConflictException if an expected version is given and does not match */
+  public static void check(Todo todo, Long expectedVersion) {
+    if (expectedVersion != null && todo.getVersion() != expectedVersion) {
+      throw new VersionConflictException(todo, expectedVersion);
+    }
+  }
+}
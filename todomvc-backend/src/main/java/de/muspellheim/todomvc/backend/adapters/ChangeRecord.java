@@ -0,0 +1,161 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.io.IOException;
+import java.util.Locale;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+class ChangeRecord {
+  enum Type {
+    CREATED,
+    TITLE_CHANGED,
+    /** Without id the completion of all todos changed. */
+    COMPLETION_CHANGED,
+    /** Title and completion changed. */
+    UPDATED,
+    DESTROYED,
+    /** All completed todos destroyed. */
+    CLEARED
+  }
+
+  long sequence;
+  Type type;
+  String id;
+  String title;
+  Boolean completed;
+
+  /** Only set for created todos, every change increments the version. */
+  Long version;
+
+  static ChangeRecord created(Todo todo) {
+    return new ChangeRecord(
+        0, Type.CREATED, todo.getId(), todo.getTitle(), todo.isCompleted(), todo.getVersion());
+  }
+
+  static ChangeRecord titleChanged(String id, String title) {
+    return new ChangeRecord(0, Type.TITLE_CHANGED, id, title, null, null);
+  }
+
+  static ChangeRecord completionChanged(String id, boolean completed) {
+    return new ChangeRecord(0, Type.COMPLETION_CHANGED, id, null, completed, null);
+  }
+
+  static ChangeRecord updated(String id, String title, boolean completed) {
+    return new ChangeRecord(0, Type.UPDATED, id, title, completed, null);
+  }
+
+  static ChangeRecord destroyed(String id) {
+    return new ChangeRecord(0, Type.DESTROYED, id, null, null, null);
+  }
+
+  static ChangeRecord cleared() {
+    return new ChangeRecord(0, Type.CLEARED, null, null, null, null);
+  }
+
+  void applyTo(TodoTable todos) {
+    Todo todo;
+    switch (type) {
+      case CREATED:
+        todos.put(new Todo(id, title, completed, version != null ? version : 0));
+        break;
+      case TITLE_CHANGED:
+        todo = todos.get(id);
+        if (todo != null) {
+          todos.put(new Todo(id, title, todo.isCompleted(), todo.getVersion() + 1));
+        }
+        break;
+      case COMPLETION_CHANGED:
+        if (id == null) {
+          todos.updateAllCompleted(completed);
+        } else {
+          todo = todos.get(id);
+          if (todo != null) {
+            todos.put(new Todo(id, todo.getTitle(), completed, todo.getVersion() + 1));
+          }
+        }
+        break;
+      case UPDATED:
+        todo = todos.get(id);
+        if (todo != null) {
+          todos.put(new Todo(id, title, completed, todo.getVersion() + 1));
+        }
+        break;
+      case DESTROYED:
+        todos.remove(id);
+        break;
+      case CLEARED:
+        todos.removeCompleted();
+        break;
+      default:
+        throw new IllegalStateException("Unreachable code");
+    }
+  }
+
+  void write(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("seq").value(sequence);
+    writer.name("type").value(type.name().toLowerCase(Locale.ROOT));
+    if (id != null) {
+      writer.name("id").value(id);
+    }
+    if (title != null) {
+      writer.name("title").value(title);
+    }
+    if (completed != null) {
+      writer.name("completed").value(completed);
+    }
+    if (version != null) {
+      writer.name("version").value(version);
+    }
+    writer.endObject();
+  }
+
+  static ChangeRecord read(JsonReader reader) throws IOException {
+    var record = new ChangeRecord();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      var name = reader.nextName();
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        continue;
+      }
+      switch (name) {
+        case "seq":
+          record.sequence = reader.nextLong();
+          break;
+        case "type":
+          record.type = Type.valueOf(reader.nextString().toUpperCase(Locale.ROOT));
+          break;
+        case "id":
+          record.id = reader.nextString();
+          break;
+        case "title":
+          record.title = reader.nextString();
+          break;
+        case "completed":
+          record.completed = reader.nextBoolean();
+          break;
+        case "version":
+          record.version = reader.nextLong();
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return record;
+  }
+}
@@ -0,0 +1,28 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+@Value
+@Builder
+public class ConnectionPoolConfiguration {
+  @Builder.Default int minSize = 0;
+  @Builder.Default int maxSize = 10;
+  @Builder.Default @NonNull Duration acquisitionTimeout = Duration.ofSeconds(30);
+
+  /** Connections idle for longer are closed, zero disables idle eviction. */
+  @Builder.Default @NonNull Duration idleTimeout = Duration.ofMinutes(5);
+
+  /** Interval of the background validation of idle connections, zero disables validation. */
+  @Builder.Default @NonNull Duration validationInterval = Duration.ofMinutes(1);
+
+  /** Prepared statements cached by the JDBC driver per physical connection. */
+  @Builder.Default int statementCacheSize = 32;
+}
@@ -0,0 +1,18 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import java.time.Duration;
+import lombok.Value;
+
+@Value
+public class ConnectionPoolMetrics {
+  long activeCount;
+  long idleCount;
+  long awaitingCount;
+  Duration averageWaitTime;
+  Duration maxWaitTime;
+}
@@ -0,0 +1,17 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+public enum FsyncPolicy {
+  /** Every write is flushed to disk before it is acknowledged. */
+  PER_WRITE,
+
+  /** Concurrent writes wait for one shared flush to disk before they are acknowledged. */
+  GROUPED,
+
+  /** Writes are acknowledged at once and flushed to disk periodically. */
+  INTERVAL
+}
@@ -6,6 +6,7 @@
 package de.muspellheim.todomvc.backend.adapters;
 
 import java.nio.file.Path;
+import java.sql.SQLException;
 import javax.sql.DataSource;
 import org.h2.jdbcx.JdbcDataSource;
 
@@ -17,4 +18,11 @@ public class H2DataSourceFactory {
     dataSource.setPassword(password);
     return dataSource;
   }
+
+  public static PooledDataSource createPooledFile(
+      Path file, String user, String password, ConnectionPoolConfiguration pool)
+      throws SQLException {
+    var url = "jdbc:h2:" + file + ";QUERY_CACHE_SIZE=" + pool.getStatementCacheSize();
+    return PooledDataSource.create(url, user, password, pool);
+  }
 }
@@ -5,16 +5,33 @@
 
 package de.muspellheim.todomvc.backend.adapters;
 
+import de.muspellheim.todomvc.backend.DuplicateTodoException;
+import de.muspellheim.todomvc.backend.StagedTodoRepository;
 import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.backend.TodoStats;
+import de.muspellheim.todomvc.backend.TodosChange;
+import de.muspellheim.todomvc.backend.VersionConflictException;
 import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.function.UnaryOperator;
 import javax.sql.DataSource;
 import lombok.NonNull;
 
 public class JdbcTodoRepository implements TodoRepository {
+  /** The SQL state of a unique constraint violation, the same for H2 and PostgreSQL. */
+  private static final String UNIQUE_VIOLATION = "23505";
+
   private final DataSource dataSource;
+  private volatile ChangeListener changeListener = ChangeListener.NONE;
 
   public JdbcTodoRepository(@NonNull DataSource dataSource) {
     this.dataSource = dataSource;
@@ -27,7 +44,60 @@ public class JdbcTodoRepository implements TodoRepository {
             "CREATE TABLE IF NOT EXISTS todos ("
                 + "id VARCHAR(255) NOT NULL,"
                 + "title VARCHAR(255) NOT NULL,"
-                + "completed BOOLEAN NOT NULL);");
+                + "completed BOOLEAN NOT NULL,"
+                + "version BIGINT NOT NULL DEFAULT 0,"
+                + "position BIGINT GENERATED BY DEFAULT AS IDENTITY,"
+                + "PRIMARY KEY (id));");
+        if (!hasPrimaryKey(connection)) {
+          statement.executeUpdate("ALTER TABLE todos ADD PRIMARY KEY (id);");
+        }
+        statement.executeUpdate(
+            "ALTER TABLE todos ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;");
+        // Existing rows are numbered in the order of the table scan
+        statement.executeUpdate(
+            "ALTER TABLE todos ADD COLUMN IF NOT EXISTS"
+                + " position BIGINT GENERATED BY DEFAULT AS IDENTITY;");
+        statement.executeUpdate(
+            "CREATE INDEX IF NOT EXISTS todos_completed_idx ON todos (completed);");
+        statement.executeUpdate(
+            "CREATE INDEX IF NOT EXISTS todos_position_idx ON todos (position);");
+        statement.executeUpdate("CREATE SEQUENCE IF NOT EXISTS todos_change_seq;");
+      }
+    }
+  }
+
+  private static boolean hasPrimaryKey(Connection connection) throws SQLException {
+    var metaData = connection.getMetaData();
+    for (var table : List.of("todos", "TODOS")) {
+      try (var resultSet = metaData.getPrimaryKeys(null, null, table)) {
+        if (resultSet.next()) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the last version taken by a write of this repository from the change sequence. Can be
+   * used to detect changes by other processes sharing the database.
+   */
+  public long getVersion() throws SQLException {
+    try (var connection = dataSource.getConnection()) {
+      String retrieveSql;
+      if (isPostgreSql(connection)) {
+        // The start value is returned before the first version was taken
+        retrieveSql =
+            "SELECT CASE WHEN is_called THEN last_value ELSE last_value - 1 END"
+                + " FROM todos_change_seq;";
+      } else {
+        retrieveSql =
+            "SELECT current_value FROM information_schema.sequences"
+                + " WHERE sequence_name = 'TODOS_CHANGE_SEQ';";
+      }
+      try (var statement = connection.prepareStatement(retrieveSql)) {
+        var resultSet = statement.executeQuery();
+        return resultSet.next() ? resultSet.getLong(1) : 0;
       }
     }
   }
@@ -35,42 +105,476 @@ public class JdbcTodoRepository implements TodoRepository {
   @Override
   public List<Todo> load() throws SQLException {
     try (var connection = dataSource.getConnection()) {
-      var retrieveAllSql = "SELECT id, title, completed FROM todos;";
-      try (var statement = connection.prepareStatement(retrieveAllSql)) {
-        var todos = new ArrayList<Todo>();
+      return load(connection);
+    }
+  }
+
+  private static List<Todo> load(Connection connection) throws SQLException {
+    var retrieveAllSql = "SELECT id, title, completed, version FROM todos ORDER BY position;";
+    try (var statement = connection.prepareStatement(retrieveAllSql)) {
+      var todos = new ArrayList<Todo>();
+      var resultSet = statement.executeQuery();
+      while (resultSet.next()) {
+        var id = resultSet.getString(1);
+        var title = resultSet.getString(2);
+        var completed = resultSet.getBoolean(3);
+        var version = resultSet.getLong(4);
+        todos.add(new Todo(id, title, completed, version));
+      }
+      return todos;
+    }
+  }
+
+  @Override
+  public List<Todo> load(@NonNull TodosQuery query) throws SQLException {
+    var retrieveSql = "SELECT id, title, completed, version FROM todos";
+    if (query.getFilter() != TodosQuery.Filter.ALL) {
+      retrieveSql += " WHERE completed = ?";
+    }
+    retrieveSql += " ORDER BY position LIMIT ? OFFSET ?;";
+    try (var connection = dataSource.getConnection();
+        var statement = connection.prepareStatement(retrieveSql)) {
+      var index = 1;
+      if (query.getFilter() != TodosQuery.Filter.ALL) {
+        statement.setBoolean(index++, query.getFilter() == TodosQuery.Filter.COMPLETED);
+      }
+      if (query.getLimit() != null) {
+        statement.setInt(index++, query.getLimit());
+      } else {
+        // No limit, H2 rejects Long.MAX_VALUE
+        statement.setNull(index++, Types.INTEGER);
+      }
+      statement.setInt(index, query.getOffset());
+      var todos = new ArrayList<Todo>();
+      var resultSet = statement.executeQuery();
+      while (resultSet.next()) {
+        todos.add(
+            new Todo(
+                resultSet.getString(1),
+                resultSet.getString(2),
+                resultSet.getBoolean(3),
+                resultSet.getLong(4)));
+      }
+      return todos;
+    }
+  }
+
+  /** Counts the completed todos with the index on the completed column. */
+  @Override
+  public TodoStats loadStats() throws SQLException {
+    try (var connection = dataSource.getConnection()) {
+      var countSql =
+          "SELECT COUNT(*), (SELECT COUNT(*) FROM todos WHERE completed = TRUE) FROM todos;";
+      try (var statement = connection.prepareStatement(countSql)) {
         var resultSet = statement.executeQuery();
-        while (resultSet.next()) {
-          var id = resultSet.getString(1);
-          var title = resultSet.getString(2);
-          var completed = resultSet.getBoolean(3);
-          todos.add(new Todo(id, title, completed));
-        }
-        return todos;
+        resultSet.next();
+        return new TodoStats(resultSet.getInt(1), resultSet.getInt(2));
       }
     }
   }
 
   @Override
-  public void store(List<Todo> todos) throws SQLException {
+  public void store(@NonNull List<Todo> todos) throws SQLException {
+    inTransaction(
+        (connection, changes) -> {
+          var existingTodos = load(connection);
+          if (isOrderPreserved(existingTodos, todos)) {
+            storeChanges(connection, existingTodos, todos);
+          } else {
+            storeAll(connection, todos);
+          }
+          changes.add(TodosChange.reset(nextVersion(connection)));
+          return null;
+        });
+  }
+
+  /**
+   * Rows are ordered by their position, which is taken from the identity sequence on insert and
+   * kept on update. So row-level changes can only express lists which keep the order of the
+   * remaining todos and append new todos at the end. Otherwise all rows are inserted again in the
+   * order of the list.
+   */
+  private static boolean isOrderPreserved(List<Todo> existingTodos, List<Todo> todos) {
+    var ids = new HashSet<String>();
+    todos.forEach(it -> ids.add(it.getId()));
+    var existingIds = new HashSet<String>();
+    var remainingIds = new ArrayList<String>();
+    for (var todo : existingTodos) {
+      existingIds.add(todo.getId());
+      if (ids.contains(todo.getId())) {
+        remainingIds.add(todo.getId());
+      }
+    }
+
+    var index = 0;
+    var appending = false;
+    for (var todo : todos) {
+      if (!existingIds.contains(todo.getId())) {
+        appending = true;
+        continue;
+      }
+      if (appending
+          || index >= remainingIds.size()
+          || !remainingIds.get(index).equals(todo.getId())) {
+        return false;
+      }
+      index++;
+    }
+    return true;
+  }
+
+  private static void storeChanges(
+      Connection connection, List<Todo> existingTodos, List<Todo> todos) throws SQLException {
+    var existingById = new HashMap<String, Todo>();
+    existingTodos.forEach(it -> existingById.put(it.getId(), it));
+    var changed = new ArrayList<Todo>();
+    for (var todo : todos) {
+      if (!todo.equals(existingById.remove(todo.getId()))) {
+        changed.add(todo);
+      }
+    }
+    upsertAll(connection, changed);
+    deleteAll(connection, existingById.keySet());
+  }
+
+  private static void upsertAll(Connection connection, List<Todo> todos) throws SQLException {
+    if (todos.isEmpty()) {
+      return;
+    }
+
+    var upsertSql = getUpsertSql(connection);
+    try (var statement = connection.prepareStatement(upsertSql)) {
+      for (var todo : todos) {
+        statement.setString(1, todo.getId());
+        statement.setString(2, todo.getTitle());
+        statement.setBoolean(3, todo.isCompleted());
+        statement.setLong(4, todo.getVersion());
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  private static void deleteAll(Connection connection, Collection<String> ids) throws SQLException {
+    if (ids.isEmpty()) {
+      return;
+    }
+
+    var deleteSql = "DELETE FROM todos WHERE id = ?;";
+    try (var statement = connection.prepareStatement(deleteSql)) {
+      for (var id : ids) {
+        statement.setString(1, id);
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  /**
+   * The position is not written, so a new todo takes the next position and an updated todo keeps
+   * its position.
+   */
+  private static String getUpsertSql(Connection connection) throws SQLException {
+    if (isPostgreSql(connection)) {
+      return "INSERT INTO todos (id, title, completed, version) VALUES (?, ?, ?, ?)"
+          + " ON CONFLICT (id) DO UPDATE"
+          + " SET title = EXCLUDED.title, completed = EXCLUDED.completed,"
+          + " version = EXCLUDED.version;";
+    } else {
+      return "MERGE INTO todos (id, title, completed, version) KEY (id) VALUES (?, ?, ?, ?);";
+    }
+  }
+
+  private static boolean isPostgreSql(Connection connection) throws SQLException {
+    return connection.getMetaData().getDatabaseProductName().equals("PostgreSQL");
+  }
+
+  private static void storeAll(Connection connection, List<Todo> todos) throws SQLException {
+    var deleteAllSql = "DELETE FROM todos;";
+    try (var statement = connection.prepareStatement(deleteAllSql)) {
+      statement.executeUpdate();
+    }
+    var createSql = "INSERT INTO todos (id, title, completed, version) VALUES (?, ?, ?, ?);";
+    try (var statement = connection.prepareStatement(createSql)) {
+      for (var todo : todos) {
+        statement.setString(1, todo.getId());
+        statement.setString(2, todo.getTitle());
+        statement.setBoolean(3, todo.isCompleted());
+        statement.setLong(4, todo.getVersion());
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  @Override
+  public void insert(@NonNull Todo todo) throws SQLException {
+    inTransaction(
+        (connection, changes) -> {
+          var createSql =
+              "INSERT INTO todos (id, title, completed, version) VALUES (?, ?, ?, ?);";
+          try (var statement = connection.prepareStatement(createSql)) {
+            statement.setString(1, todo.getId());
+            statement.setString(2, todo.getTitle());
+            statement.setBoolean(3, todo.isCompleted());
+            statement.setLong(4, todo.getVersion());
+            statement.executeUpdate();
+          } catch (SQLException e) {
+            if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
+              throw new DuplicateTodoException(todo.getId());
+            }
+            throw e;
+          }
+          changes.add(TodosChange.of(nextVersion(connection), List.of(todo), List.of()));
+          return null;
+        });
+  }
+
+  @Override
+  public boolean update(@NonNull String id, @NonNull UnaryOperator<Todo> update)
+      throws SQLException {
+    return inTransaction(
+        (connection, changes) -> {
+          var todo = retrieveForUpdate(connection, id);
+          if (todo == null) {
+            return false;
+          }
+
+          var updated =
+              update.apply(
+                  new Todo(todo.getId(), todo.getTitle(), todo.isCompleted(), todo.getVersion()));
+          if (updated.equals(todo)) {
+            return false;
+          }
+
+          var updateSql =
+              "UPDATE todos SET title = ?, completed = ?, version = version + 1 WHERE id = ?;";
+          try (var statement = connection.prepareStatement(updateSql)) {
+            statement.setString(1, updated.getTitle());
+            statement.setBoolean(2, updated.isCompleted());
+            statement.setString(3, id);
+            statement.executeUpdate();
+          }
+          var changed =
+              new Todo(id, updated.getTitle(), updated.isCompleted(), todo.getVersion() + 1);
+          changes.add(TodosChange.of(nextVersion(connection), List.of(changed), List.of()));
+          return true;
+        });
+  }
+
+  private static Todo retrieveForUpdate(Connection connection, String id) throws SQLException {
+    var retrieveSql = "SELECT id, title, completed, version FROM todos WHERE id = ? FOR UPDATE;";
+    try (var statement = connection.prepareStatement(retrieveSql)) {
+      statement.setString(1, id);
+      var resultSet = statement.executeQuery();
+      if (!resultSet.next()) {
+        return null;
+      }
+
+      return new Todo(
+          resultSet.getString(1),
+          resultSet.getString(2),
+          resultSet.getBoolean(3),
+          resultSet.getLong(4));
+    }
+  }
+
+  @Override
+  public boolean delete(@NonNull String id) throws SQLException {
+    return inTransaction(
+        (connection, changes) -> {
+          var deleteSql = "DELETE FROM todos WHERE id = ?;";
+          try (var statement = connection.prepareStatement(deleteSql)) {
+            statement.setString(1, id);
+            if (statement.executeUpdate() == 0) {
+              return false;
+            }
+          }
+          changes.add(TodosChange.of(nextVersion(connection), List.of(), List.of(id)));
+          return true;
+        });
+  }
+
+  @Override
+  public boolean delete(@NonNull String id, long expectedVersion) throws SQLException {
+    return inTransaction(
+        (connection, changes) -> {
+          var todo = retrieveForUpdate(connection, id);
+          if (todo == null) {
+            return false;
+          }
+
+          VersionConflictException.check(todo, expectedVersion);
+          var deleteSql = "DELETE FROM todos WHERE id = ?;";
+          try (var statement = connection.prepareStatement(deleteSql)) {
+            statement.setString(1, id);
+            statement.executeUpdate();
+          }
+          changes.add(TodosChange.of(nextVersion(connection), List.of(), List.of(id)));
+          return true;
+        });
+  }
+
+  /** Updates the locked todos by id, so exactly the changed todos are reported. */
+  @Override
+  public int updateAllCompleted(boolean completed) throws SQLException {
+    return inTransaction(
+        (connection, changes) -> {
+          var todos = retrieveForUpdate(connection, !completed);
+          if (todos.isEmpty()) {
+            return 0;
+          }
+
+          var updateSql = "UPDATE todos SET completed = ?, version = version + 1 WHERE id = ?;";
+          var changed = new ArrayList<Todo>();
+          try (var statement = connection.prepareStatement(updateSql)) {
+            for (var todo : todos) {
+              statement.setBoolean(1, completed);
+              statement.setString(2, todo.getId());
+              statement.addBatch();
+              changed.add(
+                  new Todo(todo.getId(), todo.getTitle(), completed, todo.getVersion() + 1));
+            }
+            statement.executeBatch();
+          }
+          changes.add(TodosChange.of(nextVersion(connection), changed, List.of()));
+          return changed.size();
+        });
+  }
+
+  @Override
+  public int deleteCompleted() throws SQLException {
+    return inTransaction(
+        (connection, changes) -> {
+          var todos = retrieveForUpdate(connection, true);
+          if (todos.isEmpty()) {
+            return 0;
+          }
+
+          var deleteSql = "DELETE FROM todos WHERE id = ?;";
+          var removedIds = new ArrayList<String>();
+          try (var statement = connection.prepareStatement(deleteSql)) {
+            for (var todo : todos) {
+              statement.setString(1, todo.getId());
+              statement.addBatch();
+              removedIds.add(todo.getId());
+            }
+            statement.executeBatch();
+          }
+          changes.add(TodosChange.of(nextVersion(connection), List.of(), removedIds));
+          return removedIds.size();
+        });
+  }
+
+  /**
+   * Applies the batch in one transaction. The todos are locked while the batch is staged, and only
+   * the todos written by the batch are stored, so todos inserted concurrently, for example by
+   * another server, are kept.
+   */
+  @Override
+  public boolean writeBatch(@NonNull BatchWrite batch) throws Exception {
+    return inTransaction(
+        (connection, changes) -> {
+          var staged = new StagedTodoRepository(retrieveAllForUpdate(connection));
+          if (!batch.writeTo(staged)) {
+            return false;
+          }
+
+          var changed = staged.getChanged();
+          var removedIds = staged.getRemovedIds();
+          if (changed.isEmpty() && removedIds.isEmpty()) {
+            return true;
+          }
+
+          deleteAll(connection, removedIds);
+          upsertAll(connection, changed);
+          changes.add(TodosChange.of(nextVersion(connection), changed, removedIds));
+          return true;
+        });
+  }
+
+  private static List<Todo> retrieveAllForUpdate(Connection connection) throws SQLException {
+    var retrieveSql =
+        "SELECT id, title, completed, version FROM todos ORDER BY position FOR UPDATE;";
+    try (var statement = connection.prepareStatement(retrieveSql)) {
+      return retrieve(statement);
+    }
+  }
+
+  private static List<Todo> retrieveForUpdate(Connection connection, boolean completed)
+      throws SQLException {
+    var retrieveSql =
+        "SELECT id, title, completed, version FROM todos WHERE completed = ?"
+            + " ORDER BY position FOR UPDATE;";
+    try (var statement = connection.prepareStatement(retrieveSql)) {
+      statement.setBoolean(1, completed);
+      return retrieve(statement);
+    }
+  }
+
+  private static List<Todo> retrieve(PreparedStatement statement) throws SQLException {
+    var todos = new ArrayList<Todo>();
+    var resultSet = statement.executeQuery();
+    while (resultSet.next()) {
+      todos.add(
+          new Todo(
+              resultSet.getString(1),
+              resultSet.getString(2),
+              resultSet.getBoolean(3),
+              resultSet.getLong(4)));
+    }
+    return todos;
+  }
+
+  @Override
+  public void setChangeListener(@NonNull ChangeListener listener) {
+    changeListener = listener;
+  }
+
+  /** The changes are reported after the commit, when they are visible to other connections. */
+  private <T, E extends Exception> T inTransaction(Transaction<T, E> transaction)
+      throws SQLException, E {
+    var changes = new ArrayList<TodosChange>();
+    T result;
     try (var connection = dataSource.getConnection()) {
       var autoCommit = connection.getAutoCommit();
       connection.setAutoCommit(false);
-      var deleteAllSql = "DELETE FROM todos;";
-      try (var statement = connection.prepareStatement(deleteAllSql)) {
-        statement.executeUpdate();
-      }
-      var createSql = "INSERT INTO todos (id, title, completed) VALUES (?, ?, ?);";
-      try (var statement = connection.prepareStatement(createSql)) {
-        for (var todo : todos) {
-          statement.setString(1, todo.getId());
-          statement.setString(2, todo.getTitle());
-          statement.setBoolean(3, todo.isCompleted());
-          statement.addBatch();
-        }
-        statement.executeBatch();
+      try {
+        result = transaction.run(connection, changes);
+        connection.commit();
+      } catch (Exception e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
       }
-      connection.commit();
-      connection.setAutoCommit(autoCommit);
     }
+    changes.forEach(changeListener::changed);
+    return result;
+  }
+
+  /**
+   * Takes the version of the write from the change sequence, which is not transactional, so
+   * concurrent writes do not wait for each other. It is taken after the rows are written, so a
+   * later write of the same todo waits for the row lock and gets a later version. A write rolled
+   * back after taking its version leaves a gap, the change journal resyncs its clients then.
+   *
+   * @return the version of this write
+   */
+  private static long nextVersion(Connection connection) throws SQLException {
+    var nextSql =
+        isPostgreSql(connection)
+            ? "SELECT nextval('todos_change_seq');"
+            : "SELECT NEXT VALUE FOR todos_change_seq;";
+    try (var statement = connection.prepareStatement(nextSql)) {
+      var resultSet = statement.executeQuery();
+      resultSet.next();
+      return resultSet.getLong(1);
+    }
+  }
+
+  private interface Transaction<T, E extends Exception> {
+    /** @param changes the changes of the transaction, reported after the commit */
+    T run(Connection connection, List<TodosChange> changes) throws SQLException, E;
   }
 }
@@ -7,43 +7,298 @@ package de.muspellheim.todomvc.backend.adapters;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.TypeAdapter;
+import de.muspellheim.todomvc.backend.DuplicateTodoException;
+import de.muspellheim.todomvc.backend.StagedTodoRepository;
 import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.backend.TodoStats;
+import de.muspellheim.todomvc.backend.TodosChange;
+import de.muspellheim.todomvc.backend.VersionConflictException;
 import de.muspellheim.todomvc.contract.data.Todo;
-import java.io.BufferedReader;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 import lombok.NonNull;
 
+/**
+ * Stores the todos in a JSON file. Changes are serialized by a lock of the repository, so the file
+ * must not be shared with another repository.
+ */
 public class JsonTodoRepository implements TodoRepository {
-  private static final Type LIST_TYPE = new TypeToken<List<Todo>>() {}.getType();
+  private static final Gson GSON =
+      new GsonBuilder().registerTypeAdapter(Todo.class, new TodoTypeAdapter()).create();
+  private static final TypeAdapter<Todo> TODO_ADAPTER = GSON.getAdapter(Todo.class);
+
   private final Path file;
+  private ChangeListener changeListener = ChangeListener.NONE;
+  private long version;
+  private TodoStats stats;
+  private Object statsVersion;
 
   public JsonTodoRepository(Path file) {
     this.file = file;
   }
 
+  /**
+   * Returns the last modification time and size of the file, so changes by other processes can be
+   * detected without parsing the file.
+   */
+  public Object getVersion() throws IOException {
+    if (!Files.exists(file)) {
+      return null;
+    }
+
+    return List.of(Files.getLastModifiedTime(file), Files.size(file));
+  }
+
+  @Override
+  public synchronized List<Todo> load() throws IOException {
+    var todos = new ArrayList<Todo>();
+    forEach(todos::add);
+    return todos;
+  }
+
+  /** Parses the file only up to the last todo of the page. */
+  @Override
+  public synchronized List<Todo> load(@NonNull TodosQuery query) throws IOException {
+    var todos = new ArrayList<Todo>();
+    if (!Files.exists(file)) {
+      return todos;
+    }
+
+    var skip = query.getOffset();
+    var limit = query.getLimit() != null ? query.getLimit() : Integer.MAX_VALUE;
+    try (var reader = GSON.newJsonReader(Files.newBufferedReader(file))) {
+      reader.beginArray();
+      while (todos.size() < limit && reader.hasNext()) {
+        var todo = TODO_ADAPTER.read(reader);
+        if (!query.getFilter().test(todo)) {
+          continue;
+        }
+        if (skip > 0) {
+          skip--;
+          continue;
+        }
+        todos.add(todo);
+      }
+    }
+    return todos;
+  }
+
+  /** The counts are kept from the last store or count until the file is changed. */
   @Override
-  public List<Todo> load() throws IOException {
+  public synchronized TodoStats loadStats() throws IOException {
+    var version = getVersion();
+    if (stats != null && Objects.equals(statsVersion, version)) {
+      return stats;
+    }
+
+    var totalCount = new AtomicInteger();
+    var completedCount = new AtomicInteger();
+    forEach(
+        it -> {
+          totalCount.incrementAndGet();
+          if (it.isCompleted()) {
+            completedCount.incrementAndGet();
+          }
+        });
+    stats = new TodoStats(totalCount.get(), completedCount.get());
+    statsVersion = version;
+    return stats;
+  }
+
+  /** Parses the file incrementally without holding the whole list in memory. */
+  public synchronized void forEach(@NonNull Consumer<Todo> consumer) throws IOException {
     if (!Files.exists(file)) {
-      return List.of();
+      return;
+    }
+
+    try (var reader = GSON.newJsonReader(Files.newBufferedReader(file))) {
+      reader.beginArray();
+      while (reader.hasNext()) {
+        consumer.accept(TODO_ADAPTER.read(reader));
+      }
+      reader.endArray();
     }
+  }
 
-    var gson = new Gson();
-    try (BufferedReader reader = Files.newBufferedReader(file)) {
-      return gson.fromJson(reader, LIST_TYPE);
+  @Override
+  public synchronized void store(@NonNull List<Todo> todos) throws IOException {
+    write(todos);
+    changeListener.changed(TodosChange.reset(++version));
+  }
+
+  /**
+   * Writes the todos to a temporary file, which replaces the file after its content is flushed to
+   * disk. So a crash leaves the former or the new file, but never an empty or partial one.
+   */
+  private void write(List<Todo> todos) throws IOException {
+    var tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+    try (var channel =
+        FileChannel.open(
+            tempFile,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      var writer =
+          GSON.newJsonWriter(
+              new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8)));
+      writer.beginArray();
+      for (var todo : todos) {
+        TODO_ADAPTER.write(writer, todo);
+      }
+      writer.endArray();
+      writer.flush();
+      channel.force(true);
+    }
+    try {
+      Files.move(
+          tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
     }
+    stats =
+        new TodoStats(todos.size(), (int) todos.stream().filter(Todo::isCompleted).count());
+    statsVersion = getVersion();
   }
 
   @Override
-  public void store(@NonNull List<Todo> todos) throws IOException {
-    var gson = new GsonBuilder().setPrettyPrinting().create();
-    try (BufferedWriter writer = Files.newBufferedWriter(file)) {
-      gson.toJson(todos, writer);
+  public synchronized void insert(@NonNull Todo todo) throws IOException {
+    var todos = new ArrayList<>(load());
+    if (todos.stream().anyMatch(it -> it.getId().equals(todo.getId()))) {
+      throw new DuplicateTodoException(todo.getId());
     }
+
+    todos.add(todo);
+    write(todos);
+    changed(List.of(todo), List.of());
+  }
+
+  @Override
+  public synchronized boolean update(@NonNull String id, @NonNull UnaryOperator<Todo> update)
+      throws IOException {
+    var todos = new ArrayList<>(load());
+    for (var i = 0; i < todos.size(); i++) {
+      var todo = todos.get(i);
+      if (todo.getId().equals(id)) {
+        var updated =
+            update.apply(
+                new Todo(todo.getId(), todo.getTitle(), todo.isCompleted(), todo.getVersion()));
+        if (updated.equals(todo)) {
+          return false;
+        }
+
+        var changed =
+            new Todo(
+                todo.getId(), updated.getTitle(), updated.isCompleted(), todo.getVersion() + 1);
+        todos.set(i, changed);
+        write(todos);
+        changed(List.of(changed), List.of());
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public synchronized boolean delete(@NonNull String id) throws IOException {
+    var todos = new ArrayList<>(load());
+    if (!todos.removeIf(it -> it.getId().equals(id))) {
+      return false;
+    }
+
+    write(todos);
+    changed(List.of(), List.of(id));
+    return true;
+  }
+
+  @Override
+  public synchronized boolean delete(@NonNull String id, long expectedVersion) throws IOException {
+    var todos = new ArrayList<>(load());
+    for (var i = 0; i < todos.size(); i++) {
+      var todo = todos.get(i);
+      if (todo.getId().equals(id)) {
+        VersionConflictException.check(todo, expectedVersion);
+        todos.remove(i);
+        write(todos);
+        changed(List.of(), List.of(id));
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public synchronized int updateAllCompleted(boolean completed) throws IOException {
+    var todos = new ArrayList<>(load());
+    var changed = new ArrayList<Todo>();
+    for (var i = 0; i < todos.size(); i++) {
+      var todo = todos.get(i);
+      if (todo.isCompleted() != completed) {
+        var changedTodo =
+            new Todo(todo.getId(), todo.getTitle(), completed, todo.getVersion() + 1);
+        todos.set(i, changedTodo);
+        changed.add(changedTodo);
+      }
+    }
+    if (!changed.isEmpty()) {
+      write(todos);
+      changed(changed, List.of());
+    }
+    return changed.size();
+  }
+
+  @Override
+  public synchronized int deleteCompleted() throws IOException {
+    var todos = new ArrayList<>(load());
+    var removedIds =
+        todos.stream().filter(Todo::isCompleted).map(Todo::getId).collect(Collectors.toList());
+    if (!removedIds.isEmpty()) {
+      todos.removeIf(Todo::isCompleted);
+      write(todos);
+      changed(List.of(), removedIds);
+    }
+    return removedIds.size();
+  }
+
+  /** Applies the batch to a staged copy and writes the file once. */
+  @Override
+  public synchronized boolean writeBatch(@NonNull BatchWrite batch) throws Exception {
+    var staged = new StagedTodoRepository(load());
+    if (!batch.writeTo(staged)) {
+      return false;
+    }
+
+    var changed = staged.getChanged();
+    var removedIds = staged.getRemovedIds();
+    if (!changed.isEmpty() || !removedIds.isEmpty()) {
+      write(staged.load());
+      changed(changed, removedIds);
+    }
+    return true;
+  }
+
+  @Override
+  public synchronized void setChangeListener(@NonNull ChangeListener listener) {
+    changeListener = listener;
+  }
+
+  private void changed(List<Todo> changed, List<String> removedIds) {
+    changeListener.changed(TodosChange.of(++version, changed, removedIds));
   }
 }
@@ -0,0 +1,535 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import de.muspellheim.todomvc.backend.DuplicateTodoException;
+import de.muspellheim.todomvc.backend.StagedTodoRepository;
+import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.backend.TodoStats;
+import de.muspellheim.todomvc.backend.TodosChange;
+import de.muspellheim.todomvc.backend.VersionConflictException;
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+
+/**
+ * Keeps the todos in memory and appends every change as a small record to a log.
+ *
+ * <p>The log is split into segment files {@code log-<first sequence>.jsonl}. A snapshot {@code
+ * snapshot-<last sequence>.json} is written in the background after an interval or a number of
+ * records, older snapshots and segments are deleted then. On startup the latest snapshot is loaded
+ * and the records of the log tail are replayed.
+ */
+public class LogTodoRepository implements TodoRepository, AutoCloseable {
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+  private static final String SNAPSHOT_SUFFIX = ".json";
+  private static final String SEGMENT_PREFIX = "log-";
+  private static final String SEGMENT_SUFFIX = ".jsonl";
+
+  private final Path directory;
+  private final LogTodoRepositoryConfiguration configuration;
+  private final ScheduledExecutorService scheduler;
+  private final Object syncLock = new Object();
+  private final Object compactionLock = new Object();
+
+  private final TodoTable todos = new TodoTable();
+  private ChangeListener changeListener = ChangeListener.NONE;
+  private long version;
+  private long lastSequence;
+  private long recordsSinceSnapshot;
+  private boolean compactionScheduled;
+  private volatile long writtenSequence;
+  private volatile FileChannel segment;
+  private long syncedSequence;
+
+  public LogTodoRepository(@NonNull Path directory) throws IOException {
+    this(directory, LogTodoRepositoryConfiguration.builder().build());
+  }
+
+  public LogTodoRepository(
+      @NonNull Path directory, @NonNull LogTodoRepositoryConfiguration configuration)
+      throws IOException {
+    this.directory = directory;
+    this.configuration = configuration;
+    Files.createDirectories(directory);
+    replay();
+    segment = openSegment(lastSequence + 1);
+    writtenSequence = lastSequence;
+    syncedSequence = lastSequence;
+
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              var thread = new Thread(runnable, "LogTodoRepository");
+              thread.setDaemon(true);
+              return thread;
+            });
+    var snapshotInterval = configuration.getSnapshotInterval().toMillis();
+    scheduler.scheduleWithFixedDelay(
+        this::compactInBackground, snapshotInterval, snapshotInterval, TimeUnit.MILLISECONDS);
+    if (configuration.getFsyncPolicy() == FsyncPolicy.INTERVAL) {
+      var fsyncInterval = configuration.getFsyncInterval().toMillis();
+      scheduler.scheduleAtFixedRate(
+          this::syncInBackground, fsyncInterval, fsyncInterval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public synchronized List<Todo> load() {
+    return todos.toList();
+  }
+
+  @Override
+  public synchronized List<Todo> load(@NonNull TodosQuery query) {
+    return todos.toList(query);
+  }
+
+  @Override
+  public synchronized TodoStats loadStats() {
+    return new TodoStats(todos.size(), todos.completedCount());
+  }
+
+  @Override
+  public void store(@NonNull List<Todo> todos) throws IOException {
+    synchronized (this) {
+      this.todos.clear();
+      todos.forEach(this.todos::put);
+      lastSequence++;
+      recordsSinceSnapshot++;
+      changeListener.changed(TodosChange.reset(++version));
+    }
+    compact();
+  }
+
+  @Override
+  public void insert(@NonNull Todo todo) throws IOException {
+    long sequence;
+    synchronized (this) {
+      if (todos.contains(todo.getId())) {
+        throw new DuplicateTodoException(todo.getId());
+      }
+
+      sequence = append(List.of(ChangeRecord.created(todo)));
+      changed(List.of(todo), List.of());
+    }
+    awaitSync(sequence);
+  }
+
+  @Override
+  public boolean update(@NonNull String id, @NonNull UnaryOperator<Todo> update)
+      throws IOException {
+    long sequence;
+    synchronized (this) {
+      var todo = todos.get(id);
+      if (todo == null) {
+        return false;
+      }
+
+      var updated =
+          update.apply(
+              new Todo(todo.getId(), todo.getTitle(), todo.isCompleted(), todo.getVersion()));
+      var titleChanged = !updated.getTitle().equals(todo.getTitle());
+      var completionChanged = updated.isCompleted() != todo.isCompleted();
+      // One record per update, so the version of the todo is incremented once
+      ChangeRecord record;
+      if (titleChanged && completionChanged) {
+        record = ChangeRecord.updated(id, updated.getTitle(), updated.isCompleted());
+      } else if (titleChanged) {
+        record = ChangeRecord.titleChanged(id, updated.getTitle());
+      } else if (completionChanged) {
+        record = ChangeRecord.completionChanged(id, updated.isCompleted());
+      } else {
+        return false;
+      }
+
+      sequence = append(List.of(record));
+      changed(List.of(todos.get(id)), List.of());
+    }
+    awaitSync(sequence);
+    return true;
+  }
+
+  @Override
+  public boolean delete(@NonNull String id) throws IOException {
+    long sequence;
+    synchronized (this) {
+      if (!todos.contains(id)) {
+        return false;
+      }
+
+      sequence = append(List.of(ChangeRecord.destroyed(id)));
+      changed(List.of(), List.of(id));
+    }
+    awaitSync(sequence);
+    return true;
+  }
+
+  @Override
+  public boolean delete(@NonNull String id, long expectedVersion) throws IOException {
+    long sequence;
+    synchronized (this) {
+      var todo = todos.get(id);
+      if (todo == null) {
+        return false;
+      }
+
+      VersionConflictException.check(todo, expectedVersion);
+      sequence = append(List.of(ChangeRecord.destroyed(id)));
+      changed(List.of(), List.of(id));
+    }
+    awaitSync(sequence);
+    return true;
+  }
+
+  @Override
+  public int updateAllCompleted(boolean completed) throws IOException {
+    long sequence;
+    int count;
+    synchronized (this) {
+      count = completed ? todos.size() - todos.completedCount() : todos.completedCount();
+      if (count == 0) {
+        return 0;
+      }
+
+      var filter = completed ? TodosQuery.Filter.ACTIVE : TodosQuery.Filter.COMPLETED;
+      var changed =
+          todos.toList(new TodosQuery(filter)).stream()
+              .map(it -> new Todo(it.getId(), it.getTitle(), completed, it.getVersion() + 1))
+              .collect(Collectors.toList());
+      sequence = append(List.of(ChangeRecord.completionChanged(null, completed)));
+      changed(changed, List.of());
+    }
+    awaitSync(sequence);
+    return count;
+  }
+
+  @Override
+  public int deleteCompleted() throws IOException {
+    long sequence;
+    int count;
+    synchronized (this) {
+      count = todos.completedCount();
+      if (count == 0) {
+        return 0;
+      }
+
+      var removedIds =
+          todos.toList(new TodosQuery(TodosQuery.Filter.COMPLETED)).stream()
+              .map(Todo::getId)
+              .collect(Collectors.toList());
+      sequence = append(List.of(ChangeRecord.cleared()));
+      changed(List.of(), removedIds);
+    }
+    awaitSync(sequence);
+    return count;
+  }
+
+  /** Appends the changes of the batch as consecutive records in one write. */
+  @Override
+  public boolean writeBatch(@NonNull BatchWrite batch) throws Exception {
+    long sequence;
+    synchronized (this) {
+      var staged = new StagedTodoRepository(todos.toList());
+      if (!batch.writeTo(staged)) {
+        return false;
+      }
+
+      var changed = staged.getChanged();
+      var removedIds = staged.getRemovedIds();
+      if (changed.isEmpty() && removedIds.isEmpty()) {
+        return true;
+      }
+
+      var records = new ArrayList<ChangeRecord>();
+      removedIds.forEach(it -> records.add(ChangeRecord.destroyed(it)));
+      changed.forEach(it -> records.add(ChangeRecord.created(it)));
+      sequence = append(records);
+      changed(changed, removedIds);
+    }
+    awaitSync(sequence);
+    return true;
+  }
+
+  @Override
+  public synchronized void setChangeListener(@NonNull ChangeListener listener) {
+    changeListener = listener;
+  }
+
+  /** Writes a snapshot of the current state and deletes the superseded log segments. */
+  public void compact() throws IOException {
+    synchronized (compactionLock) {
+      List<Todo> snapshot;
+      long sequence;
+      synchronized (this) {
+        if (recordsSinceSnapshot == 0) {
+          return;
+        }
+
+        snapshot = todos.toList();
+        sequence = lastSequence;
+        recordsSinceSnapshot = 0;
+        compactionScheduled = false;
+        synchronized (syncLock) {
+          segment.force(false);
+          segment.close();
+          segment = openSegment(sequence + 1);
+          syncedSequence = sequence;
+        }
+      }
+
+      writeSnapshot(sequence, snapshot);
+      deleteFilesBefore(sequence);
+    }
+  }
+
+  /** Waits for running background tasks, before the final snapshot is written. */
+  @Override
+  public void close() throws IOException {
+    scheduler.shutdown();
+    try {
+      scheduler.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    compact();
+    synchronized (syncLock) {
+      segment.force(false);
+      segment.close();
+    }
+  }
+
+  private long append(List<ChangeRecord> records) throws IOException {
+    var buffer = new StringWriter();
+    var sequence = lastSequence;
+    for (var record : records) {
+      record.setSequence(++sequence);
+      var writer = new JsonWriter(buffer);
+      record.write(writer);
+      writer.flush();
+      buffer.write('\n');
+    }
+    var bytes = ByteBuffer.wrap(buffer.toString().getBytes(StandardCharsets.UTF_8));
+    while (bytes.hasRemaining()) {
+      segment.write(bytes);
+    }
+    if (configuration.getFsyncPolicy() == FsyncPolicy.PER_WRITE) {
+      synchronized (syncLock) {
+        segment.force(false);
+        syncedSequence = sequence;
+      }
+    }
+
+    records.forEach(it -> it.applyTo(todos));
+    lastSequence = sequence;
+    writtenSequence = sequence;
+    recordsSinceSnapshot += records.size();
+    if (recordsSinceSnapshot >= configuration.getSnapshotThreshold()
+        && !compactionScheduled
+        && !scheduler.isShutdown()) {
+      compactionScheduled = true;
+      scheduler.execute(this::compactInBackground);
+    }
+    return sequence;
+  }
+
+  private void changed(List<Todo> changed, List<String> removedIds) {
+    changeListener.changed(TodosChange.of(++version, changed, removedIds));
+  }
+
+  /**
+   * Writes of the grouped policy share the flush of the first one waiting, the other policies
+   * flushed while appending or flush in the background.
+   */
+  private void awaitSync(long sequence) throws IOException {
+    if (configuration.getFsyncPolicy() != FsyncPolicy.GROUPED) {
+      return;
+    }
+
+    synchronized (syncLock) {
+      if (syncedSequence >= sequence) {
+        return;
+      }
+
+      var sequenceToSync = writtenSequence;
+      segment.force(false);
+      syncedSequence = sequenceToSync;
+    }
+  }
+
+  private void syncInBackground() {
+    try {
+      synchronized (syncLock) {
+        var sequenceToSync = writtenSequence;
+        if (syncedSequence < sequenceToSync) {
+          segment.force(false);
+          syncedSequence = sequenceToSync;
+        }
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private void compactInBackground() {
+    try {
+      compact();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private void replay() throws IOException {
+    var snapshotSequence = 0L;
+    var snapshotFile = findFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).stream().reduce((a, b) -> b);
+    if (snapshotFile.isPresent()) {
+      snapshotSequence = readSnapshot(snapshotFile.get());
+    }
+    lastSequence = snapshotSequence;
+
+    for (var file : findFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+      for (var line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+        if (line.isBlank()) {
+          continue;
+        }
+
+        ChangeRecord record;
+        try {
+          record = ChangeRecord.read(new JsonReader(new StringReader(line)));
+        } catch (IOException | JsonParseException | IllegalArgumentException e) {
+          // Torn record of an interrupted write
+          continue;
+        }
+        if (record.getSequence() <= snapshotSequence) {
+          continue;
+        }
+
+        record.applyTo(todos);
+        lastSequence = Math.max(lastSequence, record.getSequence());
+        recordsSinceSnapshot++;
+      }
+    }
+  }
+
+  private long readSnapshot(Path file) throws IOException {
+    try (var reader = new JsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+      var sequence = 0L;
+      reader.beginObject();
+      while (reader.hasNext()) {
+        var name = reader.nextName();
+        if (name.equals("seq")) {
+          sequence = reader.nextLong();
+        } else if (name.equals("todos")) {
+          reader.beginArray();
+          while (reader.hasNext()) {
+            var record = ChangeRecord.read(reader);
+            record.applyTo(todos);
+          }
+          reader.endArray();
+        } else {
+          reader.skipValue();
+        }
+      }
+      reader.endObject();
+      return sequence;
+    }
+  }
+
+  private void writeSnapshot(long sequence, List<Todo> todos) throws IOException {
+    var file = directory.resolve(fileName(SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+    var tempFile = directory.resolve(file.getFileName() + ".tmp");
+    try (var channel =
+        FileChannel.open(
+            tempFile,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      var buffer = new StringWriter();
+      var writer = new JsonWriter(buffer);
+      writer.beginObject();
+      writer.name("seq").value(sequence);
+      writer.name("todos").beginArray();
+      for (var todo : todos) {
+        ChangeRecord.created(todo).write(writer);
+      }
+      writer.endArray();
+      writer.endObject();
+      writer.flush();
+      var bytes = ByteBuffer.wrap(buffer.toString().getBytes(StandardCharsets.UTF_8));
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+      channel.force(true);
+    }
+    Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private void deleteFilesBefore(long sequence) throws IOException {
+    for (var file : findFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+      if (sequenceOf(file, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < sequence) {
+        Files.deleteIfExists(file);
+      }
+    }
+    for (var file : findFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+      if (sequenceOf(file, SEGMENT_PREFIX, SEGMENT_SUFFIX) <= sequence) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  private FileChannel openSegment(long firstSequence) throws IOException {
+    var file = directory.resolve(fileName(SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    var channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    if (channel.size() > 0) {
+      // Terminate a torn record, so it does not swallow the next one
+      channel.write(ByteBuffer.wrap(new byte[] {'\n'}));
+    }
+    return channel;
+  }
+
+  private List<Path> findFiles(String prefix, String suffix) throws IOException {
+    try (var files = Files.list(directory)) {
+      return files
+          .filter(
+              it -> {
+                var name = it.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(suffix);
+              })
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static String fileName(String prefix, long sequence, String suffix) {
+    return String.format("%s%020d%s", prefix, sequence, suffix);
+  }
+
+  private static long sequenceOf(Path file, String prefix, String suffix) {
+    var name = file.getFileName().toString();
+    return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+  }
+}
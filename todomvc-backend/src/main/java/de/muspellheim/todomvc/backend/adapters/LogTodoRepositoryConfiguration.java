@@ -0,0 +1,25 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+@Value
+@Builder
+public class LogTodoRepositoryConfiguration {
+  @Builder.Default @NonNull FsyncPolicy fsyncPolicy = FsyncPolicy.GROUPED;
+
+  /** Only used with {@link FsyncPolicy#INTERVAL}. */
+  @Builder.Default @NonNull Duration fsyncInterval = Duration.ofMillis(100);
+
+  @Builder.Default @NonNull Duration snapshotInterval = Duration.ofMinutes(1);
+
+  /** Number of records after which a snapshot is written before the snapshot interval elapses. */
+  @Builder.Default int snapshotThreshold = 10_000;
+}
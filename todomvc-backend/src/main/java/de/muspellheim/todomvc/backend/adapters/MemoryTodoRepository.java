@@ -5,20 +5,162 @@
 
 package de.muspellheim.todomvc.backend.adapters;
 
+import de.muspellheim.todomvc.backend.DuplicateTodoException;
+import de.muspellheim.todomvc.backend.StagedTodoRepository;
 import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.backend.TodoStats;
+import de.muspellheim.todomvc.backend.TodosChange;
+import de.muspellheim.todomvc.backend.VersionConflictException;
 import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import lombok.NonNull;
 
+/**
+ * Keeps the todos in an insertion-ordered index by id, so a todo is found, updated and removed in
+ * constant time.
+ *
+ * <p>The todos are stored in a compact table with UUIDs as two longs, a {@link Todo} is only
+ * created when read.
+ */
 public class MemoryTodoRepository implements TodoRepository {
-  private List<Todo> todos = List.of();
+  private final TodoTable todos = new TodoTable();
+  private ChangeListener changeListener = ChangeListener.NONE;
+  private long version;
+
+  /** @return an immutable list of todos */
+  @Override
+  public synchronized List<Todo> load() {
+    return Collections.unmodifiableList(todos.toList());
+  }
+
+  /** @return an immutable list of todos */
+  @Override
+  public synchronized List<Todo> load(TodosQuery query) {
+    return Collections.unmodifiableList(todos.toList(query));
+  }
+
+  @Override
+  public synchronized TodoStats loadStats() {
+    return new TodoStats(todos.size(), todos.completedCount());
+  }
+
+  @Override
+  public synchronized void store(List<Todo> todos) {
+    this.todos.clear();
+    todos.forEach(this.todos::put);
+    changeListener.changed(TodosChange.reset(++version));
+  }
+
+  @Override
+  public synchronized void insert(Todo todo) {
+    if (todos.contains(todo.getId())) {
+      throw new DuplicateTodoException(todo.getId());
+    }
+
+    todos.put(todo);
+    changed(List.of(todo), List.of());
+  }
+
+  @Override
+  public synchronized boolean update(String id, UnaryOperator<Todo> update) {
+    var todo = todos.get(id);
+    if (todo == null) {
+      return false;
+    }
+
+    var updated =
+        update.apply(
+            new Todo(todo.getId(), todo.getTitle(), todo.isCompleted(), todo.getVersion()));
+    if (updated.equals(todo)) {
+      return false;
+    }
+
+    var changed = new Todo(id, updated.getTitle(), updated.isCompleted(), todo.getVersion() + 1);
+    todos.put(changed);
+    changed(List.of(changed), List.of());
+    return true;
+  }
+
+  @Override
+  public synchronized boolean delete(String id) {
+    if (!todos.remove(id)) {
+      return false;
+    }
+
+    changed(List.of(), List.of(id));
+    return true;
+  }
+
+  @Override
+  public synchronized boolean delete(String id, long expectedVersion) {
+    var todo = todos.get(id);
+    if (todo == null) {
+      return false;
+    }
+
+    VersionConflictException.check(todo, expectedVersion);
+    todos.remove(id);
+    changed(List.of(), List.of(id));
+    return true;
+  }
 
   @Override
-  public List<Todo> load() {
-    return todos;
+  public synchronized int updateAllCompleted(boolean completed) {
+    var filter = completed ? TodosQuery.Filter.ACTIVE : TodosQuery.Filter.COMPLETED;
+    var changed =
+        todos.toList(new TodosQuery(filter)).stream()
+            .map(it -> new Todo(it.getId(), it.getTitle(), completed, it.getVersion() + 1))
+            .collect(Collectors.toList());
+    var count = todos.updateAllCompleted(completed);
+    if (count > 0) {
+      changed(changed, List.of());
+    }
+    return count;
   }
 
   @Override
-  public void store(List<Todo> todos) {
-    this.todos = todos;
+  public synchronized int deleteCompleted() {
+    var removedIds =
+        todos.toList(new TodosQuery(TodosQuery.Filter.COMPLETED)).stream()
+            .map(Todo::getId)
+            .collect(Collectors.toList());
+    var count = todos.removeCompleted();
+    if (count > 0) {
+      changed(List.of(), removedIds);
+    }
+    return count;
+  }
+
+  /** Applies the batch to a staged copy and takes over its changes as one write. */
+  @Override
+  public synchronized boolean writeBatch(@NonNull BatchWrite batch) throws Exception {
+    var staged = new StagedTodoRepository(todos.toList());
+    if (!batch.writeTo(staged)) {
+      return false;
+    }
+
+    var changed = staged.getChanged();
+    var removedIds = staged.getRemovedIds();
+    if (changed.isEmpty() && removedIds.isEmpty()) {
+      return true;
+    }
+
+    removedIds.forEach(todos::remove);
+    changed.forEach(todos::put);
+    changed(changed, removedIds);
+    return true;
+  }
+
+  @Override
+  public synchronized void setChangeListener(@NonNull ChangeListener listener) {
+    changeListener = listener;
+  }
+
+  private void changed(List<Todo> changed, List<String> removedIds) {
+    changeListener.changed(TodosChange.of(++version, changed, removedIds));
   }
 }
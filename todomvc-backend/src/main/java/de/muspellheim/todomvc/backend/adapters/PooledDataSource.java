@@ -0,0 +1,112 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.configuration.AgroalConnectionPoolConfiguration.ConnectionValidator;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import io.agroal.api.security.NamePrincipal;
+import io.agroal.api.security.SimplePassword;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import lombok.NonNull;
+
+public class PooledDataSource implements DataSource, AutoCloseable {
+  private final AgroalDataSource dataSource;
+
+  private PooledDataSource(AgroalDataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  static PooledDataSource create(
+      String jdbcUrl, String user, String password, @NonNull ConnectionPoolConfiguration pool)
+      throws SQLException {
+    var configuration =
+        new AgroalDataSourceConfigurationSupplier()
+            .metricsEnabled(true)
+            .connectionPoolConfiguration(
+                cp ->
+                    cp.minSize(pool.getMinSize())
+                        .maxSize(pool.getMaxSize())
+                        .acquisitionTimeout(pool.getAcquisitionTimeout())
+                        .reapTimeout(pool.getIdleTimeout())
+                        .validationTimeout(pool.getValidationInterval())
+                        .connectionValidator(ConnectionValidator.defaultValidator())
+                        .connectionFactoryConfiguration(
+                            cf ->
+                                cf.jdbcUrl(jdbcUrl)
+                                    .principal(new NamePrincipal(user))
+                                    .credential(new SimplePassword(password))));
+    return new PooledDataSource(AgroalDataSource.from(configuration));
+  }
+
+  public ConnectionPoolMetrics getMetrics() {
+    var metrics = dataSource.getMetrics();
+    return new ConnectionPoolMetrics(
+        metrics.activeCount(),
+        metrics.availableCount(),
+        metrics.awaitingCount(),
+        metrics.blockingTimeAverage(),
+        metrics.blockingTimeMax());
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return dataSource.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return dataSource.getConnection(username, password);
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return dataSource.getLogWriter();
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) throws SQLException {
+    dataSource.setLogWriter(out);
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) throws SQLException {
+    dataSource.setLoginTimeout(seconds);
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return dataSource.getLoginTimeout();
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    return dataSource.getParentLogger();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> type) throws SQLException {
+    if (type.isInstance(dataSource)) {
+      return type.cast(dataSource);
+    }
+    return dataSource.unwrap(type);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> type) throws SQLException {
+    return type.isInstance(dataSource) || dataSource.isWrapperFor(type);
+  }
+
+  @Override
+  public void close() {
+    dataSource.close();
+  }
+}
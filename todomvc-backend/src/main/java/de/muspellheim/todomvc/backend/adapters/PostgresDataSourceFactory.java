@@ -5,6 +5,7 @@
 
 package de.muspellheim.todomvc.backend.adapters;
 
+import java.sql.SQLException;
 import javax.sql.DataSource;
 import org.postgresql.ds.PGSimpleDataSource;
 
@@ -19,4 +20,24 @@ public class PostgresDataSourceFactory {
     dataSource.setPassword(password);
     return dataSource;
   }
+
+  public static PooledDataSource createPooled(
+      String host,
+      int port,
+      String database,
+      String user,
+      String password,
+      ConnectionPoolConfiguration pool)
+      throws SQLException {
+    var url =
+        "jdbc:postgresql://"
+            + host
+            + ":"
+            + port
+            + "/"
+            + database
+            + "?prepareThreshold=1&preparedStatementCacheQueries="
+            + pool.getStatementCacheSize();
+    return PooledDataSource.create(url, user, password, pool);
+  }
 }
@@ -0,0 +1,384 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stores todos column by column in primitive arrays, todos are created only when read.
+ *
+ * <p>An id in canonical UUID format is stored as two longs, other ids are kept as string. The
+ * todos are indexed by id with open addressing and linked in insertion order. Not thread-safe.
+ */
+class TodoTable {
+  private static final int NONE = -1;
+  private static final byte[] HEX_DIGITS = new byte['f' + 1];
+
+  static {
+    Arrays.fill(HEX_DIGITS, (byte) -1);
+    for (var c = '0'; c <= '9'; c++) {
+      HEX_DIGITS[c] = (byte) (c - '0');
+    }
+    for (var c = 'a'; c <= 'f'; c++) {
+      HEX_DIGITS[c] = (byte) (c - 'a' + 10);
+    }
+  }
+
+  private long[] mostSignificantBits;
+  private long[] leastSignificantBits;
+  /** Only set if the id is not a canonical UUID. */
+  private String[] otherIds;
+
+  private String[] titles;
+  private long[] versions;
+  private boolean[] completed;
+  private int[] previous;
+  private int[] next;
+
+  /** Slot + 1 of the todo with the hash of the bucket, 0 if empty. */
+  private int[] buckets;
+
+  private boolean parsedUuid;
+  private long parsedMostSignificantBits;
+  private long parsedLeastSignificantBits;
+
+  private int size;
+  private int completedCount;
+  private int slotCount;
+  private int freeSlot = NONE;
+  private int first = NONE;
+  private int last = NONE;
+
+  TodoTable() {
+    this(16);
+  }
+
+  TodoTable(int capacity) {
+    allocate(Math.max(capacity, 4));
+  }
+
+  int size() {
+    return size;
+  }
+
+  int completedCount() {
+    return completedCount;
+  }
+
+  boolean contains(String id) {
+    return find(id) != NONE;
+  }
+
+  /** @return a new todo, {@code null} if not found */
+  Todo get(String id) {
+    var slot = find(id);
+    return slot == NONE ? null : new Todo(id, titles[slot], completed[slot], versions[slot]);
+  }
+
+  /** Replaces the todo with the same id in place or appends the todo. */
+  void put(Todo todo) {
+    var slot = find(todo.getId());
+    if (slot == NONE) {
+      slot = allocateSlot();
+      setId(slot, todo.getId());
+      link(slot);
+      insertIntoBuckets(slot);
+      size++;
+    } else if (completed[slot]) {
+      completedCount--;
+    }
+    titles[slot] = todo.getTitle();
+    completed[slot] = todo.isCompleted();
+    if (todo.isCompleted()) {
+      completedCount++;
+    }
+    versions[slot] = todo.getVersion();
+  }
+
+  boolean remove(String id) {
+    var slot = find(id);
+    if (slot == NONE) {
+      return false;
+    }
+
+    removeSlot(slot);
+    return true;
+  }
+
+  /** Sets the completion of all todos, the version of changed todos is incremented. */
+  int updateAllCompleted(boolean completed) {
+    var count = 0;
+    for (var slot = first; slot != NONE; slot = next[slot]) {
+      if (this.completed[slot] != completed) {
+        this.completed[slot] = completed;
+        versions[slot]++;
+        count++;
+      }
+    }
+    completedCount = completed ? size : 0;
+    return count;
+  }
+
+  int removeCompleted() {
+    var count = 0;
+    var slot = first;
+    while (slot != NONE) {
+      var nextSlot = next[slot];
+      if (completed[slot]) {
+        removeSlot(slot);
+        count++;
+      }
+      slot = nextSlot;
+    }
+    return count;
+  }
+
+  void clear() {
+    allocate(16);
+  }
+
+  List<Todo> toList() {
+    var todos = new ArrayList<Todo>(size);
+    for (var slot = first; slot != NONE; slot = next[slot]) {
+      todos.add(toTodo(slot));
+    }
+    return todos;
+  }
+
+  /** Only todos matching the query are created. */
+  List<Todo> toList(TodosQuery query) {
+    var todos = new ArrayList<Todo>();
+    var skip = query.getOffset();
+    var limit = query.getLimit() != null ? query.getLimit() : Integer.MAX_VALUE;
+    for (var slot = first; slot != NONE && todos.size() < limit; slot = next[slot]) {
+      if (!matches(query.getFilter(), slot)) {
+        continue;
+      }
+      if (skip > 0) {
+        skip--;
+        continue;
+      }
+      todos.add(toTodo(slot));
+    }
+    return todos;
+  }
+
+  private boolean matches(TodosQuery.Filter filter, int slot) {
+    return filter == TodosQuery.Filter.ALL
+        || completed[slot] == (filter == TodosQuery.Filter.COMPLETED);
+  }
+
+  private Todo toTodo(int slot) {
+    var id =
+        otherIds[slot] != null
+            ? otherIds[slot]
+            : new UUID(mostSignificantBits[slot], leastSignificantBits[slot]).toString();
+    return new Todo(id, titles[slot], completed[slot], versions[slot]);
+  }
+
+  private void allocate(int capacity) {
+    mostSignificantBits = new long[capacity];
+    leastSignificantBits = new long[capacity];
+    otherIds = new String[capacity];
+    titles = new String[capacity];
+    versions = new long[capacity];
+    completed = new boolean[capacity];
+    previous = new int[capacity];
+    next = new int[capacity];
+    buckets = new int[Integer.highestOneBit(capacity - 1) << 2];
+    size = 0;
+    completedCount = 0;
+    slotCount = 0;
+    freeSlot = NONE;
+    first = NONE;
+    last = NONE;
+  }
+
+  private int allocateSlot() {
+    if (freeSlot != NONE) {
+      var slot = freeSlot;
+      freeSlot = next[slot];
+      return slot;
+    }
+
+    if (slotCount == titles.length) {
+      grow();
+    }
+    return slotCount++;
+  }
+
+  private void grow() {
+    var capacity = titles.length * 2;
+    mostSignificantBits = Arrays.copyOf(mostSignificantBits, capacity);
+    leastSignificantBits = Arrays.copyOf(leastSignificantBits, capacity);
+    otherIds = Arrays.copyOf(otherIds, capacity);
+    titles = Arrays.copyOf(titles, capacity);
+    versions = Arrays.copyOf(versions, capacity);
+    completed = Arrays.copyOf(completed, capacity);
+    previous = Arrays.copyOf(previous, capacity);
+    next = Arrays.copyOf(next, capacity);
+    buckets = new int[buckets.length * 2];
+    for (var slot = first; slot != NONE; slot = next[slot]) {
+      insertIntoBuckets(slot);
+    }
+  }
+
+  private void removeSlot(int slot) {
+    removeFromBuckets(slot);
+    unlink(slot);
+    otherIds[slot] = null;
+    titles[slot] = null;
+    next[slot] = freeSlot;
+    freeSlot = slot;
+    size--;
+    if (completed[slot]) {
+      completedCount--;
+    }
+  }
+
+  private void link(int slot) {
+    previous[slot] = last;
+    next[slot] = NONE;
+    if (last == NONE) {
+      first = slot;
+    } else {
+      next[last] = slot;
+    }
+    last = slot;
+  }
+
+  private void unlink(int slot) {
+    if (previous[slot] == NONE) {
+      first = next[slot];
+    } else {
+      next[previous[slot]] = next[slot];
+    }
+    if (next[slot] == NONE) {
+      last = previous[slot];
+    } else {
+      previous[next[slot]] = previous[slot];
+    }
+  }
+
+  /** Sets the id parsed by the last {@link #find(String)}. */
+  private void setId(int slot, String id) {
+    if (parsedUuid) {
+      mostSignificantBits[slot] = parsedMostSignificantBits;
+      leastSignificantBits[slot] = parsedLeastSignificantBits;
+      otherIds[slot] = null;
+    } else {
+      otherIds[slot] = id;
+    }
+  }
+
+  private int find(String id) {
+    parseUuid(id);
+    var hash =
+        parsedUuid ? hash(parsedMostSignificantBits, parsedLeastSignificantBits) : hash(id);
+    var mask = buckets.length - 1;
+    for (var bucket = hash & mask; buckets[bucket] != 0; bucket = (bucket + 1) & mask) {
+      var slot = buckets[bucket] - 1;
+      if (parsedUuid) {
+        if (otherIds[slot] == null
+            && mostSignificantBits[slot] == parsedMostSignificantBits
+            && leastSignificantBits[slot] == parsedLeastSignificantBits) {
+          return slot;
+        }
+      } else if (id.equals(otherIds[slot])) {
+        return slot;
+      }
+    }
+    return NONE;
+  }
+
+  private void insertIntoBuckets(int slot) {
+    var mask = buckets.length - 1;
+    var bucket = hashOf(slot) & mask;
+    while (buckets[bucket] != 0) {
+      bucket = (bucket + 1) & mask;
+    }
+    buckets[bucket] = slot + 1;
+  }
+
+  /** Removes without tombstones by shifting back the following todos of the probe sequence. */
+  private void removeFromBuckets(int slot) {
+    var mask = buckets.length - 1;
+    var bucket = hashOf(slot) & mask;
+    while (buckets[bucket] != slot + 1) {
+      bucket = (bucket + 1) & mask;
+    }
+
+    var hole = bucket;
+    for (var i = (hole + 1) & mask; buckets[i] != 0; i = (i + 1) & mask) {
+      var home = hashOf(buckets[i] - 1) & mask;
+      if (((i - home) & mask) >= ((i - hole) & mask)) {
+        buckets[hole] = buckets[i];
+        hole = i;
+      }
+    }
+    buckets[hole] = 0;
+  }
+
+  private int hashOf(int slot) {
+    return otherIds[slot] != null
+        ? hash(otherIds[slot])
+        : hash(mostSignificantBits[slot], leastSignificantBits[slot]);
+  }
+
+  private static int hash(long most, long least) {
+    var hash = (most ^ least) * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ hash >>> 32);
+  }
+
+  private static int hash(String id) {
+    var hash = id.hashCode() * 0x9E3779B9;
+    return hash ^ hash >>> 16;
+  }
+
+  /** Only lowercase UUIDs are canonical, so the id can be restored from the two longs. */
+  private void parseUuid(String id) {
+    parsedUuid = false;
+    if (id.length() != 36
+        || id.charAt(8) != '-'
+        || id.charAt(13) != '-'
+        || id.charAt(18) != '-'
+        || id.charAt(23) != '-') {
+      return;
+    }
+
+    var timeLow = parseHex(id, 0, 8);
+    var timeMid = parseHex(id, 9, 13);
+    var timeHigh = parseHex(id, 14, 18);
+    var clockSequence = parseHex(id, 19, 23);
+    var node = parseHex(id, 24, 36);
+    if (timeLow < 0 || timeMid < 0 || timeHigh < 0 || clockSequence < 0 || node < 0) {
+      return;
+    }
+
+    parsedUuid = true;
+    parsedMostSignificantBits = timeLow << 32 | timeMid << 16 | timeHigh;
+    parsedLeastSignificantBits = clockSequence << 48 | node;
+  }
+
+  /** @return the value of at most 12 lowercase hex digits, -1 if not a hex digit */
+  private static long parseHex(String s, int start, int end) {
+    var value = 0L;
+    for (var i = start; i < end; i++) {
+      var c = s.charAt(i);
+      var digit = c < HEX_DIGITS.length ? HEX_DIGITS[c] : -1;
+      if (digit < 0) {
+        return -1;
+      }
+      value = value << 4 | digit;
+    }
+    return value;
+  }
+}
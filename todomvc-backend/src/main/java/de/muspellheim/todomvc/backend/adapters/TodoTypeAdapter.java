@@ -0,0 +1,65 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.io.IOException;
+
+/** Reads and writes todos field by field without reflection. */
+class TodoTypeAdapter extends TypeAdapter<Todo> {
+  @Override
+  public void write(JsonWriter out, Todo todo) throws IOException {
+    if (todo == null) {
+      out.nullValue();
+      return;
+    }
+
+    out.beginObject();
+    out.name("id").value(todo.getId());
+    out.name("title").value(todo.getTitle());
+    out.name("completed").value(todo.isCompleted());
+    out.name("version").value(todo.getVersion());
+    out.endObject();
+  }
+
+  @Override
+  public Todo read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+
+    String id = null;
+    String title = null;
+    var completed = false;
+    var version = 0L;
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case "id":
+          id = in.nextString();
+          break;
+        case "title":
+          title = in.nextString();
+          break;
+        case "completed":
+          completed = in.nextBoolean();
+          break;
+        case "version":
+          version = in.nextLong();
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
+    return new Todo(id, title, completed, version);
+  }
+}
@@ -0,0 +1,21 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+@Value
+@Builder
+public class WriteBehindConfiguration {
+  /** Time after the first unflushed change until the todos are flushed. */
+  @Builder.Default @NonNull Duration flushDelay = Duration.ofSeconds(1);
+
+  /** Number of unflushed changes after which the todos are flushed before the delay elapses. */
+  @Builder.Default int maxPendingChanges = 100;
+}
@@ -0,0 +1,21 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import java.time.Duration;
+import lombok.Value;
+
+@Value
+public class WriteBehindMetrics {
+  /** Number of changes not yet flushed to the wrapped repository. */
+  long pendingChanges;
+
+  /** Age of the oldest change not yet flushed, zero if there is none. */
+  Duration flushLag;
+
+  long flushCount;
+  long failedFlushCount;
+}
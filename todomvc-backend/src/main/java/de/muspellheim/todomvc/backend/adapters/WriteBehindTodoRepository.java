@@ -0,0 +1,286 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import de.muspellheim.todomvc.backend.ChangeDetector;
+import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.backend.TodoStats;
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import lombok.NonNull;
+
+/**
+ * Keeps the todos in memory and writes them behind to a wrapped repository.
+ *
+ * <p>Changes are acknowledged as soon as they are applied in memory. Bursts of changes are
+ * coalesced into one {@link TodoRepository#store(List)} of the wrapped repository, either after the
+ * flush delay or when the number of pending changes reaches its maximum. Closing the repository
+ * flushes the remaining changes.
+ */
+public class WriteBehindTodoRepository implements TodoRepository, AutoCloseable {
+  private final TodoRepository repository;
+  private final WriteBehindConfiguration configuration;
+  private final ScheduledExecutorService scheduler;
+  private final Object flushLock = new Object();
+
+  private final MemoryTodoRepository cache = new MemoryTodoRepository();
+  private long pendingChanges;
+  private long oldestPendingChange;
+  private ScheduledFuture<?> scheduledFlush;
+  private long flushCount;
+  private long failedFlushCount;
+
+  private ChangeDetector changeDetector = ChangeDetector.NONE;
+  private Object flushedVersion;
+  private long reloadCount;
+
+  public WriteBehindTodoRepository(@NonNull TodoRepository repository) throws Exception {
+    this(repository, WriteBehindConfiguration.builder().build());
+  }
+
+  public WriteBehindTodoRepository(
+      @NonNull TodoRepository repository, @NonNull WriteBehindConfiguration configuration)
+      throws Exception {
+    this.repository = repository;
+    this.configuration = configuration;
+    cache.store(repository.load());
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              var thread = new Thread(runnable, "WriteBehindTodoRepository");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @Override
+  public synchronized List<Todo> load() {
+    return new ArrayList<>(cache.load());
+  }
+
+  @Override
+  public synchronized List<Todo> load(@NonNull TodosQuery query) {
+    return new ArrayList<>(cache.load(query));
+  }
+
+  @Override
+  public synchronized TodoStats loadStats() {
+    return cache.loadStats();
+  }
+
+  @Override
+  public synchronized void store(@NonNull List<Todo> todos) {
+    cache.store(todos);
+    changed(1);
+  }
+
+  @Override
+  public synchronized void insert(@NonNull Todo todo) {
+    cache.insert(todo);
+    changed(1);
+  }
+
+  @Override
+  public synchronized boolean update(@NonNull String id, @NonNull UnaryOperator<Todo> update) {
+    var updated = cache.update(id, update);
+    if (updated) {
+      changed(1);
+    }
+    return updated;
+  }
+
+  @Override
+  public synchronized boolean delete(@NonNull String id) {
+    var deleted = cache.delete(id);
+    if (deleted) {
+      changed(1);
+    }
+    return deleted;
+  }
+
+  @Override
+  public synchronized boolean delete(@NonNull String id, long expectedVersion) {
+    var deleted = cache.delete(id, expectedVersion);
+    if (deleted) {
+      changed(1);
+    }
+    return deleted;
+  }
+
+  @Override
+  public synchronized int updateAllCompleted(boolean completed) {
+    var count = cache.updateAllCompleted(completed);
+    changed(count);
+    return count;
+  }
+
+  @Override
+  public synchronized int deleteCompleted() {
+    var count = cache.deleteCompleted();
+    changed(count);
+    return count;
+  }
+
+  @Override
+  public synchronized boolean writeBatch(@NonNull BatchWrite batch) throws Exception {
+    var written = cache.writeBatch(batch);
+    if (written) {
+      changed(1);
+    }
+    return written;
+  }
+
+  /** The listener is notified when a change is applied in memory. */
+  @Override
+  public synchronized void setChangeListener(@NonNull ChangeListener listener) {
+    cache.setChangeListener(listener);
+  }
+
+  public synchronized WriteBehindMetrics getMetrics() {
+    var flushLag =
+        pendingChanges > 0
+            ? Duration.ofNanos(System.nanoTime() - oldestPendingChange)
+            : Duration.ZERO;
+    return new WriteBehindMetrics(pendingChanges, flushLag, flushCount, failedFlushCount);
+  }
+
+  /**
+   * Detects changes of the wrapped repository made by another process and loads the cache again.
+   * The flushes of this repository change the token of the wrapped repository too, so the token
+   * after the last flush is kept and only another token is a change. The changes are not loaded
+   * while changes of this repository are pending, the next flush overwrites them.
+   *
+   * @param changeDetector the change detector of the wrapped repository
+   * @return the change detector of this repository, its token changes with every reload
+   */
+  public ChangeDetector detectChanges(@NonNull ChangeDetector changeDetector) throws Exception {
+    synchronized (flushLock) {
+      this.changeDetector = changeDetector;
+      flushedVersion = changeDetector.getVersion();
+    }
+    return this::reloadIfChanged;
+  }
+
+  private Object reloadIfChanged() throws Exception {
+    synchronized (flushLock) {
+      var version = changeDetector.getVersion();
+      synchronized (this) {
+        if (pendingChanges == 0 && !Objects.equals(version, flushedVersion)) {
+          // The cache reports the reload as reset to the change listener
+          cache.store(repository.load());
+          flushedVersion = version;
+          reloadCount++;
+        }
+        return reloadCount;
+      }
+    }
+  }
+
+  /** Writes all pending changes to the wrapped repository. */
+  public void flush() throws Exception {
+    synchronized (flushLock) {
+      List<Todo> todos;
+      long flushedChanges;
+      long flushedSince;
+      synchronized (this) {
+        if (pendingChanges == 0) {
+          return;
+        }
+
+        todos = new ArrayList<>(cache.load());
+        flushedChanges = pendingChanges;
+        flushedSince = oldestPendingChange;
+        pendingChanges = 0;
+      }
+
+      try {
+        repository.store(todos);
+        flushedVersion = changeDetector.getVersion();
+        synchronized (this) {
+          flushCount++;
+        }
+      } catch (Exception e) {
+        synchronized (this) {
+          failedFlushCount++;
+          pendingChanges += flushedChanges;
+          oldestPendingChange = flushedSince;
+        }
+        throw e;
+      }
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    scheduler.shutdown();
+    scheduler.awaitTermination(1, TimeUnit.MINUTES);
+    flush();
+  }
+
+  private void changed(int count) {
+    if (count == 0) {
+      return;
+    }
+
+    if (pendingChanges == 0) {
+      oldestPendingChange = System.nanoTime();
+    }
+    pendingChanges += count;
+    if (pendingChanges >= configuration.getMaxPendingChanges()) {
+      scheduleImmediateFlush();
+    } else if (scheduledFlush == null) {
+      scheduleFlush(configuration.getFlushDelay().toMillis());
+    }
+  }
+
+  /**
+   * Brings a delayed flush forward. A flush which is due or running already takes the pending
+   * changes, so at most one flush is scheduled at any time.
+   */
+  private void scheduleImmediateFlush() {
+    if (scheduledFlush != null) {
+      if (scheduledFlush.getDelay(TimeUnit.MILLISECONDS) <= 0) {
+        return;
+      }
+
+      scheduledFlush.cancel(false);
+    }
+    scheduleFlush(0);
+  }
+
+  private void scheduleFlush(long delay) {
+    if (scheduler.isShutdown()) {
+      return;
+    }
+
+    scheduledFlush = scheduler.schedule(this::flushInBackground, delay, TimeUnit.MILLISECONDS);
+  }
+
+  private void flushInBackground() {
+    synchronized (this) {
+      scheduledFlush = null;
+    }
+    try {
+      flush();
+    } catch (Exception e) {
+      e.printStackTrace();
+      synchronized (this) {
+        if (scheduledFlush == null) {
+          scheduleFlush(configuration.getFlushDelay().toMillis());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.messagehandlers;
+
+import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommand;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.Failure;
+import de.muspellheim.todomvc.contract.messages.commands.Success;
+import java.util.ArrayList;
+import java.util.Collections;
+import lombok.NonNull;
+
+/**
+ * Executes the commands of a batch on a staged copy of the todos and stores them in one write. If
+ * a command fails, the batch is aborted and nothing is written.
+ */
+public class BatchCommandHandler {
+  private final TodoRepository repository;
+
+  public BatchCommandHandler(TodoRepository repository) {
+    this.repository = repository;
+  }
+
+  public BatchCommandStatus handle(@NonNull BatchCommand command) {
+    var commands = command.getCommands();
+    var statuses = new ArrayList<CommandStatus>();
+    try {
+      var written =
+          repository.writeBatch(
+              todos -> {
+                statuses.clear();
+                for (var it : commands) {
+                  var status = handle(it, todos);
+                  statuses.add(status);
+                  if (!(status instanceof Success)) {
+                    return false;
+                  }
+                }
+                return true;
+              });
+      if (!written) {
+        var failedIndex = statuses.size() - 1;
+        var aborted =
+            new Failure("Batch aborted, because command " + (failedIndex + 1) + " failed.");
+        for (var i = 0; i < commands.size(); i++) {
+          if (i < failedIndex) {
+            statuses.set(i, aborted);
+          } else if (i > failedIndex) {
+            statuses.add(aborted);
+          }
+        }
+      }
+      return new BatchCommandStatus(statuses);
+    } catch (Exception e) {
+      return new BatchCommandStatus(
+          Collections.nCopies(commands.size(), new Failure(e.getLocalizedMessage())));
+    }
+  }
+
+  private static CommandStatus handle(BatchCommand.Item item, TodoRepository todos) {
+    if (item.getClearCompleted() != null) {
+      return new ClearCompletedCommandHandler(todos).handle(item.getClearCompleted());
+    } else if (item.getDestroy() != null) {
+      return new DestroyCommandHandler(todos).handle(item.getDestroy());
+    } else if (item.getEdit() != null) {
+      return new EditCommandHandler(todos).handle(item.getEdit());
+    } else if (item.getNewTodo() != null) {
+      return new NewTodoCommandHandler(todos).handle(item.getNewTodo());
+    } else if (item.getToggleAll() != null) {
+      return new ToggleAllCommandHandler(todos).handle(item.getToggleAll());
+    } else if (item.getToggle() != null) {
+      return new ToggleCommandHandler(todos).handle(item.getToggle());
+    } else {
+      return new Failure("Missing command in batch.");
+    }
+  }
+}
@@ -10,7 +10,6 @@ import de.muspellheim.todomvc.contract.messages.commands.ClearCompletedCommand;
 import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
 import de.muspellheim.todomvc.contract.messages.commands.Failure;
 import de.muspellheim.todomvc.contract.messages.commands.Success;
-import java.util.stream.Collectors;
 import lombok.NonNull;
 
 public class ClearCompletedCommandHandler {
@@ -22,9 +21,7 @@ public class ClearCompletedCommandHandler {
 
   public CommandStatus handle(@NonNull ClearCompletedCommand command) {
     try {
-      var todos =
-          repository.load().stream().filter(it -> it.isActive()).collect(Collectors.toList());
-      repository.store(todos);
+      repository.deleteCompleted();
       return new Success();
     } catch (Exception e) {
       return new Failure(e.getLocalizedMessage());
@@ -6,11 +6,12 @@
 package de.muspellheim.todomvc.backend.messagehandlers;
 
 import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.backend.VersionConflictException;
 import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.Conflict;
 import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
 import de.muspellheim.todomvc.contract.messages.commands.Failure;
 import de.muspellheim.todomvc.contract.messages.commands.Success;
-import java.util.stream.Collectors;
 import lombok.NonNull;
 
 public class DestroyCommandHandler {
@@ -22,12 +23,19 @@ public class DestroyCommandHandler {
 
   public CommandStatus handle(@NonNull DestroyCommand command) {
     try {
-      var todos =
-          repository.load().stream()
-              .filter(it -> !it.getId().equals(command.getId()))
-              .collect(Collectors.toList());
-      repository.store(todos);
+      boolean deleted;
+      if (command.getExpectedVersion() != null) {
+        deleted = repository.delete(command.getId(), command.getExpectedVersion());
+      } else {
+        deleted = repository.delete(command.getId());
+      }
+      if (!deleted) {
+        return new Conflict("Todo " + command.getId() + " does not exist.");
+      }
+
       return new Success();
+    } catch (VersionConflictException e) {
+      return new Conflict(e.getLocalizedMessage());
     } catch (Exception e) {
       return new Failure(e.getLocalizedMessage());
     }
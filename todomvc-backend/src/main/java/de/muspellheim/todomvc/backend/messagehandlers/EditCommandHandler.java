@@ -6,11 +6,14 @@
 package de.muspellheim.todomvc.backend.messagehandlers;
 
 import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.backend.VersionConflictException;
+import de.muspellheim.todomvc.contract.data.Todo;
 import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.Conflict;
 import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
 import de.muspellheim.todomvc.contract.messages.commands.Failure;
 import de.muspellheim.todomvc.contract.messages.commands.Success;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.NonNull;
 
 public class EditCommandHandler {
@@ -22,17 +25,22 @@ public class EditCommandHandler {
 
   public CommandStatus handle(@NonNull EditCommand command) {
     try {
-      var todos =
-          repository.load().stream()
-              .peek(
-                  it -> {
-                    if (it.getId().equals(command.getId())) {
-                      it.setTitle(command.getTitle());
-                    }
-                  })
-              .collect(Collectors.toList());
-      repository.store(todos);
+      // An unchanged title is not written, so the update function tells if the todo exists
+      var found = new AtomicBoolean();
+      repository.update(
+          command.getId(),
+          it -> {
+            found.set(true);
+            VersionConflictException.check(it, command.getExpectedVersion());
+            return new Todo(it.getId(), command.getTitle(), it.isCompleted());
+          });
+      if (!found.get()) {
+        return new Conflict("Todo " + command.getId() + " does not exist.");
+      }
+
       return new Success();
+    } catch (VersionConflictException e) {
+      return new Conflict(e.getLocalizedMessage());
     } catch (Exception e) {
       return new Failure(e.getLocalizedMessage());
     }
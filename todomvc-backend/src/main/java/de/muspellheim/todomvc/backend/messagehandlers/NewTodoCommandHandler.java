@@ -5,13 +5,14 @@
 
 package de.muspellheim.todomvc.backend.messagehandlers;
 
+import de.muspellheim.todomvc.backend.DuplicateTodoException;
 import de.muspellheim.todomvc.backend.TodoRepository;
 import de.muspellheim.todomvc.contract.data.Todo;
 import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.Conflict;
 import de.muspellheim.todomvc.contract.messages.commands.Failure;
 import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
 import de.muspellheim.todomvc.contract.messages.commands.Success;
-import java.util.ArrayList;
 import lombok.NonNull;
 
 public class NewTodoCommandHandler {
@@ -23,10 +24,14 @@ public class NewTodoCommandHandler {
 
   public CommandStatus handle(@NonNull NewTodoCommand command) {
     try {
-      var todos = new ArrayList<>(repository.load());
-      todos.add(new Todo(command.getTitle()));
-      repository.store(todos);
+      var todo =
+          command.getId() != null
+              ? new Todo(command.getId(), command.getTitle(), false)
+              : new Todo(command.getTitle());
+      repository.insert(todo);
       return new Success();
+    } catch (DuplicateTodoException e) {
+      return new Conflict(e.getLocalizedMessage());
     } catch (Exception e) {
       return new Failure(e.getLocalizedMessage());
     }
@@ -0,0 +1,30 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.messagehandlers;
+
+import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQueryResult;
+import lombok.NonNull;
+
+public class TodoStatsQueryHandler {
+  private final TodoRepository repository;
+
+  public TodoStatsQueryHandler(TodoRepository repository) {
+    this.repository = repository;
+  }
+
+  public TodoStatsQueryResult handle(@NonNull TodoStatsQuery query) {
+    try {
+      var stats = repository.loadStats();
+      return new TodoStatsQueryResult(
+          stats.getTotalCount(), stats.getActiveCount(), stats.getCompletedCount());
+    } catch (Exception e) {
+      e.printStackTrace();
+      return new TodoStatsQueryResult(0, 0, 0);
+    }
+  }
+}
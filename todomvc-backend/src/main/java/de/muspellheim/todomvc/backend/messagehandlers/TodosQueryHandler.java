@@ -5,26 +5,63 @@
 
 package de.muspellheim.todomvc.backend.messagehandlers;
 
-import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.backend.TodosChangeJournal;
+import de.muspellheim.todomvc.backend.TodosSnapshotCache;
+import de.muspellheim.todomvc.contract.data.Todo;
 import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
 import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
+import java.util.ArrayList;
 import java.util.List;
 import lombok.NonNull;
 
 public class TodosQueryHandler {
-  private final TodoRepository repository;
+  private final TodosSnapshotCache todosSnapshotCache;
+  private final TodosChangeJournal todosChangeJournal;
 
-  public TodosQueryHandler(TodoRepository repository) {
-    this.repository = repository;
+  public TodosQueryHandler(TodosSnapshotCache todosSnapshotCache) {
+    this(todosSnapshotCache, new TodosChangeJournal());
+  }
+
+  public TodosQueryHandler(
+      TodosSnapshotCache todosSnapshotCache, TodosChangeJournal todosChangeJournal) {
+    this.todosSnapshotCache = todosSnapshotCache;
+    this.todosChangeJournal = todosChangeJournal;
   }
 
   public TodosQueryResult handle(@NonNull TodosQuery query) {
     try {
-      var todos = repository.load();
-      return new TodosQueryResult(todos);
+      if (query.getSinceVersion() != null && query.getOffset() == 0 && query.getLimit() == null) {
+        var delta = handleDelta(query);
+        if (delta != null) {
+          return delta;
+        }
+      }
+
+      var version = todosChangeJournal.getVersion();
+      var todos = todosSnapshotCache.getTodos(query);
+      return new TodosQueryResult(todos, version, List.of(), false);
     } catch (Exception e) {
       e.printStackTrace();
       return new TodosQueryResult(List.of());
     }
   }
+
+  /** Changed todos not matching the filter anymore are returned as removed. */
+  private TodosQueryResult handleDelta(TodosQuery query) throws Exception {
+    var changes = todosChangeJournal.getChangesSince(query.getSinceVersion());
+    if (changes == null) {
+      return null;
+    }
+
+    var todos = new ArrayList<Todo>();
+    var removedIds = new ArrayList<>(changes.getRemovedIds());
+    for (var todo : changes.getChanged()) {
+      if (query.getFilter().test(todo)) {
+        todos.add(todo);
+      } else {
+        removedIds.add(todo.getId());
+      }
+    }
+    return new TodosQueryResult(todos, changes.getVersion(), removedIds, true);
+  }
 }
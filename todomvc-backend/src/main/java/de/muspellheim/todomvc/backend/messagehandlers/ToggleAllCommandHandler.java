@@ -10,7 +10,6 @@ import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
 import de.muspellheim.todomvc.contract.messages.commands.Failure;
 import de.muspellheim.todomvc.contract.messages.commands.Success;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleAllCommand;
-import java.util.stream.Collectors;
 import lombok.NonNull;
 
 public class ToggleAllCommandHandler {
@@ -22,11 +21,7 @@ public class ToggleAllCommandHandler {
 
   public CommandStatus handle(@NonNull ToggleAllCommand command) {
     try {
-      var todos =
-          repository.load().stream()
-              .peek(it -> it.setCompleted(command.getCompleted()))
-              .collect(Collectors.toList());
-      repository.store(todos);
+      repository.updateAllCompleted(command.getCompleted());
       return new Success();
     } catch (Exception e) {
       return new Failure(e.getLocalizedMessage());
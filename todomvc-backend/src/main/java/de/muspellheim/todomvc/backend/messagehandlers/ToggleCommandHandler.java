@@ -6,11 +6,13 @@
 package de.muspellheim.todomvc.backend.messagehandlers;
 
 import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.backend.VersionConflictException;
+import de.muspellheim.todomvc.contract.data.Todo;
 import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.Conflict;
 import de.muspellheim.todomvc.contract.messages.commands.Failure;
 import de.muspellheim.todomvc.contract.messages.commands.Success;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
-import java.util.stream.Collectors;
 import lombok.NonNull;
 
 public class ToggleCommandHandler {
@@ -22,17 +24,20 @@ public class ToggleCommandHandler {
 
   public CommandStatus handle(@NonNull ToggleCommand command) {
     try {
-      var todos =
-          repository.load().stream()
-              .peek(
-                  it -> {
-                    if (it.getId().equals(command.getId())) {
-                      it.setCompleted(!it.isCompleted());
-                    }
-                  })
-              .collect(Collectors.toList());
-      repository.store(todos);
+      var toggled =
+          repository.update(
+              command.getId(),
+              it -> {
+                VersionConflictException.check(it, command.getExpectedVersion());
+                return new Todo(it.getId(), it.getTitle(), !it.isCompleted());
+              });
+      if (!toggled) {
+        return new Conflict("Todo " + command.getId() + " does not exist.");
+      }
+
       return new Success();
+    } catch (VersionConflictException e) {
+      return new Conflict(e.getLocalizedMessage());
     } catch (Exception e) {
       return new Failure(e.getLocalizedMessage());
     }
@@ -1,5 +1,6 @@
 module de.muspellheim.todomvc.backend {
   requires static com.h2database;
+  requires static io.agroal.api;
   requires static java.naming;
   requires static lombok;
   requires static org.postgresql.jdbc;
@@ -5,7 +5,15 @@ psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" <<-E
   CREATE TABLE todos (
     id VARCHAR(255) NOT NULL,
     title VARCHAR(255) NOT NULL,
-    completed BOOLEAN NOT NULL);
+    completed BOOLEAN NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id));
+  CREATE INDEX todos_completed_idx ON todos (completed);
+  CREATE TABLE todos_version (
+    id INT NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (id));
+  INSERT INTO todos_version (id, version) VALUES (1, 0);
   INSERT INTO todos (id, title, completed)
     VALUES ('119e6785-8ffc-42e0-8df6-dbc64881f2b7', 'Taste JavaScript', TRUE);
   INSERT INTO todos (id, title, completed)
@@ -0,0 +1,52 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.commands.Success;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AsyncMessageHandlerTests {
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newSingleThreadExecutor(it -> new Thread(it, "handler"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void handlesMessagesOnExecutor() throws Exception {
+    var repository =
+        new MemoryTodoRepository() {
+          @Override
+          public synchronized void insert(Todo todo) {
+            assertEquals("handler", Thread.currentThread().getName(), "thread");
+            super.insert(todo);
+          }
+        };
+    var messageHandler = new AsyncMessageHandler(new MessageHandler(repository), executor);
+
+    var status = messageHandler.handle(new NewTodoCommand("Foobar")).toCompletableFuture().get();
+    var result = messageHandler.handle(new TodosQuery()).toCompletableFuture().get();
+
+    assertEquals(new Success(), status, "command status");
+    assertEquals("Foobar", result.getTodos().get(0).getTitle(), "new todo");
+  }
+}
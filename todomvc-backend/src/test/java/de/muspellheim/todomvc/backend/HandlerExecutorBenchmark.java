@@ -0,0 +1,168 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import de.muspellheim.todomvc.backend.adapters.H2DataSourceFactory;
+import de.muspellheim.todomvc.backend.adapters.JdbcTodoRepository;
+import de.muspellheim.todomvc.backend.adapters.JsonTodoRepository;
+import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQuery;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Measures the throughput of many concurrent requests for every kind of handler executor.
+ *
+ * <p>The read workload queries the stats of a repository with a simulated latency. The command
+ * workloads toggle existing todos and create new todos in a JSON file and an H2 database, so they
+ * include the real writes and the serialization by the repository lock.
+ *
+ * <p>Run with {@code ./gradlew :todomvc-backend:handlerExecutorBenchmark}.
+ */
+public class HandlerExecutorBenchmark {
+  private static final int READ_REQUESTS = 2_000;
+  private static final int COMMAND_REQUESTS = 500;
+  private static final int TODOS = 100;
+  private static final long STORAGE_LATENCY_MILLIS = 20;
+
+  public static void main(String[] args) throws Exception {
+    System.out.printf(
+        "%-16s %-16s %16s %22s %22s%n",
+        "executor", "workload", "requests [1/s]", "avg queue wait [ms]", "avg execution [ms]");
+    var executors = new LinkedHashMap<String, Supplier<HandlerExecutor>>();
+    executors.put("platform 16", () -> HandlerExecutor.platformThreads(16, READ_REQUESTS));
+    executors.put("platform 256", () -> HandlerExecutor.platformThreads(256, READ_REQUESTS));
+    if (HandlerExecutor.isVirtualThreadsSupported()) {
+      executors.put("virtual", HandlerExecutor::virtualThreads);
+    }
+    for (var entry : executors.entrySet()) {
+      var name = entry.getKey();
+      var executorFactory = entry.getValue();
+      measure(
+          name,
+          executorFactory,
+          "stats query",
+          directory -> createSlowRepository(),
+          READ_REQUESTS,
+          (handler, i) -> handler.handle(new TodoStatsQuery()));
+      for (var type : List.of("json", "jdbc")) {
+        measure(
+            name,
+            executorFactory,
+            "toggle " + type,
+            directory -> createRepository(type, directory),
+            COMMAND_REQUESTS,
+            (handler, i) -> handler.handle(new ToggleCommand(String.valueOf(i % TODOS))));
+        measure(
+            name,
+            executorFactory,
+            "new todo " + type,
+            directory -> createRepository(type, directory),
+            COMMAND_REQUESTS,
+            (handler, i) -> handler.handle(new NewTodoCommand("Todo " + i)));
+      }
+    }
+    if (!HandlerExecutor.isVirtualThreadsSupported()) {
+      System.out.printf("%-16s %-16s %16s%n", "virtual", "", "not supported");
+    }
+  }
+
+  private static void measure(
+      String name,
+      Supplier<HandlerExecutor> executorFactory,
+      String workload,
+      RepositoryFactory repositoryFactory,
+      int requests,
+      Request request)
+      throws Exception {
+    var directory = Files.createTempDirectory("todomvc-handler-executor");
+    try {
+      var messageHandler = new MessageHandler(repositoryFactory.create(directory));
+      var executor = executorFactory.get();
+      try (executor) {
+        var asyncMessageHandler = new AsyncMessageHandler(messageHandler, executor);
+        var start = System.nanoTime();
+        var results = new ArrayList<CompletableFuture<?>>();
+        for (var i = 0; i < requests; i++) {
+          results.add(request.send(asyncMessageHandler, i).toCompletableFuture());
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get();
+        var throughput = requests / ((System.nanoTime() - start) / 1_000_000_000.0);
+        executor.close();
+
+        var metrics = executor.getMetrics();
+        System.out.printf(
+            "%-16s %-16s %16.0f %22.1f %22.1f%n",
+            name,
+            workload,
+            throughput,
+            metrics.getAverageQueueWait().toNanos() / 1_000_000.0,
+            metrics.getAverageExecutionTime().toNanos() / 1_000_000.0);
+      }
+    } finally {
+      delete(directory);
+    }
+  }
+
+  private static TodoRepository createSlowRepository() {
+    return new MemoryTodoRepository() {
+      /** Simulates the latency of a file or database read, without holding the lock. */
+      @Override
+      public TodoStats loadStats() {
+        try {
+          Thread.sleep(STORAGE_LATENCY_MILLIS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return super.loadStats();
+      }
+    };
+  }
+
+  private static TodoRepository createRepository(String type, Path directory) throws Exception {
+    TodoRepository repository;
+    if (type.equals("json")) {
+      repository = new JsonTodoRepository(directory.resolve("todos.json"));
+    } else {
+      var dataSource = H2DataSourceFactory.createFile(directory.resolve("todos"), "sa", "sa");
+      var jdbcRepository = new JdbcTodoRepository(dataSource);
+      jdbcRepository.createSchema();
+      repository = jdbcRepository;
+    }
+    var todos = new ArrayList<Todo>();
+    for (var i = 0; i < TODOS; i++) {
+      todos.add(new Todo(String.valueOf(i), "Todo " + i, false));
+    }
+    repository.store(todos);
+    return repository;
+  }
+
+  private static void delete(Path directory) throws Exception {
+    try (var files = Files.walk(directory)) {
+      for (var file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  private interface RepositoryFactory {
+    TodoRepository create(Path directory) throws Exception;
+  }
+
+  private interface Request {
+    CompletionStage<?> send(AsyncMessageHandler handler, int index);
+  }
+}
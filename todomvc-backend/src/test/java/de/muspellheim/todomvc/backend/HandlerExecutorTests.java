@@ -0,0 +1,91 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.Test;
+
+public class HandlerExecutorTests {
+  @Test
+  void callerThreadRunsHandlerOnCaller() {
+    try (var executor = HandlerExecutor.callerThread()) {
+      var thread = new Thread[1];
+
+      executor.execute(() -> thread[0] = Thread.currentThread());
+
+      assertEquals(Thread.currentThread(), thread[0], "thread");
+      assertEquals(1, executor.getMetrics().getCompletedCount(), "completed count");
+    }
+  }
+
+  @Test
+  void platformThreadsReportQueueWaitAndExecutionTime() throws Exception {
+    try (var executor = HandlerExecutor.platformThreads(1, 10)) {
+      var first = CompletableFuture.runAsync(() -> sleep(50), executor);
+      var second = CompletableFuture.runAsync(() -> sleep(50), executor);
+
+      CompletableFuture.allOf(first, second).get();
+      executor.close();
+
+      var metrics = executor.getMetrics();
+      assertEquals(2, metrics.getCompletedCount(), "completed count");
+      assertTrue(
+          metrics.getMaxQueueWait().compareTo(Duration.ofMillis(40)) >= 0,
+          "second handler waited for the first one");
+      assertTrue(
+          metrics.getAverageExecutionTime().compareTo(Duration.ofMillis(40)) >= 0,
+          "execution time");
+    }
+  }
+
+  @Test
+  void platformThreadsRejectHandlerIfQueueIsFull() throws Exception {
+    try (var executor = HandlerExecutor.platformThreads(1, 1)) {
+      var blocked = new CountDownLatch(1);
+      executor.execute(() -> await(blocked));
+      executor.execute(() -> {});
+
+      assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+      assertEquals(1, executor.getMetrics().getRejectedCount(), "rejected count");
+      blocked.countDown();
+    }
+  }
+
+  @Test
+  void virtualThreadsRunHandler() throws Exception {
+    assumeTrue(HandlerExecutor.isVirtualThreadsSupported(), "JDK supports virtual threads");
+    try (var executor = HandlerExecutor.virtualThreads()) {
+      CompletableFuture.runAsync(() -> sleep(10), executor).get();
+      executor.close();
+
+      assertEquals(1, executor.getMetrics().getCompletedCount(), "completed count");
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class JournalingTodoRepositoryTests {
+  @Test
+  void recordsChangeAndNotifiesListener() throws Exception {
+    var journal = new TodosChangeJournal();
+    var repository = new JournalingTodoRepository(new MemoryTodoRepository(), journal);
+    var changes = new ArrayList<TodosChange>();
+    repository.setChangeListener(changes::add);
+    var version = journal.getVersion();
+
+    repository.insert(new Todo("1", "Taste JavaScript", false));
+
+    assertEquals(
+        List.of(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of())),
+        changes,
+        "notified changes");
+    assertEquals(
+        new TodosChangeJournal.Changes(
+            version + 1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()),
+        journal.getChangesSince(version),
+        "recorded changes");
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.muspellheim.todomvc.backend.adapters.JsonTodoRepository;
+import de.muspellheim.todomvc.backend.adapters.LogTodoRepository;
+import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class MessageHandlerConcurrencyTests {
+  private static final int THREADS = 8;
+  private static final Path JSON_TEST_FILE = Paths.get("build/test/concurrency-todos.json");
+  private static final Path LOG_TEST_DIRECTORY = Paths.get("build/test/concurrency-log");
+
+  @Test
+  void memoryRepositoryLosesNoUpdates() throws Exception {
+    assertNoLostUpdates(new MemoryTodoRepository(), 1_000);
+  }
+
+  @Test
+  void jsonRepositoryLosesNoUpdates() throws Exception {
+    Files.createDirectories(JSON_TEST_FILE.getParent());
+    Files.deleteIfExists(JSON_TEST_FILE);
+
+    assertNoLostUpdates(new JsonTodoRepository(JSON_TEST_FILE), 20);
+  }
+
+  @Test
+  void logRepositoryLosesNoUpdates() throws Exception {
+    deleteDirectory(LOG_TEST_DIRECTORY);
+
+    try (var repository = new LogTodoRepository(LOG_TEST_DIRECTORY)) {
+      assertNoLostUpdates(repository, 100);
+    }
+  }
+
+  /**
+   * Writes concurrently to the bare repository, which must apply every write atomically and report
+   * its changes in an order the journal can follow.
+   */
+  private static void assertNoLostUpdates(TodoRepository repository, int writesPerThread)
+      throws Exception {
+    var journal = new TodosChangeJournal(100_000, ChangeDetector.NONE);
+    repository.setChangeListener(journal::record);
+    var todoIds = new ArrayList<String>();
+    for (var i = 0; i < THREADS; i++) {
+      var todo = new Todo("Todo " + i);
+      repository.insert(todo);
+      todoIds.add(todo.getId());
+    }
+    var version = journal.getVersion();
+
+    var tasks = new ArrayList<Callable<Void>>();
+    for (var i = 0; i < THREADS; i++) {
+      tasks.add(
+          () -> {
+            for (var j = 0; j < writesPerThread; j++) {
+              repository.insert(new Todo("New todo"));
+              var id = todoIds.get(j % THREADS);
+              var toggled =
+                  repository.update(
+                      id, it -> new Todo(it.getId(), it.getTitle(), !it.isCompleted()));
+              assertTrue(toggled, "toggled");
+            }
+            return null;
+          });
+    }
+    runConcurrently(tasks);
+
+    var todos = repository.load();
+    assertEquals(THREADS + THREADS * writesPerThread, todos.size(), "todo count");
+    // All threads toggle each todo equally often, with an even number of threads it ends active.
+    for (var i = 0; i < THREADS; i++) {
+      assertFalse(todos.get(i).isCompleted(), "todo " + i + " completed");
+    }
+    var changes = journal.getChangesSince(version);
+    assertNotNull(changes, "changes known");
+    assertEquals(Set.copyOf(todos), Set.copyOf(changes.getChanged()), "changed todos");
+  }
+
+  private static void runConcurrently(List<Callable<Void>> tasks) throws Exception {
+    var executor = Executors.newFixedThreadPool(tasks.size());
+    try {
+      for (var future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+  }
+
+  private static void deleteDirectory(Path directory) throws Exception {
+    if (!Files.exists(directory)) {
+      return;
+    }
+
+    try (var files = Files.walk(directory)) {
+      for (var file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(file);
+      }
+    }
+  }
+}
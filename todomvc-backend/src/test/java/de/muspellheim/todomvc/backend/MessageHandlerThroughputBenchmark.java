@@ -0,0 +1,81 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the message handler with a memory repository when several threads
+ * concurrently create, toggle and query todos.
+ *
+ * <p>Run with {@code ./gradlew :todomvc-backend:throughputBenchmark}.
+ */
+public class MessageHandlerThroughputBenchmark {
+  private static final int[] THREADS = {1, 2, 4, 8, 16};
+  private static final int INITIAL_TODOS = 100;
+  private static final long DURATION_MILLIS = 2_000;
+
+  public static void main(String[] args) throws Exception {
+    System.out.printf("%8s %18s%n", "threads", "commands [1/s]");
+    for (var threads : THREADS) {
+      measure(threads, DURATION_MILLIS / 2);
+      var throughput = measure(threads, DURATION_MILLIS);
+      System.out.printf("%8d %18.0f%n", threads, throughput);
+    }
+  }
+
+  private static double measure(int threads, long durationMillis) throws Exception {
+    var repository = new MemoryTodoRepository();
+    var ids = new ArrayList<String>();
+    for (var i = 0; i < INITIAL_TODOS; i++) {
+      var todo = new Todo("Todo " + i);
+      repository.insert(todo);
+      ids.add(todo.getId());
+    }
+    var messageHandler = new MessageHandler(repository);
+
+    var end = System.currentTimeMillis() + durationMillis;
+    var tasks = new ArrayList<Callable<Long>>();
+    for (var i = 0; i < threads; i++) {
+      tasks.add(() -> runCommands(messageHandler, ids, end));
+    }
+    var executor = Executors.newFixedThreadPool(threads);
+    try {
+      var start = System.nanoTime();
+      var commands = 0L;
+      for (var future : executor.invokeAll(tasks)) {
+        commands += future.get();
+      }
+      return commands / ((System.nanoTime() - start) / 1_000_000_000.0);
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+  }
+
+  private static long runCommands(MessageHandler messageHandler, List<String> ids, long end) {
+    var commands = 0L;
+    for (var i = 0; System.currentTimeMillis() < end; i++) {
+      messageHandler.handle(new ToggleCommand(ids.get(i % ids.size())));
+      messageHandler.handle(new TodosQuery());
+      commands += 2;
+      if (i % 100 == 0) {
+        messageHandler.handle(new NewTodoCommand("New todo"));
+        commands++;
+      }
+    }
+    return commands;
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+public class TodosChangeJournalTests {
+  @Test
+  void returnsLatestChangesSinceVersion() throws Exception {
+    var journal = new TodosChangeJournal();
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+    var version = journal.getVersion();
+
+    journal.record(TodosChange.of(2, List.of(new Todo("2", "Buy a unicorn", false)), List.of()));
+    journal.record(
+        TodosChange.of(3, List.of(new Todo("1", "Taste JavaScript", true, 1)), List.of()));
+    journal.record(TodosChange.of(4, List.of(), List.of("2")));
+    var changes = journal.getChangesSince(version);
+
+    assertEquals(
+        new TodosChangeJournal.Changes(
+            version + 3, List.of(new Todo("1", "Taste JavaScript", true)), List.of("2")),
+        changes);
+  }
+
+  @Test
+  void changesAreUnknownIfJournalWasTruncated() throws Exception {
+    var journal = new TodosChangeJournal(2, ChangeDetector.NONE);
+    var version = journal.getVersion();
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+    journal.record(TodosChange.of(2, List.of(new Todo("2", "Buy a unicorn", false)), List.of()));
+    journal.record(TodosChange.of(3, List.of(new Todo("3", "Buy milk", false)), List.of()));
+
+    assertNull(journal.getChangesSince(version), "changes since first version");
+    assertEquals(
+        List.of(new Todo("2", "Buy a unicorn", false), new Todo("3", "Buy milk", false)),
+        journal.getChangesSince(version + 1).getChanged(),
+        "changes since second version");
+  }
+
+  @Test
+  void appliesChangesOfConcurrentWritesInVersionOrder() throws Exception {
+    var journal = new TodosChangeJournal();
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+    var version = journal.getVersion();
+    var firstWrite = journal.beginWrite();
+    var secondWrite = journal.beginWrite();
+
+    journal.record(
+        TodosChange.of(3, List.of(new Todo("1", "Taste JavaScript", true, 1)), List.of()));
+    journal.endWrite(secondWrite);
+    assertEquals(version, journal.getVersion(), "version while a write is missing");
+    journal.record(TodosChange.of(2, List.of(new Todo("2", "Buy a unicorn", false)), List.of()));
+    journal.endWrite(firstWrite);
+
+    assertEquals(
+        new TodosChangeJournal.Changes(
+            version + 2,
+            List.of(
+                new Todo("2", "Buy a unicorn", false), new Todo("1", "Taste JavaScript", true, 1)),
+            List.of()),
+        journal.getChangesSince(version));
+  }
+
+  @Test
+  void changesAreUnknownIfVersionIsMissingAfterWritesFinished() throws Exception {
+    var journal = new TodosChangeJournal();
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+    var version = journal.getVersion();
+
+    // Version 2 was written by another process
+    var write = journal.beginWrite();
+    journal.record(TodosChange.of(3, List.of(new Todo("2", "Buy a unicorn", false)), List.of()));
+    journal.endWrite(write);
+
+    assertNull(journal.getChangesSince(version), "changes");
+  }
+
+  @Test
+  void changesAreUnknownAfterReset() throws Exception {
+    var journal = new TodosChangeJournal();
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+    var version = journal.getVersion();
+
+    journal.record(TodosChange.reset(2));
+
+    assertNull(journal.getChangesSince(version), "changes");
+  }
+
+  @Test
+  void changesAreUnknownAfterExternalChange() throws Exception {
+    var externalVersion = new AtomicLong(1);
+    var journal = new TodosChangeJournal(10, externalVersion::get);
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+    var version = journal.getVersion();
+
+    externalVersion.incrementAndGet();
+
+    assertNull(journal.getChangesSince(version), "changes");
+  }
+
+  @Test
+  void changesAreUnknownAfterExternalChangeOfFileToken() throws Exception {
+    var token = new AtomicReference<Object>(List.of("2021-01-01T00:00:00Z", 42L));
+    var journal = new TodosChangeJournal(10, token::get);
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+    var version = journal.getVersion();
+
+    token.set(List.of("2021-01-01T00:00:01Z", 42L));
+
+    assertNull(journal.getChangesSince(version), "changes");
+  }
+
+  @Test
+  void writeOfThisJournalIsNoExternalChange() throws Exception {
+    var token = new AtomicReference<Object>("former file");
+    var journal = new TodosChangeJournal(10, token::get);
+    var version = journal.getVersion();
+
+    var write = journal.beginWrite();
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+    token.set("written file");
+    journal.endWrite(write);
+
+    assertEquals(
+        new TodosChangeJournal.Changes(
+            version + 1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()),
+        journal.getChangesSince(version),
+        "changes");
+  }
+
+  @Test
+  void changesAreUnknownSinceVersionOfFormerJournal() throws Exception {
+    var formerJournal = new TodosChangeJournal();
+    formerJournal.record(
+        TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+    var formerVersion = formerJournal.getVersion();
+    Thread.sleep(2);
+
+    var journal = new TodosChangeJournal();
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+    journal.record(TodosChange.of(2, List.of(new Todo("2", "Buy a unicorn", false)), List.of()));
+
+    assertNull(journal.getChangesSince(formerVersion), "changes");
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.notifications.TodosChangedNotification;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class TodosChangeSubscriptionTests {
+  @Test
+  void notifiesRecordedChanges() throws Exception {
+    var journal = new TodosChangeJournal();
+    var version = journal.getVersion();
+    var subscription = journal.subscribe(version, 10);
+
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+    journal.record(TodosChange.of(2, List.of(), List.of("1")));
+
+    assertEquals(
+        new TodosChangedNotification(
+            version + 1, List.of(new Todo("1", "Taste JavaScript", false)), List.of(), false),
+        subscription.poll(1, TimeUnit.SECONDS),
+        "first notification");
+    assertEquals(
+        new TodosChangedNotification(version + 2, List.of(), List.of("1"), false),
+        subscription.poll(1, TimeUnit.SECONDS),
+        "second notification");
+    assertNull(subscription.poll(10, TimeUnit.MILLISECONDS), "no more notifications");
+  }
+
+  @Test
+  void pushesNotificationsToListener() throws Exception {
+    var journal = new TodosChangeJournal();
+    var version = journal.getVersion();
+    var subscription = journal.subscribe(version, 10);
+    var notifications = new ArrayList<TodosChangedNotification>();
+    subscription.setListener(() -> notifications.add(subscription.poll()));
+
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+
+    assertEquals(
+        List.of(
+            new TodosChangedNotification(
+                version + 1,
+                List.of(new Todo("1", "Taste JavaScript", false)),
+                List.of(),
+                false)),
+        notifications);
+    assertNull(subscription.poll(), "no more notifications");
+  }
+
+  @Test
+  void resumesWithChangesSinceVersion() throws Exception {
+    var journal = new TodosChangeJournal();
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+    var version = journal.getVersion();
+    journal.record(TodosChange.of(2, List.of(new Todo("2", "Buy a unicorn", false)), List.of()));
+
+    var subscription = journal.subscribe(version, 10);
+
+    assertEquals(
+        new TodosChangedNotification(
+            version + 1, List.of(new Todo("2", "Buy a unicorn", false)), List.of(), false),
+        subscription.poll(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void startsWithResyncWithoutVersion() throws Exception {
+    var journal = new TodosChangeJournal();
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+
+    var subscription = journal.subscribe(null, 10);
+
+    assertEquals(
+        TodosChangedNotification.resync(journal.getVersion()),
+        subscription.poll(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void dropsToResyncIfSubscriberFallsBehind() throws Exception {
+    var journal = new TodosChangeJournal();
+    var version = journal.getVersion();
+    var subscription = journal.subscribe(version, 2);
+
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+    journal.record(TodosChange.of(2, List.of(new Todo("2", "Buy a unicorn", false)), List.of()));
+    journal.record(TodosChange.of(3, List.of(new Todo("3", "Buy milk", false)), List.of()));
+    journal.record(TodosChange.of(4, List.of(new Todo("4", "Walk the dog", false)), List.of()));
+
+    assertEquals(
+        TodosChangedNotification.resync(version + 4),
+        subscription.poll(1, TimeUnit.SECONDS),
+        "resync notification");
+    assertNull(subscription.poll(10, TimeUnit.MILLISECONDS), "no more notifications");
+  }
+
+  @Test
+  void closedSubscriptionIsNotNotified() throws Exception {
+    var journal = new TodosChangeJournal();
+    var subscription = journal.subscribe(journal.getVersion(), 10);
+
+    subscription.close();
+    journal.record(TodosChange.of(1, List.of(new Todo("1", "Taste JavaScript", false)), List.of()));
+
+    assertNull(subscription.poll(1, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class TodosSnapshotCacheTests {
+  @Test
+  void servesSnapshotUntilInvalidated() throws Exception {
+    var repository = new CountingTodoRepository();
+    var cache = new TodosSnapshotCache(repository);
+
+    cache.getTodos();
+    cache.getTodos();
+    repository.insert(new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true));
+    cache.invalidate();
+    var todos = cache.getTodos();
+
+    assertEquals(
+        List.of(new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true)),
+        todos);
+    assertEquals(2, repository.loadCount, "load count");
+  }
+
+  @Test
+  void reloadsWhenExternalChangeDetected() throws Exception {
+    var repository = new CountingTodoRepository();
+    var externalVersion = new AtomicLong();
+    var cache = new TodosSnapshotCache(repository, externalVersion::get);
+
+    cache.getTodos();
+    cache.getTodos();
+    externalVersion.incrementAndGet();
+    cache.getTodos();
+
+    assertEquals(2, repository.loadCount, "load count");
+  }
+
+  @Test
+  void messageHandlerInvalidatesCacheOnCommand() {
+    var repository = new CountingTodoRepository();
+    var messageHandler = new MessageHandler(repository);
+
+    messageHandler.handle(new TodosQuery());
+    messageHandler.handle(new NewTodoCommand("Taste JavaScript"));
+    var result = messageHandler.handle(new TodosQuery());
+
+    assertEquals(1, result.getTodos().size(), "todo count");
+    assertEquals(2, repository.loadCount, "load count");
+  }
+
+  @Test
+  void appliesQueryToUpToDateSnapshot() throws Exception {
+    var repository = new CountingTodoRepository();
+    repository.store(createTestData());
+    var cache = new TodosSnapshotCache(repository);
+
+    cache.getTodos();
+    var todos = cache.getTodos(new TodosQuery(TodosQuery.Filter.COMPLETED));
+
+    assertEquals(
+        List.of(new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true)),
+        todos);
+    assertEquals(1, repository.loadCount, "load count");
+    assertEquals(0, repository.queryCount, "query count");
+  }
+
+  @Test
+  void pushesQueryDownIfSnapshotIsStale() throws Exception {
+    var repository = new CountingTodoRepository();
+    repository.store(createTestData());
+    var cache = new TodosSnapshotCache(repository);
+
+    var todos = cache.getTodos(new TodosQuery(TodosQuery.Filter.ACTIVE));
+
+    assertEquals(
+        List.of(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)), todos);
+    assertEquals(0, repository.loadCount, "load count");
+    assertEquals(1, repository.queryCount, "query count");
+  }
+
+  private static List<Todo> createTestData() {
+    return List.of(
+        new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
+        new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false));
+  }
+
+  private static class CountingTodoRepository extends MemoryTodoRepository {
+    int loadCount;
+    int queryCount;
+
+    @Override
+    public List<Todo> load() {
+      loadCount++;
+      return super.load();
+    }
+
+    @Override
+    public List<Todo> load(TodosQuery query) {
+      queryCount++;
+      return super.load(query);
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+
+/**
+ * Compares the former full rewrite of the table with the row-level store and update when a single
+ * todo is toggled.
+ *
+ * <p>Run with {@code ./gradlew :todomvc-backend:jdbcBenchmark}.
+ */
+public class JdbcTodoRepositoryBenchmark {
+  private static final int[] SIZES = {1_000, 10_000, 100_000};
+  private static final int WARMUP_ITERATIONS = 5;
+  private static final int ITERATIONS = 20;
+
+  public static void main(String[] args) throws SQLException {
+    var dataSource = H2DataSourceFactory.createFile(Paths.get("./build/benchmark"), "sa", "sa");
+    var repository = new JdbcTodoRepository(dataSource);
+    repository.createSchema();
+
+    System.out.printf(
+        "%8s %18s %18s %18s%n", "todos", "full rewrite [ms]", "store [ms]", "update [ms]");
+    for (var size : SIZES) {
+      var todos = createTodos(size);
+      storeAll(dataSource, todos);
+
+      var fullRewrite = measure(() -> storeAll(dataSource, toggleLast(todos)));
+      var store = measure(() -> repository.store(toggleLast(repository.load())));
+      var id = todos.get(size - 1).getId();
+      var update =
+          measure(
+              () -> repository.update(id, it -> new Todo(id, it.getTitle(), !it.isCompleted())));
+      System.out.printf("%8d %18.2f %18.2f %18.2f%n", size, fullRewrite, store, update);
+    }
+  }
+
+  private static List<Todo> createTodos(int size) {
+    var todos = new ArrayList<Todo>(size);
+    for (var i = 0; i < size; i++) {
+      todos.add(new Todo("Todo " + i));
+    }
+    return todos;
+  }
+
+  private static List<Todo> toggleLast(List<Todo> todos) {
+    var result = new ArrayList<>(todos);
+    var last = result.get(result.size() - 1);
+    result.set(result.size() - 1, new Todo(last.getId(), last.getTitle(), !last.isCompleted()));
+    return result;
+  }
+
+  /** The former implementation of {@link JdbcTodoRepository#store(List)}. */
+  private static void storeAll(DataSource dataSource, List<Todo> todos) throws SQLException {
+    try (var connection = dataSource.getConnection()) {
+      var autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try (var statement = connection.prepareStatement("DELETE FROM todos;")) {
+        statement.executeUpdate();
+      }
+      var createSql = "INSERT INTO todos (id, title, completed) VALUES (?, ?, ?);";
+      try (var statement = connection.prepareStatement(createSql)) {
+        for (var todo : todos) {
+          statement.setString(1, todo.getId());
+          statement.setString(2, todo.getTitle());
+          statement.setBoolean(3, todo.isCompleted());
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      }
+      connection.commit();
+      connection.setAutoCommit(autoCommit);
+    }
+  }
+
+  private static double measure(Action action) throws SQLException {
+    for (var i = 0; i < WARMUP_ITERATIONS; i++) {
+      action.run();
+    }
+    var start = System.nanoTime();
+    for (var i = 0; i < ITERATIONS; i++) {
+      action.run();
+    }
+    return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+  }
+
+  private interface Action {
+    void run() throws SQLException;
+  }
+}
@@ -6,10 +6,19 @@
 package de.muspellheim.todomvc.backend.adapters;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import de.muspellheim.todomvc.backend.DuplicateTodoException;
+import de.muspellheim.todomvc.backend.VersionConflictException;
+import de.muspellheim.todomvc.backend.TodoStats;
+import de.muspellheim.todomvc.backend.TodosChange;
 import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
 import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import javax.sql.DataSource;
 import org.junit.jupiter.api.BeforeEach;
@@ -33,6 +42,43 @@ public class JdbcTodoRepositoryTests {
     assertEquals(createTestData(), todos);
   }
 
+  @Test
+  void loadQuery() throws SQLException {
+    var todos = repository.load(new TodosQuery(TodosQuery.Filter.ALL, 1, 1));
+
+    assertEquals(
+        List.of(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)), todos);
+  }
+
+  @Test
+  void loadQueryKeepsInsertionOrder() throws SQLException {
+    repository.insert(new Todo("00000000-0000-4000-8000-000000000000", "Foobar", false));
+
+    var todos = repository.load(new TodosQuery(TodosQuery.Filter.ACTIVE));
+
+    assertEquals(
+        List.of(
+            new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false),
+            new Todo("00000000-0000-4000-8000-000000000000", "Foobar", false)),
+        todos);
+  }
+
+  @Test
+  void loadStats() throws SQLException {
+    var stats = repository.loadStats();
+
+    assertEquals(new TodoStats(2, 1), stats);
+  }
+
+  @Test
+  void loadCompletedTodos() throws SQLException {
+    var todos = repository.load(new TodosQuery(TodosQuery.Filter.COMPLETED));
+
+    assertEquals(
+        List.of(new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true)),
+        todos);
+  }
+
   @Test
   void store() throws SQLException {
     var todos = createTestData();
@@ -43,6 +89,190 @@ public class JdbcTodoRepositoryTests {
     assertEquals(createTestData(), actualTodos);
   }
 
+  @Test
+  void storeChangedTodos() throws SQLException {
+    var todos =
+        List.of(
+            new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", true),
+            new Todo("c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d", "Foobar", false));
+
+    repository.store(todos);
+
+    var actualTodos = repository.load();
+    assertEquals(todos, actualTodos);
+  }
+
+  @Test
+  void storeReorderedTodos() throws SQLException {
+    var todos =
+        List.of(
+            new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false),
+            new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true));
+
+    repository.store(todos);
+
+    var actualTodos = repository.load();
+    assertEquals(todos, actualTodos);
+  }
+
+  @Test
+  void createSchemaMigratesTableWithoutPrimaryKey() throws SQLException {
+    var dataSource =
+        H2DataSourceFactory.createFile(Paths.get("./build/test-migration"), "sa", "sa");
+    try (var connection = dataSource.getConnection()) {
+      try (var statement = connection.createStatement()) {
+        statement.executeUpdate("DROP TABLE IF EXISTS todos;");
+        statement.executeUpdate(
+            "CREATE TABLE todos ("
+                + "id VARCHAR(255) NOT NULL,"
+                + "title VARCHAR(255) NOT NULL,"
+                + "completed BOOLEAN NOT NULL);");
+      }
+    }
+    insertTestData(dataSource);
+    var repository = new JdbcTodoRepository(dataSource);
+
+    repository.createSchema();
+
+    try (var connection = dataSource.getConnection()) {
+      try (var resultSet = connection.getMetaData().getPrimaryKeys(null, null, "TODOS")) {
+        assertTrue(resultSet.next(), "Primary key created");
+        assertEquals("ID", resultSet.getString("COLUMN_NAME"), "Primary key column");
+      }
+    }
+    assertEquals(createTestData(), repository.load(), "Todos kept");
+  }
+
+  @Test
+  void insert() throws SQLException {
+    repository.insert(new Todo("c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d", "Foobar", false));
+
+    var actualTodos = repository.load();
+    assertEquals(
+        List.of(
+            new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
+            new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false),
+            new Todo("c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d", "Foobar", false)),
+        actualTodos);
+  }
+
+  @Test
+  void insertExistingIdFails() throws SQLException {
+    assertThrows(
+        DuplicateTodoException.class,
+        () -> repository.insert(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Foobar", true)));
+    assertEquals(createTestData(), repository.load(), "Todos kept");
+  }
+
+  @Test
+  void update() throws SQLException {
+    var updated =
+        repository.update(
+            "d2f7760d-8f03-4cb3-9176-06311cb89993",
+            it -> new Todo(it.getId(), "Foobar", it.isCompleted()));
+
+    assertTrue(updated, "Todo updated");
+    assertEquals(
+        List.of(
+            new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
+            new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Foobar", false)),
+        repository.load());
+  }
+
+  @Test
+  void updateUnknownId() throws SQLException {
+    var updated = repository.update("unknown", it -> new Todo(it.getId(), "Foobar", true));
+
+    assertFalse(updated, "Todo not updated");
+    assertEquals(createTestData(), repository.load());
+  }
+
+  @Test
+  void delete() throws SQLException {
+    var deleted = repository.delete("119e6785-8ffc-42e0-8df6-dbc64881f2b7");
+
+    assertTrue(deleted, "Todo deleted");
+    assertEquals(
+        List.of(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)),
+        repository.load());
+  }
+
+  @Test
+  void updateAllCompleted() throws SQLException {
+    var count = repository.updateAllCompleted(true);
+
+    assertEquals(1, count, "Changed todos");
+    assertEquals(
+        List.of(
+            new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
+            new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", true)),
+        repository.load());
+  }
+
+  @Test
+  void deleteCompleted() throws SQLException {
+    var count = repository.deleteCompleted();
+
+    assertEquals(1, count, "Deleted todos");
+    assertEquals(
+        List.of(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)),
+        repository.load());
+  }
+
+  @Test
+  void updateIncrementsTodoVersion() throws SQLException {
+    repository.update(
+        "d2f7760d-8f03-4cb3-9176-06311cb89993",
+        it -> new Todo(it.getId(), it.getTitle(), !it.isCompleted()));
+
+    assertEquals(1, repository.load().get(1).getVersion(), "todo version");
+  }
+
+  @Test
+  void deleteWithStaleVersionConflicts() {
+    assertThrows(
+        VersionConflictException.class,
+        () -> repository.delete("119e6785-8ffc-42e0-8df6-dbc64881f2b7", 1));
+  }
+
+  @Test
+  void versionIncrementsOnChange() throws SQLException {
+    var version = repository.getVersion();
+
+    repository.delete("119e6785-8ffc-42e0-8df6-dbc64881f2b7");
+    repository.delete("119e6785-8ffc-42e0-8df6-dbc64881f2b7");
+
+    assertEquals(version + 1, repository.getVersion(), "version");
+  }
+
+  @Test
+  void writeBatchKeepsTodoInsertedConcurrently() throws Exception {
+    var changes = new ArrayList<TodosChange>();
+    repository.setChangeListener(changes::add);
+    var concurrentTodo = new Todo("c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d", "Foobar", false);
+
+    var written =
+        repository.writeBatch(
+            todos -> {
+              // Another server inserts a todo while the batch is staged
+              repository.insert(concurrentTodo);
+              return todos.update(
+                  "d2f7760d-8f03-4cb3-9176-06311cb89993",
+                  it -> new Todo(it.getId(), it.getTitle(), true));
+            });
+
+    assertTrue(written, "Batch written");
+    var changed = new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", true, 1);
+    assertEquals(
+        List.of(
+            new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
+            changed,
+            concurrentTodo),
+        repository.load(),
+        "Todos");
+    assertEquals(List.of(changed), changes.get(1).getChanged(), "Changes of batch");
+  }
+
   private static void insertTestData(DataSource dataSource) throws SQLException {
     try (var connection = dataSource.getConnection()) {
       try (var statement = connection.createStatement()) {
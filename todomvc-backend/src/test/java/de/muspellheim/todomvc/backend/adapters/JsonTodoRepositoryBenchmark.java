@@ -0,0 +1,94 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the former tree based Gson serialization with the streaming codec when loading and
+ * storing many todos.
+ *
+ * <p>Run with {@code ./gradlew :todomvc-backend:jsonBenchmark}.
+ */
+public class JsonTodoRepositoryBenchmark {
+  private static final Type LIST_TYPE = new TypeToken<List<Todo>>() {}.getType();
+  private static final int SIZE = 100_000;
+  private static final int WARMUP_ITERATIONS = 5;
+  private static final int ITERATIONS = 20;
+
+  public static void main(String[] args) throws IOException {
+    var file = Paths.get("./build/benchmark/todos.json");
+    Files.createDirectories(file.getParent());
+    var repository = new JsonTodoRepository(file);
+    var todos = createTodos(SIZE);
+
+    System.out.printf("%-16s %12s %18s%n", "operation", "time [ms]", "allocated [B/todo]");
+    print("former store", measure(() -> storeFormer(file, todos)));
+    print("former load", measure(() -> loadFormer(file)));
+    print("streaming store", measure(() -> repository.store(todos)));
+    print("streaming load", measure(repository::load));
+  }
+
+  private static List<Todo> createTodos(int size) {
+    var todos = new ArrayList<Todo>(size);
+    for (var i = 0; i < size; i++) {
+      todos.add(new Todo("Todo " + i));
+    }
+    return todos;
+  }
+
+  /** The former implementation of {@link JsonTodoRepository#load()}. */
+  private static List<Todo> loadFormer(Path file) throws IOException {
+    var gson = new Gson();
+    try (var reader = Files.newBufferedReader(file)) {
+      return gson.fromJson(reader, LIST_TYPE);
+    }
+  }
+
+  /** The former implementation of {@link JsonTodoRepository#store(List)}. */
+  private static void storeFormer(Path file, List<Todo> todos) throws IOException {
+    var gson = new GsonBuilder().setPrettyPrinting().create();
+    try (var writer = Files.newBufferedWriter(file)) {
+      gson.toJson(todos, writer);
+    }
+  }
+
+  private static void print(String operation, double[] result) {
+    System.out.printf("%-16s %12.2f %18.0f%n", operation, result[0], result[1]);
+  }
+
+  private static double[] measure(Action action) throws IOException {
+    var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    var threadId = Thread.currentThread().getId();
+    for (var i = 0; i < WARMUP_ITERATIONS; i++) {
+      action.run();
+    }
+    var startBytes = threadBean.getThreadAllocatedBytes(threadId);
+    var start = System.nanoTime();
+    for (var i = 0; i < ITERATIONS; i++) {
+      action.run();
+    }
+    var time = (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    var allocated =
+        (threadBean.getThreadAllocatedBytes(threadId) - startBytes) / (double) ITERATIONS / SIZE;
+    return new double[] {time, allocated};
+  }
+
+  private interface Action {
+    void run() throws IOException;
+  }
+}
@@ -6,18 +6,26 @@
 package de.muspellheim.todomvc.backend.adapters;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import de.muspellheim.todomvc.backend.DuplicateTodoException;
+import de.muspellheim.todomvc.backend.TodoStats;
 import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 
 public class JsonTodoRepositoryTests {
   private static final Path READ_TEST_FILE = Paths.get("src/test/resources/todos.json");
   private static final Path WRITTEN_TEST_FILE = Paths.get("build/test/todos.json");
+  private static final Path UNWRITTEN_TEST_FILE = Paths.get("build/test/unwritten-todos.json");
 
   @Test
   void load() throws IOException {
@@ -28,6 +36,25 @@ public class JsonTodoRepositoryTests {
     assertEquals(createTestData(), todos);
   }
 
+  @Test
+  void loadQuery() throws IOException {
+    var repository = new JsonTodoRepository(READ_TEST_FILE);
+
+    var todos = repository.load(new TodosQuery(TodosQuery.Filter.ACTIVE));
+
+    assertEquals(
+        List.of(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)), todos);
+  }
+
+  @Test
+  void loadStats() throws IOException {
+    var repository = new JsonTodoRepository(READ_TEST_FILE);
+
+    var stats = repository.loadStats();
+
+    assertEquals(new TodoStats(2, 1), stats);
+  }
+
   @Test
   void store() throws IOException {
     Files.createDirectories(WRITTEN_TEST_FILE.getParent());
@@ -40,6 +67,65 @@ public class JsonTodoRepositoryTests {
     assertEquals(createTestData(), actualTodos);
   }
 
+  @Test
+  void forEach() throws IOException {
+    var repository = new JsonTodoRepository(READ_TEST_FILE);
+    var todos = new ArrayList<Todo>();
+
+    repository.forEach(todos::add);
+
+    assertEquals(createTestData(), todos);
+  }
+
+  @Test
+  void storeReplacesFileAtomically() throws IOException {
+    Files.createDirectories(WRITTEN_TEST_FILE.getParent());
+    var repository = new JsonTodoRepository(WRITTEN_TEST_FILE);
+    repository.store(List.of(new Todo("Foobar")));
+
+    repository.store(createTestData());
+
+    assertEquals(createTestData(), repository.load());
+    assertFalse(
+        Files.exists(WRITTEN_TEST_FILE.resolveSibling("todos.json.tmp")), "Temporary file removed");
+  }
+
+  @Test
+  void versionChangesOnStore() throws IOException {
+    Files.createDirectories(WRITTEN_TEST_FILE.getParent());
+    var repository = new JsonTodoRepository(WRITTEN_TEST_FILE);
+    repository.store(List.of());
+    var version = repository.getVersion();
+
+    repository.store(createTestData());
+
+    assertNotEquals(version, repository.getVersion(), "version");
+  }
+
+  @Test
+  void updateUnknownIdDoesNotWrite() throws IOException {
+    Files.createDirectories(UNWRITTEN_TEST_FILE.getParent());
+    Files.deleteIfExists(UNWRITTEN_TEST_FILE);
+    var repository = new JsonTodoRepository(UNWRITTEN_TEST_FILE);
+
+    var updated = repository.update("unknown", it -> new Todo(it.getId(), "Foobar", true));
+
+    assertFalse(updated, "Todo not updated");
+    assertFalse(Files.exists(UNWRITTEN_TEST_FILE), "File not written");
+  }
+
+  @Test
+  void insertExistingIdFails() throws IOException {
+    Files.createDirectories(WRITTEN_TEST_FILE.getParent());
+    var repository = new JsonTodoRepository(WRITTEN_TEST_FILE);
+    repository.store(createTestData());
+
+    assertThrows(
+        DuplicateTodoException.class,
+        () -> repository.insert(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Foobar", true)));
+    assertEquals(createTestData(), repository.load(), "Todos kept");
+  }
+
   private static List<Todo> createTestData() {
     return List.of(
         new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
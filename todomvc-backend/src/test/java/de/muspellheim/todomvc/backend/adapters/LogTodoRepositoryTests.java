@@ -0,0 +1,229 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.muspellheim.todomvc.backend.DuplicateTodoException;
+import de.muspellheim.todomvc.backend.TodoStats;
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LogTodoRepositoryTests {
+  private static final Path DIRECTORY = Paths.get("build/test/log");
+
+  @BeforeEach
+  void setUp() throws IOException {
+    if (Files.exists(DIRECTORY)) {
+      try (var files = Files.walk(DIRECTORY)) {
+        for (var file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+          Files.delete(file);
+        }
+      }
+    }
+  }
+
+  @Test
+  void replayLog() throws IOException {
+    try (var repository = createRepository()) {
+      repository.insert(
+          new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", false));
+      repository.insert(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false));
+      repository.insert(new Todo("c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d", "Foobar", true));
+      repository.update(
+          "119e6785-8ffc-42e0-8df6-dbc64881f2b7",
+          it -> new Todo(it.getId(), it.getTitle(), true));
+      repository.deleteCompleted();
+      repository.update(
+          "d2f7760d-8f03-4cb3-9176-06311cb89993",
+          it -> new Todo(it.getId(), "Buy two unicorns", it.isCompleted()));
+    }
+
+    try (var repository = createRepository()) {
+      assertEquals(
+          List.of(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy two unicorns", false)),
+          repository.load());
+    }
+  }
+
+  @Test
+  void replaySnapshotAndLogTail() throws IOException {
+    try (var repository = createRepository()) {
+      repository.store(createTestData());
+      repository.updateAllCompleted(true);
+      repository.delete("119e6785-8ffc-42e0-8df6-dbc64881f2b7");
+      repository.compact();
+      repository.insert(new Todo("c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d", "Foobar", false));
+    }
+
+    try (var repository = createRepository()) {
+      assertEquals(
+          List.of(
+              new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", true),
+              new Todo("c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d", "Foobar", false)),
+          repository.load());
+    }
+  }
+
+  @Test
+  void ignoreTornRecord() throws IOException {
+    try (var repository = createRepository()) {
+      repository.store(createTestData());
+      repository.insert(new Todo("c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d", "Foobar", false));
+    }
+    try (var files = Files.list(DIRECTORY)) {
+      var segment =
+          files.filter(it -> it.getFileName().toString().startsWith("log-")).findFirst().get();
+      Files.writeString(
+          segment,
+          "{\"seq\":99,\"type\":\"destr",
+          StandardCharsets.UTF_8,
+          StandardOpenOption.APPEND);
+    }
+
+    try (var repository = createRepository()) {
+      assertEquals(3, repository.load().size());
+    }
+  }
+
+  @Test
+  void writeSnapshotWhenRecordsExceedThreshold() throws Exception {
+    var configuration =
+        LogTodoRepositoryConfiguration.builder()
+            .fsyncPolicy(FsyncPolicy.PER_WRITE)
+            .snapshotThreshold(2)
+            .build();
+    try (var repository = new LogTodoRepository(DIRECTORY, configuration)) {
+      repository.insert(
+          new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", false));
+      // Appends two records, so the threshold is skipped
+      repository.writeBatch(
+          todos -> {
+            todos.insert(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false));
+            todos.insert(new Todo("c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d", "Foobar", true));
+            return true;
+          });
+
+      for (var i = 0; i < 500 && findSnapshots().isEmpty(); i++) {
+        Thread.sleep(10);
+      }
+      assertEquals(
+          List.of("snapshot-00000000000000000003.json"), findSnapshots(), "Snapshots");
+    }
+  }
+
+  @Test
+  void updateOfTitleAndCompletionIncrementsVersionOnce() throws IOException {
+    try (var repository = createRepository()) {
+      repository.insert(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false));
+
+      repository.update(
+          "d2f7760d-8f03-4cb3-9176-06311cb89993", it -> new Todo(it.getId(), "Buy milk", true));
+
+      assertEquals(
+          List.of(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy milk", true, 1)),
+          repository.load(),
+          "Todos");
+    }
+
+    try (var repository = createRepository()) {
+      assertEquals(
+          List.of(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy milk", true, 1)),
+          repository.load(),
+          "Replayed todos");
+    }
+  }
+
+  @Test
+  void unchangedTodoIsNotWritten() throws IOException {
+    try (var repository = createRepository()) {
+      repository.store(createTestData());
+
+      var updated =
+          repository.update(
+              "d2f7760d-8f03-4cb3-9176-06311cb89993",
+              it -> new Todo(it.getId(), it.getTitle(), it.isCompleted()));
+
+      assertFalse(updated, "Todo not updated");
+    }
+  }
+
+  @Test
+  void insertExistingIdFails() throws IOException {
+    try (var repository = createRepository()) {
+      repository.store(createTestData());
+
+      assertThrows(
+          DuplicateTodoException.class,
+          () ->
+              repository.insert(
+                  new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Foobar", true)));
+    }
+
+    try (var repository = createRepository()) {
+      assertEquals(createTestData(), repository.load(), "Todos kept");
+    }
+  }
+
+  @Test
+  void loadStatsAfterReplay() throws IOException {
+    try (var repository = createRepository()) {
+      repository.store(createTestData());
+      repository.updateAllCompleted(true);
+    }
+
+    try (var repository = createRepository()) {
+      assertEquals(new TodoStats(2, 2), repository.loadStats());
+    }
+  }
+
+  @Test
+  void loadQuery() throws IOException {
+    try (var repository = createRepository()) {
+      repository.store(createTestData());
+
+      var todos = repository.load(new TodosQuery(TodosQuery.Filter.COMPLETED, 0, 1));
+
+      assertEquals(
+          List.of(new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true)),
+          todos);
+    }
+  }
+
+  private static List<String> findSnapshots() throws IOException {
+    try (var files = Files.list(DIRECTORY)) {
+      return files
+          .map(it -> it.getFileName().toString())
+          .filter(it -> it.startsWith("snapshot-") && it.endsWith(".json"))
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static LogTodoRepository createRepository() throws IOException {
+    return new LogTodoRepository(
+        DIRECTORY,
+        LogTodoRepositoryConfiguration.builder().fsyncPolicy(FsyncPolicy.PER_WRITE).build());
+  }
+
+  private static List<Todo> createTestData() {
+    return List.of(
+        new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
+        new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false));
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compares the former list scan with the hash index of the memory repository when toggling a
+ * random todo.
+ *
+ * <p>Run with {@code ./gradlew :todomvc-backend:memoryBenchmark}.
+ */
+public class MemoryTodoRepositoryBenchmark {
+  private static final int[] SIZES = {10, 1_000, 100_000};
+  private static final int WARMUP_OPERATIONS = 20_000;
+  private static final int OPERATIONS = 100_000;
+
+  public static void main(String[] args) {
+    System.out.printf("%8s %18s %18s%n", "todos", "list scan [ns/op]", "index [ns/op]");
+    for (var size : SIZES) {
+      var todos = createTodos(size);
+      var ids = todos.stream().map(Todo::getId).toArray(String[]::new);
+
+      var list = new ListTodos(todos);
+      var listScan = measure(ids, size, list::update);
+      var repository = new MemoryTodoRepository();
+      repository.store(todos);
+      var index = measure(ids, size, repository::update);
+      System.out.printf("%8d %18.0f %18.0f%n", size, listScan, index);
+    }
+  }
+
+  private static List<Todo> createTodos(int size) {
+    var todos = new ArrayList<Todo>(size);
+    for (var i = 0; i < size; i++) {
+      todos.add(new Todo("Todo " + i));
+    }
+    return todos;
+  }
+
+  private static double measure(String[] ids, int size, Update update) {
+    // Fewer operations for big lists, the list scan would take minutes otherwise.
+    var operations = Math.max(100, OPERATIONS / Math.max(1, size / 100));
+    var warmupOperations = Math.max(100, WARMUP_OPERATIONS / Math.max(1, size / 100));
+    var random = new Random(42);
+    UnaryOperator<Todo> toggle = it -> new Todo(it.getId(), it.getTitle(), !it.isCompleted());
+    for (var i = 0; i < warmupOperations; i++) {
+      update.apply(ids[random.nextInt(size)], toggle);
+    }
+    var start = System.nanoTime();
+    for (var i = 0; i < operations; i++) {
+      update.apply(ids[random.nextInt(size)], toggle);
+    }
+    return (System.nanoTime() - start) / (double) operations;
+  }
+
+  private interface Update {
+    boolean apply(String id, UnaryOperator<Todo> update);
+  }
+
+  /** The former copy on write list of {@link MemoryTodoRepository}. */
+  private static class ListTodos {
+    private final AtomicReference<List<Todo>> todos;
+
+    ListTodos(List<Todo> todos) {
+      this.todos = new AtomicReference<>(List.copyOf(todos));
+    }
+
+    boolean update(String id, UnaryOperator<Todo> update) {
+      while (true) {
+        var current = todos.get();
+        var index = -1;
+        for (var i = 0; i < current.size(); i++) {
+          if (current.get(i).getId().equals(id)) {
+            index = i;
+            break;
+          }
+        }
+        if (index == -1) {
+          return false;
+        }
+
+        var todo = current.get(index);
+        var updated = update.apply(todo);
+        var result = new ArrayList<>(current);
+        result.set(index, updated);
+        if (todos.compareAndSet(current, Collections.unmodifiableList(result))) {
+          return true;
+        }
+      }
+    }
+  }
+}
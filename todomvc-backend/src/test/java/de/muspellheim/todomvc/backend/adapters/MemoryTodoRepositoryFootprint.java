@@ -0,0 +1,56 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Reports the retained bytes per todo of the former map of todos and the compact table of the
+ * memory repository. Titles are shared by both and reported separately.
+ *
+ * <p>Run with {@code ./gradlew :todomvc-backend:memoryFootprint}.
+ */
+public class MemoryTodoRepositoryFootprint {
+  private static final int[] SIZES = {1_000, 100_000};
+
+  public static void main(String[] args) {
+    System.out.printf(
+        "%8s %16s %16s %16s%n", "todos", "map [B/todo]", "table [B/todo]", "titles [B/todo]");
+    for (var size : SIZES) {
+      var todos = createTodos(size);
+      var titles = todos.stream().map(Todo::getTitle).toArray();
+
+      var map = new LinkedHashMap<String, Todo>();
+      todos.forEach(it -> map.put(it.getId(), it));
+      var table = new TodoTable();
+      todos.forEach(table::put);
+
+      // Every title is a root of the layout, the array itself is not part of it
+      var titleLayout = GraphLayout.parseInstance(titles);
+      var titleBytes = titleLayout.totalSize();
+      var mapBytes = GraphLayout.parseInstance(map).subtract(titleLayout).totalSize();
+      var tableBytes = GraphLayout.parseInstance(table).subtract(titleLayout).totalSize();
+      System.out.printf(
+          "%8d %16.1f %16.1f %16.1f%n",
+          size,
+          mapBytes / (double) size,
+          tableBytes / (double) size,
+          titleBytes / (double) size);
+    }
+  }
+
+  private static List<Todo> createTodos(int size) {
+    var todos = new ArrayList<Todo>(size);
+    for (var i = 0; i < size; i++) {
+      todos.add(new Todo("Todo " + i));
+    }
+    return todos;
+  }
+}
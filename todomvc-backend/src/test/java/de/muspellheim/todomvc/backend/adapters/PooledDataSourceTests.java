@@ -0,0 +1,38 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class PooledDataSourceTests {
+  @Test
+  void reusesConnections() throws SQLException {
+    var pool = ConnectionPoolConfiguration.builder().maxSize(2).build();
+    try (var dataSource =
+        H2DataSourceFactory.createPooledFile(Paths.get("./build/test-pool"), "sa", "sa", pool)) {
+      var repository = new JdbcTodoRepository(dataSource);
+      repository.createSchema();
+      var todos =
+          List.of(new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true));
+
+      repository.store(todos);
+      var actualTodos = repository.load();
+
+      var metrics = dataSource.getMetrics();
+      assertAll(
+          () -> assertEquals(todos, actualTodos, "todos"),
+          () -> assertEquals(0, metrics.getActiveCount(), "active connections"),
+          () -> assertEquals(1, metrics.getIdleCount(), "idle connections"));
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+public class TodoTableTests {
+  @Test
+  void restoresUuidAndOtherIds() {
+    var table = new TodoTable();
+
+    table.put(new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true, 2));
+    table.put(new Todo("D2F7760D-8F03-4CB3-9176-06311CB89993", "Buy a unicorn", false));
+    table.put(new Todo("1", "Buy milk", false));
+
+    assertEquals(
+        List.of(
+            new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
+            new Todo("D2F7760D-8F03-4CB3-9176-06311CB89993", "Buy a unicorn", false),
+            new Todo("1", "Buy milk", false)),
+        table.toList());
+    assertEquals(2, table.get("119e6785-8ffc-42e0-8df6-dbc64881f2b7").getVersion(), "version");
+    assertNull(table.get("119e6785-8ffc-42e0-8df6-dbc64881f2b8"), "unknown id");
+  }
+
+  @Test
+  void replacesTodoInPlace() {
+    var table = new TodoTable();
+    table.put(new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true));
+    table.put(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false));
+
+    table.put(new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste TypeScript", false));
+
+    assertEquals(
+        List.of(
+            new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste TypeScript", false),
+            new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)),
+        table.toList());
+  }
+
+  @Test
+  void keepsInsertionOrderAndIndexWhileGrowingAndRemoving() {
+    var table = new TodoTable(4);
+    var todos = new ArrayList<Todo>();
+    for (var i = 0; i < 1_000; i++) {
+      var id = i % 3 == 0 ? "Todo " + i : UUID.randomUUID().toString();
+      var todo = new Todo(id, "Todo " + i, i % 2 == 0);
+      table.put(todo);
+      if (i % 5 == 0) {
+        assertTrue(table.remove(id), "removed");
+        assertFalse(table.remove(id), "already removed");
+      } else {
+        todos.add(todo);
+      }
+    }
+
+    assertEquals(todos, table.toList());
+    assertEquals(800, table.size(), "size");
+    todos.forEach(it -> assertEquals(it, table.get(it.getId()), it.getId()));
+  }
+
+  @Test
+  void reusesSlotsOfRemovedTodosAtTheEnd() {
+    var table = new TodoTable();
+    table.put(new Todo("1", "Taste JavaScript", true));
+    table.put(new Todo("2", "Buy a unicorn", false));
+
+    table.remove("1");
+    table.put(new Todo("3", "Buy milk", false));
+
+    assertEquals(
+        List.of(new Todo("2", "Buy a unicorn", false), new Todo("3", "Buy milk", false)),
+        table.toList());
+  }
+
+  @Test
+  void updatesAllCompletedAndRemovesCompleted() {
+    var table = new TodoTable();
+    table.put(new Todo("1", "Taste JavaScript", true));
+    table.put(new Todo("2", "Buy a unicorn", false));
+    table.put(new Todo("3", "Buy milk", false));
+
+    assertEquals(2, table.updateAllCompleted(true), "updated");
+    assertEquals(1, table.get("2").getVersion(), "version");
+    assertEquals(3, table.completedCount(), "completed count");
+    table.put(new Todo("2", "Buy a unicorn", false, 1));
+    assertEquals(2, table.completedCount(), "completed count");
+    assertEquals(2, table.removeCompleted(), "removed");
+    assertEquals(0, table.completedCount(), "completed count");
+
+    assertEquals(List.of(new Todo("2", "Buy a unicorn", false)), table.toList());
+  }
+}
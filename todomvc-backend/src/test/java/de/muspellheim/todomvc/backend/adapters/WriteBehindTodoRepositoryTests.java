@@ -0,0 +1,156 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.adapters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class WriteBehindTodoRepositoryTests {
+  @Test
+  void acknowledgesChangesBeforeFlush() throws Exception {
+    var store = new CountingTodoRepository();
+    var repository = new WriteBehindTodoRepository(store, createConfiguration(Duration.ofHours(1)));
+
+    repository.insert(new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true));
+
+    assertEquals(
+        List.of(new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true)),
+        repository.load());
+    assertEquals(0, store.storeCount, "store count");
+    assertEquals(1, repository.getMetrics().getPendingChanges(), "pending changes");
+  }
+
+  @Test
+  void coalescesChangesIntoOneFlushOnClose() throws Exception {
+    var store = new CountingTodoRepository();
+    var repository = new WriteBehindTodoRepository(store, createConfiguration(Duration.ofHours(1)));
+
+    repository.insert(new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", false));
+    repository.insert(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false));
+    repository.update(
+        "119e6785-8ffc-42e0-8df6-dbc64881f2b7",
+        it -> new Todo(it.getId(), it.getTitle(), !it.isCompleted()));
+    repository.close();
+
+    assertEquals(createTestData(), store.load());
+    assertEquals(1, store.storeCount, "store count");
+    assertEquals(0, repository.getMetrics().getPendingChanges(), "pending changes");
+  }
+
+  @Test
+  void flushesAfterDelay() throws Exception {
+    var store = new CountingTodoRepository();
+    var repository =
+        new WriteBehindTodoRepository(store, createConfiguration(Duration.ofMillis(10)));
+
+    repository.store(createTestData());
+
+    awaitStoreCount(store, 1);
+    assertEquals(createTestData(), store.load());
+  }
+
+  @Test
+  void flushesWhenMaxPendingChangesReached() throws Exception {
+    var store = new CountingTodoRepository();
+    var configuration =
+        WriteBehindConfiguration.builder()
+            .flushDelay(Duration.ofHours(1))
+            .maxPendingChanges(2)
+            .build();
+    var repository = new WriteBehindTodoRepository(store, configuration);
+
+    repository.insert(new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true));
+    repository.insert(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false));
+
+    awaitStoreCount(store, 1);
+    assertEquals(createTestData(), store.load());
+  }
+
+  @Test
+  void reloadsChangesOfAnotherProcess() throws Exception {
+    var store = new CountingTodoRepository();
+    var repository = new WriteBehindTodoRepository(store, createConfiguration(Duration.ofHours(1)));
+    var changeDetector = repository.detectChanges(store::load);
+    var version = changeDetector.getVersion();
+
+    store.store(createTestData());
+
+    assertNotEquals(version, changeDetector.getVersion(), "version");
+    assertEquals(createTestData(), repository.load());
+  }
+
+  @Test
+  void flushIsNoChangeOfAnotherProcess() throws Exception {
+    var store = new CountingTodoRepository();
+    var repository = new WriteBehindTodoRepository(store, createConfiguration(Duration.ofHours(1)));
+    var changeDetector = repository.detectChanges(store::load);
+    var version = changeDetector.getVersion();
+
+    repository.store(createTestData());
+    repository.flush();
+
+    assertEquals(version, changeDetector.getVersion(), "version");
+    assertEquals(1, store.storeCount, "store count");
+  }
+
+  @Test
+  void keepsChangesPendingWhenFlushFails() throws Exception {
+    var store = new CountingTodoRepository();
+    var repository = new WriteBehindTodoRepository(store, createConfiguration(Duration.ofHours(1)));
+    repository.store(createTestData());
+    store.failing = true;
+
+    assertThrows(IllegalStateException.class, repository::flush);
+
+    var metrics = repository.getMetrics();
+    assertEquals(1, metrics.getPendingChanges(), "pending changes");
+    assertEquals(1, metrics.getFailedFlushCount(), "failed flush count");
+  }
+
+  private static WriteBehindConfiguration createConfiguration(Duration flushDelay) {
+    return WriteBehindConfiguration.builder().flushDelay(flushDelay).build();
+  }
+
+  private static void awaitStoreCount(CountingTodoRepository store, int count)
+      throws InterruptedException {
+    for (var i = 0; i < 500 && store.storeCount < count; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(count, store.storeCount, "store count");
+  }
+
+  private static List<Todo> createTestData() {
+    return List.of(
+        new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
+        new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false));
+  }
+
+  private static class CountingTodoRepository extends MemoryTodoRepository {
+    volatile int storeCount;
+    volatile boolean failing;
+
+    @Override
+    public synchronized List<Todo> load() {
+      return super.load();
+    }
+
+    @Override
+    public synchronized void store(List<Todo> todos) {
+      if (failing) {
+        throw new IllegalStateException("Store failed");
+      }
+
+      super.store(todos);
+      storeCount++;
+    }
+  }
+}
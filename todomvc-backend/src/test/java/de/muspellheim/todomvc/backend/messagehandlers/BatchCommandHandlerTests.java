@@ -0,0 +1,81 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.messagehandlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommand;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.Conflict;
+import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
+import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
+import de.muspellheim.todomvc.contract.messages.commands.Failure;
+import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.commands.Success;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class BatchCommandHandlerTests {
+  @Test
+  void batch() {
+    var repository = new MemoryTodoRepository();
+    repository.store(
+        List.of(
+            new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
+            new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)));
+    var messageHandler = new BatchCommandHandler(repository);
+
+    var command =
+        new BatchCommand(
+            List.of(
+                BatchCommand.Item.of(new NewTodoCommand("Foobar")),
+                BatchCommand.Item.of(new ToggleCommand("d2f7760d-8f03-4cb3-9176-06311cb89993")),
+                BatchCommand.Item.of(new DestroyCommand("119e6785-8ffc-42e0-8df6-dbc64881f2b7"))));
+    var result = messageHandler.handle(command);
+
+    assertEquals(
+        new BatchCommandStatus(List.of(new Success(), new Success(), new Success())),
+        result,
+        "Command handled successfully");
+    var todos = repository.load();
+    assertEquals(2, todos.size(), "Number of todos");
+    assertEquals(
+        new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", true),
+        todos.get(0),
+        "Toggled todo");
+    assertEquals("Foobar", todos.get(1).getTitle(), "New todo");
+  }
+
+  @Test
+  void failedCommandAbortsBatch() {
+    var repository = new MemoryTodoRepository();
+    repository.store(
+        List.of(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false, 2)));
+    var messageHandler = new BatchCommandHandler(repository);
+
+    var command =
+        new BatchCommand(
+            List.of(
+                BatchCommand.Item.of(new NewTodoCommand("Foobar")),
+                BatchCommand.Item.of(
+                    new EditCommand("d2f7760d-8f03-4cb3-9176-06311cb89993", "Foobar", 1L)),
+                BatchCommand.Item.of(new NewTodoCommand("Barfoo"))));
+    var result = messageHandler.handle(command);
+
+    var aborted = new Failure("Batch aborted, because command 2 failed.");
+    assertEquals(aborted, result.getStatuses().get(0), "First status");
+    assertTrue(result.getStatuses().get(1) instanceof Conflict, "Second status");
+    assertEquals(aborted, result.getStatuses().get(2), "Third status");
+    assertEquals(
+        List.of(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false, 2)),
+        repository.load(),
+        "Todos unchanged");
+  }
+}
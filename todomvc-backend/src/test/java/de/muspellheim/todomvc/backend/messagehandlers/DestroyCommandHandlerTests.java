@@ -6,9 +6,11 @@
 package de.muspellheim.todomvc.backend.messagehandlers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
 import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.Conflict;
 import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
 import de.muspellheim.todomvc.contract.messages.commands.Success;
 import java.util.List;
@@ -33,4 +35,29 @@ public class DestroyCommandHandlerTests {
         repository.load(),
         "Todos updated");
   }
+
+  @Test
+  void destroyWithStaleVersionConflicts() {
+    var repository = new MemoryTodoRepository();
+    repository.store(
+        List.of(new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true, 2)));
+    var messageHandler = new DestroyCommandHandler(repository);
+
+    var command = new DestroyCommand("119e6785-8ffc-42e0-8df6-dbc64881f2b7", 1L);
+    var result = messageHandler.handle(command);
+
+    assertTrue(result instanceof Conflict, "Command conflicts");
+    assertEquals(1, repository.load().size(), "Todo not destroyed");
+  }
+
+  @Test
+  void destroyUnknownIdConflicts() {
+    var repository = new MemoryTodoRepository();
+    var messageHandler = new DestroyCommandHandler(repository);
+
+    var command = new DestroyCommand("119e6785-8ffc-42e0-8df6-dbc64881f2b7");
+    var result = messageHandler.handle(command);
+
+    assertTrue(result instanceof Conflict, "Command conflicts");
+  }
 }
@@ -6,9 +6,11 @@
 package de.muspellheim.todomvc.backend.messagehandlers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
 import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.Conflict;
 import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
 import de.muspellheim.todomvc.contract.messages.commands.Success;
 import java.util.List;
@@ -35,4 +37,28 @@ public class EditCommandHandlerTests {
         repository.load(),
         "Todos updated");
   }
+
+  @Test
+  void editWithUnchangedTitle() {
+    var repository = new MemoryTodoRepository();
+    repository.store(
+        List.of(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)));
+    var messageHandler = new EditCommandHandler(repository);
+
+    var command = new EditCommand("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn");
+    var result = messageHandler.handle(command);
+
+    assertEquals(new Success(), result, "Command handled successfully");
+  }
+
+  @Test
+  void editUnknownIdConflicts() {
+    var repository = new MemoryTodoRepository();
+    var messageHandler = new EditCommandHandler(repository);
+
+    var command = new EditCommand("d2f7760d-8f03-4cb3-9176-06311cb89993", "Foobar");
+    var result = messageHandler.handle(command);
+
+    assertTrue(result instanceof Conflict, "Command conflicts");
+  }
 }
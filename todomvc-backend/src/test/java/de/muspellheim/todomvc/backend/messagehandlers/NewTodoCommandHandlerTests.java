@@ -11,6 +11,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
 import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.Conflict;
 import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
 import de.muspellheim.todomvc.contract.messages.commands.Success;
 import java.util.List;
@@ -35,4 +36,39 @@ public class NewTodoCommandHandlerTests {
     assertEquals("Foobar", repository.load().get(2).getTitle(), "Todo title is set");
     assertFalse(repository.load().get(2).isCompleted(), "Todo is not completed");
   }
+
+  @Test
+  void newTodoWithId() {
+    var repository = new MemoryTodoRepository();
+    var messageHandler = new NewTodoCommandHandler(repository);
+
+    var command = new NewTodoCommand("Foobar", "c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d");
+    var result = messageHandler.handle(command);
+
+    assertEquals(new Success(), result, "Command handled successfully");
+    assertEquals(
+        List.of(new Todo("c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d", "Foobar", false)),
+        repository.load(),
+        "Todo added with id");
+  }
+
+  @Test
+  void newTodoWithExistingIdIsConflict() {
+    var repository = new MemoryTodoRepository();
+    repository.store(
+        List.of(new Todo("c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d", "Taste JavaScript", true)));
+    var messageHandler = new NewTodoCommandHandler(repository);
+
+    var command = new NewTodoCommand("Foobar", "c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d");
+    var result = messageHandler.handle(command);
+
+    assertEquals(
+        new Conflict("Todo c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d already exists."),
+        result,
+        "Command rejected");
+    assertEquals(
+        List.of(new Todo("c3a5b4d2-0a3f-4b4e-9d7e-5f0b8e1a2c3d", "Taste JavaScript", true)),
+        repository.load(),
+        "Todo kept");
+  }
 }
@@ -0,0 +1,51 @@
+/*
+ * TodoMVC - Backend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.backend.messagehandlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQueryResult;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TodoStatsQueryHandlerTests {
+  @Test
+  void queryTodoStats() {
+    var repository = new MemoryTodoRepository();
+    repository.store(
+        List.of(
+            new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
+            new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)));
+    var messageHandler = new TodoStatsQueryHandler(repository);
+
+    var query = new TodoStatsQuery();
+    var result = messageHandler.handle(query);
+
+    assertEquals(new TodoStatsQueryResult(2, 1, 1), result);
+  }
+
+  @Test
+  void countsAreMaintainedOnWrite() {
+    var repository = new MemoryTodoRepository();
+    repository.store(
+        List.of(
+            new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
+            new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)));
+    var messageHandler = new TodoStatsQueryHandler(repository);
+
+    repository.insert(new Todo("Buy milk"));
+    repository.update(
+        "d2f7760d-8f03-4cb3-9176-06311cb89993",
+        it -> new Todo(it.getId(), it.getTitle(), true));
+    repository.delete("119e6785-8ffc-42e0-8df6-dbc64881f2b7");
+    var result = messageHandler.handle(new TodoStatsQuery());
+
+    assertEquals(new TodoStatsQueryResult(2, 1, 1), result);
+  }
+}
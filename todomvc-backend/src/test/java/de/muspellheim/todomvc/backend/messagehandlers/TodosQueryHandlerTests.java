@@ -6,9 +6,16 @@
 package de.muspellheim.todomvc.backend.messagehandlers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import de.muspellheim.todomvc.backend.MessageHandler;
+import de.muspellheim.todomvc.backend.TodosChangeJournal;
+import de.muspellheim.todomvc.backend.TodosSnapshotCache;
 import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
 import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
 import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
 import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
 import java.util.List;
@@ -16,13 +23,14 @@ import org.junit.jupiter.api.Test;
 
 public class TodosQueryHandlerTests {
   @Test
-  void queryTodoList() {
+  void queryTodoList() throws Exception {
     var repository = new MemoryTodoRepository();
     repository.store(
         List.of(
             new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
             new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)));
-    var messageHandler = new TodosQueryHandler(repository);
+    var journal = new TodosChangeJournal();
+    var messageHandler = new TodosQueryHandler(new TodosSnapshotCache(repository), journal);
 
     var query = new TodosQuery();
     var result = messageHandler.handle(query);
@@ -31,7 +39,71 @@ public class TodosQueryHandlerTests {
         new TodosQueryResult(
             List.of(
                 new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
-                new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false))),
+                new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)),
+            journal.getVersion(),
+            List.of(),
+            false),
         result);
   }
+
+  @Test
+  void queryActiveTodosPage() throws Exception {
+    var repository = new MemoryTodoRepository();
+    repository.store(
+        List.of(
+            new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
+            new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false),
+            new Todo("a0b4a2c5-7a0e-4a3b-9d77-3a5a0c2e1f10", "Buy milk", false),
+            new Todo("5d3f9a1e-2b6c-4e8d-8f0a-1c2b3d4e5f60", "Walk the dog", false)));
+    var journal = new TodosChangeJournal();
+    var messageHandler = new TodosQueryHandler(new TodosSnapshotCache(repository), journal);
+
+    var query = new TodosQuery(TodosQuery.Filter.ACTIVE, 1, 1);
+    var result = messageHandler.handle(query);
+
+    assertEquals(
+        new TodosQueryResult(
+            List.of(new Todo("a0b4a2c5-7a0e-4a3b-9d77-3a5a0c2e1f10", "Buy milk", false)),
+            journal.getVersion(),
+            List.of(),
+            false),
+        result);
+  }
+
+  @Test
+  void queryChangesSinceVersion() {
+    var repository = new MemoryTodoRepository();
+    repository.store(
+        List.of(
+            new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
+            new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)));
+    var messageHandler = new MessageHandler(repository);
+    var fullResult = messageHandler.handle(new TodosQuery(TodosQuery.Filter.ACTIVE));
+
+    messageHandler.handle(new ToggleCommand("d2f7760d-8f03-4cb3-9176-06311cb89993"));
+    messageHandler.handle(new NewTodoCommand("Buy milk"));
+    var query = new TodosQuery(TodosQuery.Filter.ACTIVE, fullResult.getVersion());
+    var result = messageHandler.handle(query);
+
+    assertFalse(fullResult.isDelta(), "full result");
+    assertTrue(result.isDelta(), "delta");
+    assertEquals(List.of("d2f7760d-8f03-4cb3-9176-06311cb89993"), result.getRemovedIds());
+    assertEquals(1, result.getTodos().size(), "changed todos");
+    assertEquals("Buy milk", result.getTodos().get(0).getTitle(), "title");
+  }
+
+  @Test
+  void queryUnknownVersionReturnsAllTodos() {
+    var repository = new MemoryTodoRepository();
+    repository.store(
+        List.of(
+            new Todo("119e6785-8ffc-42e0-8df6-dbc64881f2b7", "Taste JavaScript", true),
+            new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)));
+    var messageHandler = new MessageHandler(repository);
+
+    var result = messageHandler.handle(new TodosQuery(TodosQuery.Filter.ALL, 42));
+
+    assertFalse(result.isDelta(), "full result");
+    assertEquals(2, result.getTodos().size(), "todos");
+  }
 }
@@ -6,9 +6,11 @@
 package de.muspellheim.todomvc.backend.messagehandlers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
 import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.Conflict;
 import de.muspellheim.todomvc.contract.messages.commands.Success;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
 import java.util.List;
@@ -35,4 +37,46 @@ public class ToggleCommandHandlerTests {
         repository.load(),
         "Todos updated");
   }
+
+  @Test
+  void toggleWithExpectedVersion() {
+    var repository = new MemoryTodoRepository();
+    repository.store(
+        List.of(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false, 1)));
+    var messageHandler = new ToggleCommandHandler(repository);
+
+    var command = new ToggleCommand("d2f7760d-8f03-4cb3-9176-06311cb89993", 1L);
+    var result = messageHandler.handle(command);
+
+    assertEquals(new Success(), result, "Command handled successfully");
+    assertEquals(2, repository.load().get(0).getVersion(), "Version incremented");
+  }
+
+  @Test
+  void toggleWithStaleVersionConflicts() {
+    var repository = new MemoryTodoRepository();
+    repository.store(
+        List.of(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false, 2)));
+    var messageHandler = new ToggleCommandHandler(repository);
+
+    var command = new ToggleCommand("d2f7760d-8f03-4cb3-9176-06311cb89993", 1L);
+    var result = messageHandler.handle(command);
+
+    assertTrue(result instanceof Conflict, "Command conflicts");
+    assertEquals(
+        List.of(new Todo("d2f7760d-8f03-4cb3-9176-06311cb89993", "Buy a unicorn", false)),
+        repository.load(),
+        "Todos unchanged");
+  }
+
+  @Test
+  void toggleUnknownIdConflicts() {
+    var repository = new MemoryTodoRepository();
+    var messageHandler = new ToggleCommandHandler(repository);
+
+    var command = new ToggleCommand("d2f7760d-8f03-4cb3-9176-06311cb89993");
+    var result = messageHandler.handle(command);
+
+    assertTrue(result instanceof Conflict, "Command conflicts");
+  }
 }
@@ -0,0 +1,175 @@
+/*
+ * TodoMVC - Benchmarks
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.benchmarks;
+
+import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.backend.messagehandlers.BatchCommandHandler;
+import de.muspellheim.todomvc.backend.messagehandlers.ClearCompletedCommandHandler;
+import de.muspellheim.todomvc.backend.messagehandlers.DestroyCommandHandler;
+import de.muspellheim.todomvc.backend.messagehandlers.EditCommandHandler;
+import de.muspellheim.todomvc.backend.messagehandlers.NewTodoCommandHandler;
+import de.muspellheim.todomvc.backend.messagehandlers.ToggleAllCommandHandler;
+import de.muspellheim.todomvc.backend.messagehandlers.ToggleCommandHandler;
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommand;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.ClearCompletedCommand;
+import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
+import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
+import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleAllCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures every command handler against every repository and list size. The handlers write to
+ * the bare repository, see {@link MessageHandlerBenchmark} for the commands with the change journal
+ * and the snapshot cache.
+ *
+ * <p>The todos are stored again before every iteration. Commands which empty or complete the list
+ * with the first invocation store the todos before every invocation, outside the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CommandHandlerBenchmark {
+  private static final int BATCH_SIZE = 10;
+
+  @Param({Repositories.MEMORY, Repositories.JSON, Repositories.JDBC})
+  public String repositoryType;
+
+  @Param({"10", "1000", "10000"})
+  public int size;
+
+  private Path directory;
+  private TodoRepository repository;
+  private List<Todo> todos;
+  private Random random;
+
+  private ClearCompletedCommandHandler clearCompletedCommandHandler;
+  private DestroyCommandHandler destroyCommandHandler;
+  private EditCommandHandler editCommandHandler;
+  private NewTodoCommandHandler newTodoCommandHandler;
+  private ToggleAllCommandHandler toggleAllCommandHandler;
+  private ToggleCommandHandler toggleCommandHandler;
+  private BatchCommandHandler batchCommandHandler;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() throws Exception {
+    directory = Files.createTempDirectory("todomvc-benchmarks");
+    repository = Repositories.create(repositoryType, directory);
+    todos = Repositories.createTodos(size);
+
+    clearCompletedCommandHandler = new ClearCompletedCommandHandler(repository);
+    destroyCommandHandler = new DestroyCommandHandler(repository);
+    editCommandHandler = new EditCommandHandler(repository);
+    newTodoCommandHandler = new NewTodoCommandHandler(repository);
+    toggleAllCommandHandler = new ToggleAllCommandHandler(repository);
+    toggleCommandHandler = new ToggleCommandHandler(repository);
+    batchCommandHandler = new BatchCommandHandler(repository);
+  }
+
+  @Setup(Level.Iteration)
+  public void setUpIteration() throws Exception {
+    repository.store(todos);
+    random = new Random(42);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownTrial() throws Exception {
+    if (repository instanceof AutoCloseable) {
+      ((AutoCloseable) repository).close();
+    }
+    Repositories.delete(directory);
+  }
+
+  @Benchmark
+  public CommandStatus clearCompleted(StoredTodos storedTodos) {
+    return clearCompletedCommandHandler.handle(new ClearCompletedCommand());
+  }
+
+  @Benchmark
+  public CommandStatus destroy(DestroyedTodo destroyedTodo) {
+    return destroyCommandHandler.handle(new DestroyCommand(destroyedTodo.todo.getId()));
+  }
+
+  @Benchmark
+  public CommandStatus edit() {
+    return editCommandHandler.handle(new EditCommand(randomTodo().getId(), "Edited todo"));
+  }
+
+  /** The list grows by every invocation until the next iteration. */
+  @Benchmark
+  public CommandStatus newTodo() {
+    return newTodoCommandHandler.handle(new NewTodoCommand("New todo"));
+  }
+
+  @Benchmark
+  public CommandStatus toggleAll(StoredTodos storedTodos) {
+    return toggleAllCommandHandler.handle(new ToggleAllCommand(true));
+  }
+
+  @Benchmark
+  public CommandStatus toggle() {
+    return toggleCommandHandler.handle(new ToggleCommand(randomTodo().getId()));
+  }
+
+  @Benchmark
+  public BatchCommandStatus batch() {
+    var commands = new ArrayList<BatchCommand.Item>(BATCH_SIZE);
+    for (var i = 0; i < BATCH_SIZE; i++) {
+      commands.add(BatchCommand.Item.of(new ToggleCommand(randomTodo().getId())));
+    }
+    return batchCommandHandler.handle(new BatchCommand(commands));
+  }
+
+  private Todo randomTodo() {
+    return todos.get(random.nextInt(todos.size()));
+  }
+
+  @State(Scope.Thread)
+  public static class StoredTodos {
+    @Setup(Level.Invocation)
+    public void store(CommandHandlerBenchmark benchmark) throws Exception {
+      benchmark.repository.store(benchmark.todos);
+    }
+  }
+
+  /** Inserts the todo destroyed by the previous invocation again. */
+  @State(Scope.Thread)
+  public static class DestroyedTodo {
+    Todo todo;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      todo = null;
+    }
+
+    @Setup(Level.Invocation)
+    public void insert(CommandHandlerBenchmark benchmark) throws Exception {
+      if (todo != null) {
+        benchmark.repository.insert(todo);
+      }
+      todo = benchmark.randomTodo();
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * TodoMVC - Benchmarks
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.benchmarks;
+
+import de.muspellheim.todomvc.backend.MessageHandler;
+import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
+import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQueryResult;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures commands and queries through the message handler against every repository and list
+ * size. Unlike the benchmarks of the single handlers, this includes the change journal and the
+ * snapshot cache, which every write invalidates.
+ *
+ * <p>The todos are stored again before every iteration. Run with {@code -PjmhThreads=8} to measure
+ * concurrent requests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MessageHandlerBenchmark {
+  @Param({Repositories.MEMORY, Repositories.JSON, Repositories.JDBC})
+  public String repositoryType;
+
+  @Param({"10", "1000", "10000"})
+  public int size;
+
+  private Path directory;
+  private TodoRepository repository;
+  private List<Todo> todos;
+  private MessageHandler messageHandler;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() throws Exception {
+    directory = Files.createTempDirectory("todomvc-benchmarks");
+    repository = Repositories.create(repositoryType, directory);
+    todos = Repositories.createTodos(size);
+    messageHandler = new MessageHandler(repository);
+  }
+
+  @Setup(Level.Iteration)
+  public void setUpIteration() throws Exception {
+    repository.store(todos);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownTrial() throws Exception {
+    if (repository instanceof AutoCloseable) {
+      ((AutoCloseable) repository).close();
+    }
+    Repositories.delete(directory);
+  }
+
+  @Benchmark
+  public CommandStatus edit(RandomTodo randomTodo) {
+    return messageHandler.handle(new EditCommand(randomTodo.next(todos).getId(), "Edited todo"));
+  }
+
+  /** The list grows by every invocation until the next iteration. */
+  @Benchmark
+  public CommandStatus newTodo() {
+    return messageHandler.handle(new NewTodoCommand("New todo"));
+  }
+
+  @Benchmark
+  public CommandStatus toggle(RandomTodo randomTodo) {
+    return messageHandler.handle(new ToggleCommand(randomTodo.next(todos).getId()));
+  }
+
+  /** Answered from the snapshot cache after the first invocation. */
+  @Benchmark
+  public TodosQueryResult todosQuery() {
+    return messageHandler.handle(new TodosQuery(TodosQuery.Filter.ALL));
+  }
+
+  @Benchmark
+  public TodoStatsQueryResult todoStatsQuery() {
+    return messageHandler.handle(new TodoStatsQuery());
+  }
+
+  /** A client querying the list after every change, so the snapshot cache is always stale. */
+  @Benchmark
+  public TodosQueryResult toggleThenQuery(RandomTodo randomTodo) {
+    messageHandler.handle(new ToggleCommand(randomTodo.next(todos).getId()));
+    return messageHandler.handle(new TodosQuery(TodosQuery.Filter.ALL));
+  }
+
+  @State(Scope.Thread)
+  public static class RandomTodo {
+    private Random random;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      random = new Random(42);
+    }
+
+    Todo next(List<Todo> todos) {
+      return todos.get(random.nextInt(todos.size()));
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * TodoMVC - Benchmarks
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.benchmarks;
+
+import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.backend.adapters.H2DataSourceFactory;
+import de.muspellheim.todomvc.backend.adapters.JdbcTodoRepository;
+import de.muspellheim.todomvc.backend.adapters.JsonTodoRepository;
+import de.muspellheim.todomvc.backend.adapters.MemoryTodoRepository;
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/** Creates the repositories and test data shared by the benchmarks. */
+class Repositories {
+  static final String MEMORY = "memory";
+  static final String JSON = "json";
+  static final String JDBC = "jdbc";
+
+  private Repositories() {}
+
+  static TodoRepository create(String type, Path directory) throws Exception {
+    switch (type) {
+      case MEMORY:
+        return new MemoryTodoRepository();
+      case JSON:
+        return new JsonTodoRepository(directory.resolve("todos.json"));
+      case JDBC:
+        var dataSource = H2DataSourceFactory.createFile(directory.resolve("todos"), "sa", "sa");
+        var repository = new JdbcTodoRepository(dataSource);
+        repository.createSchema();
+        return repository;
+      default:
+        throw new IllegalArgumentException("Unknown repository: " + type);
+    }
+  }
+
+  /** Every third todo is completed. */
+  static List<Todo> createTodos(int size) {
+    var todos = new ArrayList<Todo>(size);
+    for (var i = 0; i < size; i++) {
+      todos.add(new Todo(String.valueOf(i), "Todo " + i, i % 3 == 0));
+    }
+    return todos;
+  }
+
+  static void delete(Path directory) throws IOException {
+    try (var files = Files.walk(directory)) {
+      for (var file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+}
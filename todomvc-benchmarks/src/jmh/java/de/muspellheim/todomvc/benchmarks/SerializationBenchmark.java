@@ -0,0 +1,63 @@
+/*
+ * TodoMVC - Benchmarks
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares Gson, used by the distributed application, with Jackson, used by the backend server,
+ * serializing a todos query result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+  @Param({"10", "1000", "10000"})
+  public int size;
+
+  private final Gson gson = new Gson();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private TodosQueryResult result;
+  private String json;
+
+  @Setup
+  public void setUp() throws Exception {
+    result = new TodosQueryResult(Repositories.createTodos(size), size, List.of(), false);
+    json = gson.toJson(result);
+  }
+
+  @Benchmark
+  public String gsonSerialize() {
+    return gson.toJson(result);
+  }
+
+  @Benchmark
+  public TodosQueryResult gsonDeserialize() {
+    return gson.fromJson(json, TodosQueryResult.class);
+  }
+
+  @Benchmark
+  public String jacksonSerialize() throws Exception {
+    return objectMapper.writeValueAsString(result);
+  }
+
+  @Benchmark
+  public TodosQueryResult jacksonDeserialize() throws Exception {
+    return objectMapper.readValue(json, TodosQueryResult.class);
+  }
+}
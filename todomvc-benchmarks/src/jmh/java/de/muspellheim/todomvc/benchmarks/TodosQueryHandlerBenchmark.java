@@ -0,0 +1,92 @@
+/*
+ * TodoMVC - Benchmarks
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.benchmarks;
+
+import de.muspellheim.todomvc.backend.TodoRepository;
+import de.muspellheim.todomvc.backend.TodosSnapshotCache;
+import de.muspellheim.todomvc.backend.messagehandlers.TodosQueryHandler;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the todos query handler against every repository and list size.
+ *
+ * <p>The cached queries use the snapshot cache of the handler as in production, the uncached
+ * queries invalidate it before every invocation, outside the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TodosQueryHandlerBenchmark {
+  @Param({Repositories.MEMORY, Repositories.JSON, Repositories.JDBC})
+  public String repositoryType;
+
+  @Param({"10", "1000", "10000"})
+  public int size;
+
+  private Path directory;
+  private TodoRepository repository;
+  private TodosSnapshotCache todosSnapshotCache;
+  private TodosQueryHandler todosQueryHandler;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("todomvc-benchmarks");
+    repository = Repositories.create(repositoryType, directory);
+    repository.store(Repositories.createTodos(size));
+    todosSnapshotCache = new TodosSnapshotCache(repository);
+    todosQueryHandler = new TodosQueryHandler(todosSnapshotCache);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    if (repository instanceof AutoCloseable) {
+      ((AutoCloseable) repository).close();
+    }
+    Repositories.delete(directory);
+  }
+
+  @Benchmark
+  public TodosQueryResult allTodos() {
+    return todosQueryHandler.handle(new TodosQuery(TodosQuery.Filter.ALL));
+  }
+
+  @Benchmark
+  public TodosQueryResult activeTodos() {
+    return todosQueryHandler.handle(new TodosQuery(TodosQuery.Filter.ACTIVE));
+  }
+
+  @Benchmark
+  public TodosQueryResult firstPage() {
+    return todosQueryHandler.handle(new TodosQuery(TodosQuery.Filter.ALL, 0, 50));
+  }
+
+  @Benchmark
+  public TodosQueryResult allTodosUncached(InvalidatedCache invalidatedCache) {
+    return todosQueryHandler.handle(new TodosQuery(TodosQuery.Filter.ALL));
+  }
+
+  @State(Scope.Thread)
+  public static class InvalidatedCache {
+    @Setup(Level.Invocation)
+    public void invalidate(TodosQueryHandlerBenchmark benchmark) {
+      benchmark.todosSnapshotCache.invalidate();
+    }
+  }
+}
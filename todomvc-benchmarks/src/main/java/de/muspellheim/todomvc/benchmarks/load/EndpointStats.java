@@ -0,0 +1,38 @@
+/*
+ * TodoMVC - Benchmarks
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.benchmarks.load;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/** Records the latencies and errors of an operation, thread safe and without locks. */
+class EndpointStats {
+  private final Recorder latencies = new Recorder(3);
+  private final LongAdder errors = new LongAdder();
+
+  void record(long latencyNanos, boolean success) {
+    latencies.recordValue(latencyNanos);
+    if (!success) {
+      errors.increment();
+    }
+  }
+
+  /** Discards the values recorded so far, e.g. while warming up. */
+  void reset() {
+    latencies.reset();
+    errors.reset();
+  }
+
+  /** Takes the latencies in nanoseconds recorded since the last reset. */
+  Histogram getLatencies() {
+    return latencies.getIntervalHistogram();
+  }
+
+  long getErrors() {
+    return errors.sum();
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * TodoMVC - Benchmarks
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.benchmarks.load;
+
+import com.google.gson.Gson;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+import lombok.Getter;
+
+/** Sends the requests of a workload in a closed or an open loop and records their latencies. */
+class LoadGenerator {
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  private final String baseUrl;
+  private final Workload workload;
+  private final HttpClient client;
+  private final Gson gson = new Gson();
+  @Getter private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+
+  LoadGenerator(String baseUrl, Workload workload) {
+    this.baseUrl = baseUrl;
+    this.workload = workload;
+    client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    for (var operation : Operation.values()) {
+      stats.put(operation, new EndpointStats());
+    }
+  }
+
+  void resetStats() {
+    stats.values().forEach(EndpointStats::reset);
+  }
+
+  /**
+   * Runs the given number of workers, each sends its next request when the former one is answered.
+   * The load adapts to the server, so a slow server gets fewer requests.
+   */
+  void runClosedLoop(int workers, Duration duration) throws InterruptedException {
+    var end = System.nanoTime() + duration.toNanos();
+    var threads = new ArrayList<Thread>();
+    for (var i = 0; i < workers; i++) {
+      var thread =
+          new Thread(
+              () -> {
+                while (System.nanoTime() < end) {
+                  var request = workload.next();
+                  var start = System.nanoTime();
+                  HttpResponse<String> response = null;
+                  try {
+                    response = client.send(createRequest(request), ofString());
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                  } catch (Exception e) {
+                    // Recorded as error
+                  }
+                  completed(request, start, response);
+                }
+              },
+              "LoadWorker-" + i);
+      thread.start();
+      threads.add(thread);
+    }
+    for (var thread : threads) {
+      thread.join();
+    }
+  }
+
+  /**
+   * Sends the requests at a fixed rate, independent of the responses. The latency is measured from
+   * the time a request was due, so a stalled server is not hidden by requests sent late
+   * (coordinated omission). The requests in flight are limited to not run out of connections.
+   */
+  void runOpenLoop(int rate, int maxInFlight, Duration duration) throws InterruptedException {
+    var inFlight = new Semaphore(maxInFlight);
+    var interval = 1_000_000_000.0 / rate;
+    var start = System.nanoTime();
+    var end = start + duration.toNanos();
+    for (long i = 0; ; i++) {
+      var due = start + (long) (i * interval);
+      if (due >= end) {
+        break;
+      }
+
+      for (var now = System.nanoTime(); now < due; now = System.nanoTime()) {
+        LockSupport.parkNanos(due - now);
+      }
+      inFlight.acquire();
+      var request = workload.next();
+      CompletableFuture<HttpResponse<String>> response;
+      try {
+        response = client.sendAsync(createRequest(request), ofString());
+      } catch (Exception e) {
+        response = CompletableFuture.failedFuture(e);
+      }
+      response.whenComplete(
+          (it, e) -> {
+            try {
+              completed(request, due, it);
+            } finally {
+              inFlight.release();
+            }
+          });
+    }
+    inFlight.acquire(maxInFlight);
+  }
+
+  private HttpRequest createRequest(Workload.Request request) {
+    var body = gson.toJson(request.getMessage());
+    return HttpRequest.newBuilder(URI.create(baseUrl + request.getOperation().getEndpoint()))
+        .header("Accept", "application/json")
+        .header("Content-Type", "application/json")
+        .timeout(REQUEST_TIMEOUT)
+        .POST(BodyPublishers.ofString(body))
+        .build();
+  }
+
+  private static HttpResponse.BodyHandler<String> ofString() {
+    return HttpResponse.BodyHandlers.ofString();
+  }
+
+  /**
+   * A request without response failed, like a request answered with an error status. A conflict is
+   * the expected answer for a todo destroyed by a concurrent request and counts as success.
+   */
+  private void completed(Workload.Request request, long start, HttpResponse<String> response) {
+    var latency = System.nanoTime() - start;
+    var success =
+        response != null && (response.statusCode() / 100 == 2 || response.statusCode() == 409);
+    stats.get(request.getOperation()).record(latency, success);
+    if (success && request.getOperation() == Operation.TODOS_QUERY) {
+      var result = gson.fromJson(response.body(), TodosQueryResult.class);
+      workload.setTodos(result.getTodos());
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * TodoMVC - Benchmarks
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.benchmarks.load;
+
+import com.google.gson.Gson;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommand;
+import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Locale;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Drives the endpoints of the backend server with a mix of commands and queries and reports the
+ * latency percentiles, throughput and error rate of every operation.
+ *
+ * <p>The server is started from its runner jar or native executable, unless the URL of a running
+ * server is given. The todo list is filled before the test, the results of the warmup are
+ * discarded. The latency histograms are written to the results directory additionally. Run with
+ * {@code ./gradlew :todomvc-benchmarks:loadTest -PloadTestArgs="--model=open --rate=1000"}.
+ */
+public class LoadTest {
+  private static final int SEED_BATCH_SIZE = 1000;
+
+  private final LoadTestOptions options;
+  private final HttpClient client = HttpClient.newHttpClient();
+  private final Gson gson = new Gson();
+
+  private LoadTest(LoadTestOptions options) {
+    this.options = options;
+  }
+
+  public static void main(String[] args) throws Exception {
+    var options = LoadTestOptions.parse(args);
+    Files.createDirectories(options.getResultsDir());
+    var loadTest = new LoadTest(options);
+    if (options.getUrl() != null) {
+      var url = options.getUrl();
+      loadTest.run(url.endsWith("/") ? url : url + "/");
+    } else {
+      try (var server = ServerProcess.start(options)) {
+        System.out.printf(
+            "Server %s started in %d ms%n",
+            options.getServer().getFileName(),
+            server.getStartupTime().toMillis());
+        loadTest.run(server.getBaseUrl());
+      }
+    }
+  }
+
+  private void run(String baseUrl) throws IOException, InterruptedException {
+    var workload = new Workload(options.getMix());
+    seed(baseUrl, workload);
+    var generator = new LoadGenerator(baseUrl, workload);
+    System.out.printf(
+        "%s loop, %s, %d todos, warmup %d s%n",
+        options.getModel().name().toLowerCase(Locale.ROOT),
+        options.getModel() == LoadTestOptions.Model.OPEN
+            ? options.getRate() + " requests/s, max " + options.getConcurrency() + " in flight"
+            : options.getConcurrency() + " workers",
+        options.getTodos(),
+        options.getWarmup().toSeconds());
+    run(generator, options.getWarmup());
+    generator.resetStats();
+    System.out.printf("Measuring %d s%n", options.getDuration().toSeconds());
+    var start = System.nanoTime();
+    run(generator, options.getDuration());
+    var elapsed = Duration.ofNanos(System.nanoTime() - start);
+    report(generator, elapsed);
+  }
+
+  private void run(LoadGenerator generator, Duration duration) throws InterruptedException {
+    if (options.getModel() == LoadTestOptions.Model.OPEN) {
+      generator.runOpenLoop(options.getRate(), options.getConcurrency(), duration);
+    } else {
+      generator.runClosedLoop(options.getConcurrency(), duration);
+    }
+  }
+
+  /** Creates the todos in batches and completes every second one. */
+  private void seed(String baseUrl, Workload workload) throws IOException, InterruptedException {
+    for (var i = 0; i < options.getTodos(); i += SEED_BATCH_SIZE) {
+      var items = new ArrayList<BatchCommand.Item>();
+      for (var j = i; j < Math.min(i + SEED_BATCH_SIZE, options.getTodos()); j++) {
+        items.add(BatchCommand.Item.of(new NewTodoCommand("Todo " + j)));
+      }
+      post(baseUrl, "batch-command", new BatchCommand(items));
+    }
+
+    var todos =
+        gson.fromJson(
+                post(baseUrl, "todos-query", new TodosQuery(TodosQuery.Filter.ALL)),
+                TodosQueryResult.class)
+            .getTodos();
+    for (var i = 0; i < todos.size(); i += 2 * SEED_BATCH_SIZE) {
+      var items = new ArrayList<BatchCommand.Item>();
+      for (var j = i; j < Math.min(i + 2 * SEED_BATCH_SIZE, todos.size()); j += 2) {
+        items.add(BatchCommand.Item.of(new ToggleCommand(todos.get(j).getId())));
+      }
+      post(baseUrl, "batch-command", new BatchCommand(items));
+    }
+    workload.setTodos(todos);
+  }
+
+  private String post(String baseUrl, String endpoint, Object message)
+      throws IOException, InterruptedException {
+    var request =
+        HttpRequest.newBuilder(URI.create(baseUrl + endpoint))
+            .header("Content-Type", "application/json")
+            .POST(BodyPublishers.ofString(gson.toJson(message)))
+            .build();
+    var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      throw new IOException(
+          "Seeding failed with status " + response.statusCode() + ": " + response.body());
+    }
+    return response.body();
+  }
+
+  private void report(LoadGenerator generator, Duration elapsed) throws IOException {
+    var seconds = elapsed.toNanos() / 1e9;
+    var total = new Histogram(3);
+    var totalErrors = 0L;
+    System.out.printf(
+        "%-24s %10s %12s %10s %10s %10s %10s %10s %10s%n",
+        "operation",
+        "count",
+        "throughput",
+        "errors",
+        "p50",
+        "p90",
+        "p99",
+        "p99.9",
+        "max");
+    System.out.printf(
+        "%-24s %10s %12s %10s %10s %10s %10s %10s %10s%n",
+        "", "", "[1/s]", "[%]", "[ms]", "[ms]", "[ms]", "[ms]", "[ms]");
+    for (var entry : generator.getStats().entrySet()) {
+      var latencies = entry.getValue().getLatencies();
+      if (latencies.getTotalCount() == 0) {
+        continue;
+      }
+
+      var errors = entry.getValue().getErrors();
+      printRow(entry.getKey().getKey(), latencies, errors, seconds);
+      writeHistogram(entry.getKey().getKey(), latencies);
+      total.add(latencies);
+      totalErrors += errors;
+    }
+    printRow("total", total, totalErrors, seconds);
+    writeHistogram("total", total);
+  }
+
+  private static void printRow(String name, Histogram latencies, long errors, double seconds) {
+    var count = latencies.getTotalCount();
+    System.out.printf(
+        "%-24s %10d %12.1f %10.2f %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+        name,
+        count,
+        count / seconds,
+        count > 0 ? 100.0 * errors / count : 0.0,
+        toMillis(latencies.getValueAtPercentile(50)),
+        toMillis(latencies.getValueAtPercentile(90)),
+        toMillis(latencies.getValueAtPercentile(99)),
+        toMillis(latencies.getValueAtPercentile(99.9)),
+        toMillis(latencies.getMaxValue()));
+  }
+
+  /** Writes the percentile distribution in milliseconds, to be plotted with HdrHistogram tools. */
+  private void writeHistogram(String name, Histogram latencies) throws IOException {
+    var file = options.getResultsDir().resolve(name + ".hgrm");
+    try (var out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+      latencies.outputPercentileDistribution(out, 1e6);
+    }
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / 1e6;
+  }
+}
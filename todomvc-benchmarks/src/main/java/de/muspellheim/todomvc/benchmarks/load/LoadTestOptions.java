@@ -0,0 +1,129 @@
+/*
+ * TodoMVC - Benchmarks
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.benchmarks.load;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import lombok.Data;
+
+/** The options of a load test, given as {@code --name=value} arguments. */
+@Data
+class LoadTestOptions {
+  enum Model {
+    /** Each worker sends its next request after the response of the former one. */
+    CLOSED,
+    /** Requests are sent at a fixed rate, independent of the responses. */
+    OPEN
+  }
+
+  /** The runner jar or native executable of the server, not used if a URL is given. */
+  Path server;
+
+  /** The URL of an already running server, the server is started otherwise. */
+  String url;
+
+  int port = 8089;
+  /** One of {@code memory}, {@code json} or {@code jdbc}. */
+  String repository = "memory";
+
+  /** Further system properties for the server, separated by spaces. */
+  String serverOptions = "";
+
+  Model model = Model.CLOSED;
+
+  /** The workers of a closed loop, or the maximum of requests in flight of an open loop. */
+  int concurrency = 16;
+
+  /** The arrival rate of an open loop in requests per second. */
+  int rate = 500;
+
+  Duration warmup = Duration.ofSeconds(10);
+  Duration duration = Duration.ofSeconds(30);
+
+  /** The size of the todo list before the test. */
+  int todos = 1000;
+
+  /** The weights of the operations. */
+  Map<Operation, Integer> mix =
+      parseMix(
+          "todos-query:30,todos-page-query:20,todo-stats-query:10,toggle-command:15,"
+              + "edit-command:15,new-todo-command:5,destroy-command:5");
+
+  Path resultsDir = Paths.get("build/results/load");
+
+  static LoadTestOptions parse(String... args) {
+    var options = new LoadTestOptions();
+    for (var arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException("Expected --name=value, but was: " + arg);
+      }
+
+      var name = arg.substring(2, arg.indexOf('='));
+      var value = arg.substring(arg.indexOf('=') + 1);
+      switch (name) {
+        case "server":
+          options.server = Paths.get(value);
+          break;
+        case "url":
+          options.url = value;
+          break;
+        case "port":
+          options.port = Integer.parseInt(value);
+          break;
+        case "repository":
+          options.repository = value;
+          break;
+        case "server-options":
+          options.serverOptions = value;
+          break;
+        case "model":
+          options.model = Model.valueOf(value.toUpperCase(Locale.ROOT));
+          break;
+        case "concurrency":
+          options.concurrency = Integer.parseInt(value);
+          break;
+        case "rate":
+          options.rate = Integer.parseInt(value);
+          break;
+        case "warmup":
+          options.warmup = Duration.ofSeconds(Long.parseLong(value));
+          break;
+        case "duration":
+          options.duration = Duration.ofSeconds(Long.parseLong(value));
+          break;
+        case "todos":
+          options.todos = Integer.parseInt(value);
+          break;
+        case "mix":
+          options.mix = parseMix(value);
+          break;
+        case "results-dir":
+          options.resultsDir = Paths.get(value);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option: " + name);
+      }
+    }
+    if (options.server == null && options.url == null) {
+      throw new IllegalArgumentException("Missing option --server or --url.");
+    }
+    return options;
+  }
+
+  /** Parses a mix like {@code todos-query:80,toggle-command:20}. */
+  static Map<Operation, Integer> parseMix(String mix) {
+    var weights = new LinkedHashMap<Operation, Integer>();
+    for (var entry : mix.split(",")) {
+      var keyValue = entry.trim().split(":");
+      weights.put(Operation.of(keyValue[0]), Integer.parseInt(keyValue[1]));
+    }
+    return weights;
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * TodoMVC - Benchmarks
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.benchmarks.load;
+
+import java.util.Arrays;
+import lombok.Getter;
+
+/** The operations of a workload, each is reported on its own. */
+enum Operation {
+  NEW_TODO("new-todo-command", "new-todo-command"),
+  TOGGLE("toggle-command", "toggle-command"),
+  TOGGLE_ALL("toggle-all-command", "toggle-all-command"),
+  EDIT("edit-command", "edit-command"),
+  DESTROY("destroy-command", "destroy-command"),
+  CLEAR_COMPLETED("clear-completed-command", "clear-completed-command"),
+  BATCH("batch-command", "batch-command"),
+  TODOS_QUERY("todos-query", "todos-query"),
+  /** Queries the first page of the todos only. */
+  TODOS_PAGE_QUERY("todos-page-query", "todos-query"),
+  TODO_STATS_QUERY("todo-stats-query", "todo-stats-query");
+
+  @Getter private final String key;
+  @Getter private final String endpoint;
+
+  Operation(String key, String endpoint) {
+    this.key = key;
+    this.endpoint = endpoint;
+  }
+
+  static Operation of(String key) {
+    return Arrays.stream(values())
+        .filter(it -> it.key.equals(key))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown operation: " + key));
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * TodoMVC - Benchmarks
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.benchmarks.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+
+/**
+ * Runs the server as a process of its own, either the runner jar on the current JVM or the native
+ * executable. The todos are stored in a new working directory, so every run starts empty.
+ */
+class ServerProcess implements AutoCloseable {
+  private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+
+  @Getter private final String baseUrl;
+  @Getter private final Duration startupTime;
+  private final Process process;
+
+  private ServerProcess(String baseUrl, Duration startupTime, Process process) {
+    this.baseUrl = baseUrl;
+    this.startupTime = startupTime;
+    this.process = process;
+  }
+
+  static ServerProcess start(LoadTestOptions options) throws IOException, InterruptedException {
+    var server = options.getServer().toAbsolutePath();
+    if (!Files.exists(server)) {
+      throw new IllegalArgumentException("Server not found: " + server);
+    }
+
+    var workDir = Files.createTempDirectory("todomvc-load-test");
+    var command = new ArrayList<String>();
+    var jar = server.toString().endsWith(".jar");
+    if (jar) {
+      command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    } else {
+      command.add(server.toString());
+    }
+    command.add("-Dquarkus.http.port=" + options.getPort());
+    command.add("-Dtodomvc.repository=" + options.getRepository());
+    command.add("-Dtodomvc.todos-file=" + workDir.resolve("todos.json"));
+    // Embedded database instead of the database server of the configuration
+    command.add("-Dquarkus.datasource.jdbc.url=jdbc:h2:" + workDir.resolve("todos"));
+    if (!options.getServerOptions().isBlank()) {
+      command.addAll(Arrays.asList(options.getServerOptions().trim().split("\\s+")));
+    }
+    if (jar) {
+      command.add("-jar");
+      command.add(server.toString());
+    }
+
+    var log = options.getResultsDir().resolve("server.log").toAbsolutePath();
+    var start = System.nanoTime();
+    var process =
+        new ProcessBuilder(command)
+            .directory(workDir.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+    var baseUrl = "http://localhost:" + options.getPort() + "/api/";
+    try {
+      waitUntilReady(process, baseUrl, log);
+    } catch (IOException | InterruptedException | RuntimeException e) {
+      process.destroyForcibly();
+      throw e;
+    }
+    return new ServerProcess(baseUrl, Duration.ofNanos(System.nanoTime() - start), process);
+  }
+
+  /** The server is ready when it answers the first query. */
+  private static void waitUntilReady(Process process, String baseUrl, Path log)
+      throws IOException, InterruptedException {
+    var client = HttpClient.newHttpClient();
+    var request =
+        HttpRequest.newBuilder(URI.create(baseUrl + "todo-stats-query"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{}"))
+            .build();
+    var deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+    while (true) {
+      if (!process.isAlive()) {
+        throw new IOException(
+            "Server exited with code " + process.exitValue() + ", see log " + log + ".");
+      }
+      try {
+        var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 200) {
+          return;
+        }
+      } catch (IOException e) {
+        // Not listening yet
+      }
+      if (System.nanoTime() > deadline) {
+        throw new IOException(
+            "Server not ready after " + STARTUP_TIMEOUT + ", see log " + log + ".");
+      }
+      Thread.sleep(50);
+    }
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    process.destroy();
+    if (!process.waitFor(10, TimeUnit.SECONDS)) {
+      process.destroyForcibly();
+    }
+  }
+}
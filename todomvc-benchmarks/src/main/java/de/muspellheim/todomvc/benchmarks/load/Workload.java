@@ -0,0 +1,128 @@
+/*
+ * TodoMVC - Benchmarks
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.benchmarks.load;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ClearCompletedCommand;
+import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
+import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
+import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleAllCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import lombok.Value;
+
+/**
+ * Picks the operations by their weights and creates their requests.
+ *
+ * <p>Commands address the todos known from the last query of all todos. They are sent without
+ * expected version, so concurrent changes of a todo do not conflict. New todos get their id from
+ * the client and are addressed at once.
+ */
+class Workload {
+  private static final int PAGE_SIZE = 50;
+  private static final int BATCH_SIZE = 10;
+
+  private final Operation[] operations;
+  private final int[] cumulativeWeights;
+  private final List<String> ids = new ArrayList<>();
+
+  Workload(Map<Operation, Integer> mix) {
+    operations = mix.keySet().toArray(new Operation[0]);
+    cumulativeWeights = new int[operations.length];
+    var sum = 0;
+    for (var i = 0; i < operations.length; i++) {
+      sum += mix.get(operations[i]);
+      cumulativeWeights[i] = sum;
+    }
+    if (sum <= 0) {
+      throw new IllegalArgumentException("The mix needs at least one weight greater than 0.");
+    }
+  }
+
+  synchronized void setTodos(List<Todo> todos) {
+    ids.clear();
+    ids.addAll(todos.stream().map(Todo::getId).collect(Collectors.toList()));
+  }
+
+  Request next() {
+    var random = ThreadLocalRandom.current();
+    var value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    var index = 0;
+    while (value >= cumulativeWeights[index]) {
+      index++;
+    }
+    var operation = operations[index];
+    return new Request(operation, createMessage(operation, random));
+  }
+
+  private Object createMessage(Operation operation, ThreadLocalRandom random) {
+    switch (operation) {
+      case NEW_TODO:
+        return new NewTodoCommand("Todo " + random.nextInt(1_000_000), addNewId());
+      case TOGGLE:
+        return new ToggleCommand(randomId(random));
+      case TOGGLE_ALL:
+        return new ToggleAllCommand(random.nextBoolean());
+      case EDIT:
+        return new EditCommand(randomId(random), "Todo " + random.nextInt(1_000_000));
+      case DESTROY:
+        return new DestroyCommand(removeRandomId(random), null);
+      case CLEAR_COMPLETED:
+        return new ClearCompletedCommand();
+      case BATCH:
+        var items = new ArrayList<BatchCommand.Item>();
+        for (var i = 0; i < BATCH_SIZE; i++) {
+          items.add(BatchCommand.Item.of(new ToggleCommand(randomId(random))));
+        }
+        return new BatchCommand(items);
+      case TODOS_QUERY:
+        return new TodosQuery(TodosQuery.Filter.ALL);
+      case TODOS_PAGE_QUERY:
+        return new TodosQuery(TodosQuery.Filter.ACTIVE, 0, PAGE_SIZE);
+      case TODO_STATS_QUERY:
+        return new TodoStatsQuery();
+      default:
+        throw new IllegalStateException("Unreachable code");
+    }
+  }
+
+  private synchronized String addNewId() {
+    var id = UUID.randomUUID().toString();
+    ids.add(id);
+    return id;
+  }
+
+  /** Returns an unknown id if no todo is known, the server answers it with a conflict. */
+  private synchronized String randomId(ThreadLocalRandom random) {
+    return ids.isEmpty() ? "unknown" : ids.get(random.nextInt(ids.size()));
+  }
+
+  /** Destroyed todos are not addressed again, until a query finds them still existing. */
+  private synchronized String removeRandomId(ThreadLocalRandom random) {
+    if (ids.isEmpty()) {
+      return "unknown";
+    }
+
+    var index = random.nextInt(ids.size());
+    var last = ids.remove(ids.size() - 1);
+    return index < ids.size() ? ids.set(index, last) : last;
+  }
+
+  @Value
+  static class Request {
+    Operation operation;
+    Object message;
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * TodoMVC - Contract
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.contract;
+
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommand;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.ClearCompletedCommand;
+import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
+import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
+import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleAllCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQueryResult;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
+import java.util.concurrent.CompletionStage;
+
+/** Asynchronous counterpart of {@link MessageHandling}, handling a message does not block. */
+public interface AsyncMessageHandling {
+  CompletionStage<CommandStatus> handle(ClearCompletedCommand command);
+
+  CompletionStage<CommandStatus> handle(DestroyCommand command);
+
+  CompletionStage<CommandStatus> handle(EditCommand command);
+
+  CompletionStage<CommandStatus> handle(NewTodoCommand command);
+
+  CompletionStage<CommandStatus> handle(ToggleAllCommand command);
+
+  CompletionStage<CommandStatus> handle(ToggleCommand command);
+
+  CompletionStage<BatchCommandStatus> handle(BatchCommand command);
+
+  CompletionStage<TodosQueryResult> handle(TodosQuery query);
+
+  CompletionStage<TodoStatsQueryResult> handle(TodoStatsQuery query);
+}
@@ -9,6 +9,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 
@@ -20,6 +21,13 @@ public class Todo {
   @NonNull String title;
   boolean completed;
 
+  /** Incremented by every change, not part of equality. */
+  @EqualsAndHashCode.Exclude long version;
+
+  public Todo(String id, String title, boolean completed) {
+    this(id, title, completed, 0);
+  }
+
   public Todo(String title) {
     this(UUID.randomUUID().toString(), title, false);
   }
@@ -0,0 +1,67 @@
+/*
+ * TodoMVC - Contract
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.contract.messages.commands;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Executes the commands in order and applies them atomically, either all or none. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCommand {
+  List<Item> commands;
+
+  /** Exactly one command of an item is set. */
+  @Data
+  @NoArgsConstructor
+  public static class Item {
+    ClearCompletedCommand clearCompleted;
+    DestroyCommand destroy;
+    EditCommand edit;
+    NewTodoCommand newTodo;
+    ToggleAllCommand toggleAll;
+    ToggleCommand toggle;
+
+    public static Item of(ClearCompletedCommand command) {
+      var item = new Item();
+      item.clearCompleted = command;
+      return item;
+    }
+
+    public static Item of(DestroyCommand command) {
+      var item = new Item();
+      item.destroy = command;
+      return item;
+    }
+
+    public static Item of(EditCommand command) {
+      var item = new Item();
+      item.edit = command;
+      return item;
+    }
+
+    public static Item of(NewTodoCommand command) {
+      var item = new Item();
+      item.newTodo = command;
+      return item;
+    }
+
+    public static Item of(ToggleAllCommand command) {
+      var item = new Item();
+      item.toggleAll = command;
+      return item;
+    }
+
+    public static Item of(ToggleCommand command) {
+      var item = new Item();
+      item.toggle = command;
+      return item;
+    }
+  }
+}
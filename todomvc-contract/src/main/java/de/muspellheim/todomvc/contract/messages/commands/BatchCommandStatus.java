@@ -0,0 +1,20 @@
+/*
+ * TodoMVC - Contract
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.contract.messages.commands;
+
+import java.util.List;
+import lombok.NonNull;
+import lombok.Value;
+
+@Value
+public class BatchCommandStatus {
+  /** The status of every command of the batch, in the order of the commands. */
+  @NonNull List<CommandStatus> statuses;
+
+  public boolean isSuccess() {
+    return statuses.stream().allMatch(it -> it instanceof Success);
+  }
+}
@@ -0,0 +1,15 @@
+/*
+ * TodoMVC - Contract
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.contract.messages.commands;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/** The command was not executed, because the todo was changed by someone else. */
+@Value
+public class Conflict implements CommandStatus {
+  @NonNull String errorMessage;
+}
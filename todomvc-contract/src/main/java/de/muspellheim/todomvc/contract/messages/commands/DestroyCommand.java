@@ -14,4 +14,11 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class DestroyCommand {
   String id;
+
+  /** If set, the command fails with a conflict when the todo has another version. */
+  Long expectedVersion;
+
+  public DestroyCommand(String id) {
+    this(id, null);
+  }
 }
@@ -15,4 +15,11 @@ import lombok.NoArgsConstructor;
 public class EditCommand {
   String id;
   String title;
+
+  /** If set, the command fails with a conflict when the todo has another version. */
+  Long expectedVersion;
+
+  public EditCommand(String id, String title) {
+    this(id, title, null);
+  }
 }
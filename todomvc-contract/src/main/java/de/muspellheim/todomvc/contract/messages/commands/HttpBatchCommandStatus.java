@@ -0,0 +1,31 @@
+/*
+ * TodoMVC - Contract
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.contract.messages.commands;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HttpBatchCommandStatus {
+  boolean success;
+  List<HttpCommandStatus> statuses;
+
+  public HttpBatchCommandStatus(BatchCommandStatus status) {
+    success = status.isSuccess();
+    statuses =
+        status.getStatuses().stream().map(HttpCommandStatus::new).collect(Collectors.toList());
+  }
+
+  public BatchCommandStatus batchCommandStatus() {
+    return new BatchCommandStatus(
+        statuses.stream().map(HttpCommandStatus::commandStatus).collect(Collectors.toList()));
+  }
+}
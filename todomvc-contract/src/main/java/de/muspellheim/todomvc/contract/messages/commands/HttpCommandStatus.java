@@ -15,10 +15,14 @@ import lombok.NoArgsConstructor;
 public class HttpCommandStatus {
   boolean success;
   String errorMessage;
+  boolean conflict;
 
   public HttpCommandStatus(CommandStatus status) {
     success = status instanceof Success;
-    if (!success) {
+    conflict = status instanceof Conflict;
+    if (conflict) {
+      errorMessage = ((Conflict) status).getErrorMessage();
+    } else if (!success) {
       errorMessage = ((Failure) status).getErrorMessage();
     }
   }
@@ -26,6 +30,8 @@ public class HttpCommandStatus {
   public CommandStatus commandStatus() {
     if (success) {
       return new Success();
+    } else if (conflict) {
+      return new Conflict(errorMessage);
     } else {
       return new Failure(errorMessage);
     }
@@ -14,4 +14,14 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class NewTodoCommand {
   String title;
+
+  /**
+   * If set, the new todo gets this id, a UUID chosen by the client. So a client can show the new
+   * todo at once and send further commands for it before the todos are queried again.
+   */
+  String id;
+
+  public NewTodoCommand(String title) {
+    this(title, null);
+  }
 }
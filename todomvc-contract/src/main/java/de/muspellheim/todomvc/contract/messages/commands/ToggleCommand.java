@@ -14,4 +14,11 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class ToggleCommand {
   String id;
+
+  /** If set, the command fails with a conflict when the todo has another version. */
+  Long expectedVersion;
+
+  public ToggleCommand(String id) {
+    this(id, null);
+  }
 }
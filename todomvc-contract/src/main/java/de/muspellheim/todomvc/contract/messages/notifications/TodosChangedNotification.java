@@ -0,0 +1,31 @@
+/*
+ * TodoMVC - Contract
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.contract.messages.notifications;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodosChangedNotification {
+  /** The version of the list after the changes, to be used to resume the notifications. */
+  long version;
+
+  List<Todo> changedTodos;
+
+  List<String> removedIds;
+
+  /** If set, the changes are unknown and the client must query all todos. */
+  boolean resync;
+
+  public static TodosChangedNotification resync(long version) {
+    return new TodosChangedNotification(version, List.of(), List.of(), true);
+  }
+}
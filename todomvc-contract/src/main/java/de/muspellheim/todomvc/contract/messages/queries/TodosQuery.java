@@ -6,8 +6,49 @@
 package de.muspellheim.todomvc.contract.messages.queries;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.util.function.Predicate;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 @JsonInclude
-public class TodosQuery {}
+public class TodosQuery {
+  Filter filter = Filter.ALL;
+  int offset;
+
+  /** Returns all todos from offset if not set. */
+  Integer limit;
+
+  /**
+   * If set, only the todos changed since this version of the list are returned, as long as the
+   * changes are still known. Offset and limit are not supported then.
+   */
+  Long sinceVersion;
+
+  public TodosQuery(Filter filter) {
+    this(filter, 0, null);
+  }
+
+  public TodosQuery(Filter filter, int offset, Integer limit) {
+    this(filter, offset, limit, null);
+  }
+
+  public TodosQuery(Filter filter, long sinceVersion) {
+    this(filter, 0, null, sinceVersion);
+  }
+
+  public enum Filter implements Predicate<Todo> {
+    ALL,
+    ACTIVE,
+    COMPLETED;
+
+    @Override
+    public boolean test(Todo todo) {
+      return this == ALL || todo.isCompleted() == (this == COMPLETED);
+    }
+  }
+}
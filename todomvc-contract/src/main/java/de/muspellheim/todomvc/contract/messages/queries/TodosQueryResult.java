@@ -6,6 +6,8 @@
 package de.muspellheim.todomvc.contract.messages.queries;
 
 import de.muspellheim.todomvc.contract.data.Todo;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,5 +17,51 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class TodosQueryResult {
+  /** All todos, or only the changed todos if this is a delta. */
   List<Todo> todos;
+
+  /** The version of the list, to be used as since version of the next query. */
+  long version;
+
+  /** Ids of the removed todos or todos not matching the filter anymore, only used by a delta. */
+  List<String> removedIds;
+
+  boolean delta;
+
+  public TodosQueryResult(List<Todo> todos) {
+    this(todos, 0, List.of(), false);
+  }
+
+  /**
+   * Applies this result to a local copy of the todos. A full result replaces the todos, a delta
+   * removes, replaces and appends only the changed todos.
+   */
+  public void applyTo(List<Todo> todos) {
+    if (!delta) {
+      todos.clear();
+      todos.addAll(this.todos);
+      return;
+    }
+
+    if (!removedIds.isEmpty()) {
+      var ids = new HashSet<>(removedIds);
+      todos.removeIf(it -> ids.contains(it.getId()));
+    }
+    if (this.todos.isEmpty()) {
+      return;
+    }
+
+    var indexById = new HashMap<String, Integer>();
+    for (var i = 0; i < todos.size(); i++) {
+      indexById.put(todos.get(i).getId(), i);
+    }
+    for (var todo : this.todos) {
+      var index = indexById.get(todo.getId());
+      if (index != null) {
+        todos.set(index, todo);
+      } else {
+        todos.add(todo);
+      }
+    }
+  }
 }
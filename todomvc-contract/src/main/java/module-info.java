@@ -5,9 +5,11 @@ module de.muspellheim.todomvc.contract {
   exports de.muspellheim.todomvc.contract;
   exports de.muspellheim.todomvc.contract.data;
   exports de.muspellheim.todomvc.contract.messages.commands;
+  exports de.muspellheim.todomvc.contract.messages.notifications;
   exports de.muspellheim.todomvc.contract.messages.queries;
 
   opens de.muspellheim.todomvc.contract.data;
   opens de.muspellheim.todomvc.contract.messages.commands;
+  opens de.muspellheim.todomvc.contract.messages.notifications;
   opens de.muspellheim.todomvc.contract.messages.queries;
 }
@@ -0,0 +1,50 @@
+/*
+ * TodoMVC - Contract
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.contract.messages.queries;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TodosQueryResultTests {
+  @Test
+  void applyFullResult() {
+    var todos = new ArrayList<>(List.of(new Todo("1", "Taste JavaScript", true)));
+    var result = new TodosQueryResult(List.of(new Todo("2", "Buy a unicorn", false)));
+
+    result.applyTo(todos);
+
+    assertEquals(List.of(new Todo("2", "Buy a unicorn", false)), todos);
+  }
+
+  @Test
+  void applyDelta() {
+    var todos =
+        new ArrayList<>(
+            List.of(
+                new Todo("1", "Taste JavaScript", true),
+                new Todo("2", "Buy a unicorn", false),
+                new Todo("3", "Buy milk", false)));
+    var result =
+        new TodosQueryResult(
+            List.of(new Todo("3", "Buy milk", true), new Todo("4", "Walk the dog", false)),
+            7,
+            List.of("1"),
+            true);
+
+    result.applyTo(todos);
+
+    assertEquals(
+        List.of(
+            new Todo("2", "Buy a unicorn", false),
+            new Todo("3", "Buy milk", true),
+            new Todo("4", "Walk the dog", false)),
+        todos);
+  }
+}
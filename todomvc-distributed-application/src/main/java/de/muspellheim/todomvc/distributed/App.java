@@ -9,10 +9,15 @@ import de.muspellheim.todomvc.frontend.MainView;
 import de.muspellheim.todomvc.frontend.ViewModelFactory;
 import java.io.InputStream;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 
 public class App extends Application {
+  private final AtomicBoolean updatePending = new AtomicBoolean();
+  private TodosChangeStreamClient todosChangeStreamClient;
+
   public static void main(String[] args) {
     Application.launch(args);
   }
@@ -34,5 +39,24 @@ public class App extends Application {
 
     var frontend = MainView.create(primaryStage);
     frontend.run();
+
+    // Other clients may change the todos, a burst of changes results in one update
+    todosChangeStreamClient = new TodosChangeStreamClient(BackendProxy.BACKEND_API_BASE_URL);
+    todosChangeStreamClient.setOnTodosChanged(
+        it -> {
+          if (updatePending.compareAndSet(false, true)) {
+            Platform.runLater(
+                () -> {
+                  updatePending.set(false);
+                  frontend.updateTodos();
+                });
+          }
+        });
+    todosChangeStreamClient.start();
+  }
+
+  @Override
+  public void stop() {
+    todosChangeStreamClient.stop();
   }
 }
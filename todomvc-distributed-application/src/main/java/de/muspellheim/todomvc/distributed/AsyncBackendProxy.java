@@ -0,0 +1,159 @@
+/*
+ * TodoMVC - Distributed Application
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.distributed;
+
+import de.muspellheim.todomvc.contract.AsyncMessageHandling;
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommand;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.ClearCompletedCommand;
+import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
+import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
+import de.muspellheim.todomvc.contract.messages.commands.Failure;
+import de.muspellheim.todomvc.contract.messages.commands.HttpBatchCommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.HttpCommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleAllCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQueryResult;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Sends the messages to the backend without blocking, so multiple requests can be in flight over
+ * the connections of the shared client.
+ */
+class AsyncBackendProxy implements AsyncMessageHandling {
+  private final HttpJsonClient client;
+
+  private final List<Todo> todos = new ArrayList<>();
+  private TodosQuery.Filter todosFilter;
+  private long todosVersion;
+
+  AsyncBackendProxy(HttpJsonClient client) {
+    this.client = client;
+  }
+
+  @Override
+  public CompletionStage<CommandStatus> handle(ClearCompletedCommand command) {
+    return executeCommand("clear-completed-command", command);
+  }
+
+  @Override
+  public CompletionStage<CommandStatus> handle(DestroyCommand command) {
+    return executeCommand("destroy-command", command);
+  }
+
+  @Override
+  public CompletionStage<CommandStatus> handle(EditCommand command) {
+    return executeCommand("edit-command", command);
+  }
+
+  @Override
+  public CompletionStage<CommandStatus> handle(NewTodoCommand command) {
+    return executeCommand("new-todo-command", command);
+  }
+
+  @Override
+  public CompletionStage<CommandStatus> handle(ToggleAllCommand command) {
+    return executeCommand("toggle-all-command", command);
+  }
+
+  @Override
+  public CompletionStage<CommandStatus> handle(ToggleCommand command) {
+    return executeCommand("toggle-command", command);
+  }
+
+  /** Sends all commands in one request, the backend applies them in one write. */
+  @Override
+  public CompletionStage<BatchCommandStatus> handle(BatchCommand command) {
+    return client
+        .executeAsync("batch-command", command, HttpBatchCommandStatus.class)
+        .thenApply(HttpBatchCommandStatus::batchCommandStatus)
+        .exceptionally(
+            e ->
+                new BatchCommandStatus(
+                    Collections.nCopies(command.getCommands().size(), failure(e))));
+  }
+
+  /**
+   * A query for all todos of a filter is sent as delta query and the result is applied to a local
+   * copy, so only the changed todos are transferred. Concurrent queries may complete out of order,
+   * so an outdated result is ignored and a delta not matching the local copy is queried again.
+   *
+   * <p>A failed query completes exceptionally, an empty result would replace the todos of the
+   * client.
+   */
+  @Override
+  public CompletionStage<TodosQueryResult> handle(TodosQuery query) {
+    if (query.getSinceVersion() != null || query.getOffset() != 0 || query.getLimit() != null) {
+      return client.queryAsync("todos-query", query, TodosQueryResult.class);
+    }
+
+    TodosQuery deltaQuery;
+    synchronized (this) {
+      deltaQuery =
+          query.getFilter() == todosFilter
+              ? new TodosQuery(query.getFilter(), todosVersion)
+              : query;
+    }
+    return client
+        .queryAsync("todos-query", deltaQuery, TodosQueryResult.class)
+        .thenCompose(
+            it -> {
+              var result = applyTodosQueryResult(query.getFilter(), deltaQuery, it);
+              return result != null ? CompletableFuture.completedStage(result) : handle(query);
+            })
+        .whenComplete(
+            (result, e) -> {
+              if (e != null) {
+                synchronized (this) {
+                  todosFilter = null;
+                }
+              }
+            });
+  }
+
+  private synchronized TodosQueryResult applyTodosQueryResult(
+      TodosQuery.Filter filter, TodosQuery query, TodosQueryResult result) {
+    if (result.isDelta() && (filter != todosFilter || query.getSinceVersion() > todosVersion)) {
+      todosFilter = null;
+      return null;
+    }
+
+    if (filter != todosFilter || result.getVersion() >= todosVersion) {
+      result.applyTo(todos);
+      todosFilter = filter;
+      todosVersion = result.getVersion();
+    }
+    return new TodosQueryResult(List.copyOf(todos), todosVersion, List.of(), false);
+  }
+
+  @Override
+  public CompletionStage<TodoStatsQueryResult> handle(TodoStatsQuery query) {
+    return client.queryAsync("todo-stats-query", query, TodoStatsQueryResult.class);
+  }
+
+  private CompletionStage<CommandStatus> executeCommand(String endpoint, Object command) {
+    return client
+        .executeAsync(endpoint, command, HttpCommandStatus.class)
+        .thenApply(HttpCommandStatus::commandStatus)
+        .exceptionally(this::failure);
+  }
+
+  private CommandStatus failure(Throwable e) {
+    var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    return new Failure(cause.getLocalizedMessage());
+  }
+}
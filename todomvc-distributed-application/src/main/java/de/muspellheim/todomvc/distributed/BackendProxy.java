@@ -6,86 +6,80 @@
 package de.muspellheim.todomvc.distributed;
 
 import de.muspellheim.todomvc.contract.MessageHandling;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommand;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommandStatus;
 import de.muspellheim.todomvc.contract.messages.commands.ClearCompletedCommand;
 import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
 import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
 import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
-import de.muspellheim.todomvc.contract.messages.commands.Failure;
-import de.muspellheim.todomvc.contract.messages.commands.HttpCommandStatus;
 import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleAllCommand;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQueryResult;
 import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
 import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
-import java.util.List;
+import java.util.concurrent.CompletionStage;
+import lombok.Getter;
 
+/** Blocking facade of the {@link AsyncBackendProxy}, both share the same HTTP client. */
 class BackendProxy implements MessageHandling {
   public static final String BACKEND_API_BASE_URL = "http://localhost:8080/api/";
 
-  private final HttpJsonClient client = new HttpJsonClient(BACKEND_API_BASE_URL);
+  @Getter
+  private final AsyncBackendProxy asyncBackendProxy =
+      new AsyncBackendProxy(new HttpJsonClient(BACKEND_API_BASE_URL));
 
   @Override
   public CommandStatus handle(ClearCompletedCommand command) {
-    try {
-      return client
-          .execute("clear-completed-command", command, HttpCommandStatus.class)
-          .commandStatus();
-    } catch (Exception e) {
-      return new Failure(e.getLocalizedMessage());
-    }
+    return await(asyncBackendProxy.handle(command));
   }
 
   @Override
   public CommandStatus handle(DestroyCommand command) {
-    try {
-      return client.execute("destroy-command", command, HttpCommandStatus.class).commandStatus();
-    } catch (Exception e) {
-      return new Failure(e.getLocalizedMessage());
-    }
+    return await(asyncBackendProxy.handle(command));
   }
 
   @Override
   public CommandStatus handle(EditCommand command) {
-    try {
-      return client.execute("edit-command", command, HttpCommandStatus.class).commandStatus();
-    } catch (Exception e) {
-      return new Failure(e.getLocalizedMessage());
-    }
+    return await(asyncBackendProxy.handle(command));
   }
 
   @Override
   public CommandStatus handle(NewTodoCommand command) {
-    try {
-      return client.execute("new-todo-command", command, HttpCommandStatus.class).commandStatus();
-    } catch (Exception e) {
-      return new Failure(e.getLocalizedMessage());
-    }
+    return await(asyncBackendProxy.handle(command));
   }
 
   @Override
   public CommandStatus handle(ToggleAllCommand command) {
-    try {
-      return client.execute("toggle-all-command", command, HttpCommandStatus.class).commandStatus();
-    } catch (Exception e) {
-      return new Failure(e.getLocalizedMessage());
-    }
+    return await(asyncBackendProxy.handle(command));
   }
 
   @Override
   public CommandStatus handle(ToggleCommand command) {
-    try {
-      return client.execute("toggle-command", command, HttpCommandStatus.class).commandStatus();
-    } catch (Exception e) {
-      return new Failure(e.getLocalizedMessage());
-    }
+    return await(asyncBackendProxy.handle(command));
+  }
+
+  @Override
+  public BatchCommandStatus handle(BatchCommand command) {
+    return await(asyncBackendProxy.handle(command));
   }
 
   @Override
   public TodosQueryResult handle(TodosQuery query) {
-    try {
-      return client.execute("todos-query", query, TodosQueryResult.class);
-    } catch (Exception e) {
-      return new TodosQueryResult(List.of());
-    }
+    return await(asyncBackendProxy.handle(query));
+  }
+
+  @Override
+  public TodoStatsQueryResult handle(TodoStatsQuery query) {
+    return await(asyncBackendProxy.handle(query));
+  }
+
+  /**
+   * Failures of commands are already mapped to statuses by the async proxy, failures of queries are
+   * thrown as {@link java.util.concurrent.CompletionException}.
+   */
+  private static <T> T await(CompletionStage<T> stage) {
+    return stage.toCompletableFuture().join();
   }
 }
@@ -7,30 +7,82 @@ package de.muspellheim.todomvc.distributed;
 
 import com.google.gson.Gson;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Sends JSON requests over a long-lived HTTP client, so connections are kept alive and reused.
+ *
+ * <p>HTTPS connections negotiate HTTP/2 and multiplex concurrent requests over one connection.
+ * Plain HTTP uses HTTP/1.1, because the HTTP/2 upgrade of a request with a body is not supported
+ * by every server; concurrent requests use pooled keep-alive connections then.
+ */
 class HttpJsonClient {
+  static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+  static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
   private final String baseUrl;
+  private final Duration requestTimeout;
+  private final HttpClient client;
+  private final Gson gson = new Gson();
 
   HttpJsonClient(String baseUrl) {
+    this(baseUrl, DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT);
+  }
+
+  HttpJsonClient(String baseUrl, Duration connectTimeout, Duration requestTimeout) {
     this.baseUrl = baseUrl;
+    this.requestTimeout = requestTimeout;
+    var version =
+        baseUrl.startsWith("https:") ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1;
+    client = HttpClient.newBuilder().version(version).connectTimeout(connectTimeout).build();
   }
 
   <I, O> O execute(String endpoint, I request, Class<O> responseType)
       throws IOException, InterruptedException {
-    var client = HttpClient.newHttpClient();
-    var body = new Gson().toJson(request);
-    var httpRequest =
-        HttpRequest.newBuilder(URI.create(baseUrl + endpoint))
-            .header("Accept", "application/json")
-            .header("Content-Type", "application/json")
-            .POST(BodyPublishers.ofString(body))
-            .build();
-    var response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
-    return new Gson().fromJson(response.body(), responseType);
+    var response =
+        client.send(createRequest(endpoint, request), HttpResponse.BodyHandlers.ofString());
+    return gson.fromJson(response.body(), responseType);
+  }
+
+  /** Sends the request without blocking, concurrent requests share the connections. */
+  <I, O> CompletableFuture<O> executeAsync(String endpoint, I request, Class<O> responseType) {
+    return client
+        .sendAsync(createRequest(endpoint, request), HttpResponse.BodyHandlers.ofString())
+        .thenApply(it -> gson.fromJson(it.body(), responseType));
+  }
+
+  /**
+   * Like {@link #executeAsync(String, Object, Class)}, but fails if the status is not successful.
+   * For queries, the body of an error response is no result.
+   */
+  <I, O> CompletableFuture<O> queryAsync(String endpoint, I request, Class<O> responseType) {
+    return client
+        .sendAsync(createRequest(endpoint, request), HttpResponse.BodyHandlers.ofString())
+        .thenApply(
+            it -> {
+              if (it.statusCode() / 100 != 2) {
+                var message = "Query " + endpoint + " failed with status " + it.statusCode();
+                throw new UncheckedIOException(new IOException(message));
+              }
+
+              return gson.fromJson(it.body(), responseType);
+            });
+  }
+
+  private HttpRequest createRequest(String endpoint, Object request) {
+    var body = gson.toJson(request);
+    return HttpRequest.newBuilder(URI.create(baseUrl + endpoint))
+        .header("Accept", "application/json")
+        .header("Content-Type", "application/json")
+        .timeout(requestTimeout)
+        .POST(BodyPublishers.ofString(body))
+        .build();
   }
 }
@@ -0,0 +1,160 @@
+/*
+ * TodoMVC - Distributed Application
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.distributed;
+
+import com.google.gson.Gson;
+import de.muspellheim.todomvc.contract.messages.notifications.TodosChangedNotification;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Receives the changes of the todo list from the backend as server-sent events.
+ *
+ * <p>After an error or a missing heartbeat the client reconnects and resumes with the changes
+ * since the last received version.
+ */
+class TodosChangeStreamClient {
+  private static final Duration RECONNECT_DELAY = Duration.ofSeconds(3);
+
+  /** Longer than the heartbeat interval of the backend. */
+  private static final Duration READ_TIMEOUT = Duration.ofSeconds(45);
+
+  @Getter @Setter Consumer<TodosChangedNotification> onTodosChanged;
+
+  private final String baseUrl;
+  private final HttpClient client =
+      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+  private final Gson gson = new Gson();
+  private final ScheduledExecutorService watchdog =
+      Executors.newSingleThreadScheduledExecutor(
+          it -> {
+            var thread = new Thread(it, "TodosChangeStreamWatchdog");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final Thread receiver = new Thread(this::run, "TodosChangeStreamClient");
+
+  private volatile boolean running;
+  private volatile InputStream stream;
+  private volatile long lastReceived;
+  private Long version;
+
+  TodosChangeStreamClient(String baseUrl) {
+    this.baseUrl = baseUrl;
+    receiver.setDaemon(true);
+  }
+
+  void start() {
+    running = true;
+    receiver.start();
+    watchdog.scheduleWithFixedDelay(
+        this::checkHeartbeat, READ_TIMEOUT.toSeconds(), 5, TimeUnit.SECONDS);
+  }
+
+  void stop() {
+    running = false;
+    watchdog.shutdownNow();
+    receiver.interrupt();
+    closeStream();
+  }
+
+  private void run() {
+    while (running) {
+      try {
+        receive();
+      } catch (InterruptedException e) {
+        return;
+      } catch (Exception e) {
+        if (running) {
+          e.printStackTrace();
+        }
+      }
+
+      try {
+        Thread.sleep(RECONNECT_DELAY.toMillis());
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  private void receive() throws IOException, InterruptedException {
+    var uri = baseUrl + "todos-changes" + (version != null ? "?sinceVersion=" + version : "");
+    var request =
+        HttpRequest.newBuilder(URI.create(uri)).header("Accept", "text/event-stream").build();
+    var response = client.send(request, BodyHandlers.ofInputStream());
+    stream = response.body();
+    lastReceived = System.nanoTime();
+    try (var reader =
+        new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+      if (response.statusCode() != 200) {
+        throw new IOException("Unexpected status code " + response.statusCode() + ".");
+      }
+
+      var data = new StringBuilder();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lastReceived = System.nanoTime();
+        if (line.isEmpty()) {
+          if (data.length() > 0) {
+            dispatch(data.toString());
+            data.setLength(0);
+          }
+        } else if (line.startsWith("data:")) {
+          if (data.length() > 0) {
+            data.append('\n');
+          }
+          data.append(line.substring("data:".length()).trim());
+        }
+        // Comments are heartbeats, ids and event names are repeated in the data
+      }
+    } finally {
+      stream = null;
+    }
+  }
+
+  private void dispatch(String data) {
+    var notification = gson.fromJson(data, TodosChangedNotification.class);
+    version = notification.getVersion();
+    if (onTodosChanged != null) {
+      onTodosChanged.accept(notification);
+    }
+  }
+
+  private void checkHeartbeat() {
+    if (stream != null && System.nanoTime() - lastReceived > READ_TIMEOUT.toNanos()) {
+      // Unblocks the receiver, which reconnects
+      closeStream();
+    }
+  }
+
+  private void closeStream() {
+    var in = stream;
+    if (in == null) {
+      return;
+    }
+
+    try {
+      in.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+}
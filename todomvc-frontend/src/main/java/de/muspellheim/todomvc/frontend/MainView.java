@@ -13,6 +13,7 @@ import javafx.scene.control.Button;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextField;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.layout.HBox;
@@ -22,6 +23,7 @@ import javafx.scene.text.TextFlow;
 import javafx.stage.Stage;
 
 public class MainView extends VBox {
+  @FXML private ProgressBar loadingIndicator;
   @FXML private HBox commandBar;
   @FXML private TextFlow todoCount;
   @FXML private ChoiceBox<TodoFilter> filter;
@@ -46,6 +48,8 @@ public class MainView extends VBox {
 
   @FXML
   private void initialize() {
+    loadingIndicator.visibleProperty().bind(viewModel.loadingProperty());
+
     commandBar.visibleProperty().bind(viewModel.todosAvailableProperty());
     commandBar.managedProperty().bind(viewModel.todosAvailableProperty());
 
@@ -88,6 +92,10 @@ public class MainView extends VBox {
     viewModel.updateTodos();
   }
 
+  public void updateTodos() {
+    viewModel.updateTodos();
+  }
+
   private Stage getWindow() {
     return (Stage) commandBar.getScene().getWindow();
   }
@@ -8,14 +8,24 @@ package de.muspellheim.todomvc.frontend;
 import de.muspellheim.todomvc.contract.MessageHandling;
 import de.muspellheim.todomvc.contract.data.Todo;
 import de.muspellheim.todomvc.contract.messages.commands.ClearCompletedCommand;
+import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
 import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
 import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
+import de.muspellheim.todomvc.contract.messages.commands.Failure;
 import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.commands.Success;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleAllCommand;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
 import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyBooleanProperty;
@@ -26,7 +36,9 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
 
 public class MainViewModel {
   private final ReadOnlyBooleanWrapper todosAvailable = new ReadOnlyBooleanWrapper(false);
@@ -37,17 +49,49 @@ public class MainViewModel {
       new SimpleObjectProperty<>(TodoFilter.ALL) {
         @Override
         protected void invalidated() {
-          updateFilteredTodos();
+          filteredTodos.setPredicate(TodosQuery.Filter.valueOf(get().name()));
         }
       };
   private final StringProperty newTodo = new SimpleStringProperty("");
-  private final ObservableList<Todo> filteredTodos = FXCollections.observableArrayList();
+  private final ObservableList<Todo> todos = FXCollections.observableArrayList();
+  private final FilteredList<Todo> filteredTodos = new FilteredList<>(todos);
+  private final ReadOnlyBooleanWrapper loading = new ReadOnlyBooleanWrapper(false);
 
-  private MessageHandling messageHandling;
-  private List<Todo> todos = List.of();
+  private final List<Todo> queriedTodos = new ArrayList<>();
+  private final List<PendingChange> pendingChanges = new ArrayList<>();
+  private long completedCount;
+  private int runningCommands;
+  private boolean refreshing;
+  private boolean refreshRequested;
+
+  private final MessageHandling messageHandling;
+  private final Executor backgroundExecutor;
+  private final Executor uiExecutor;
+  private Long todosVersion;
 
   public MainViewModel(MessageHandling messageHandling) {
+    this(messageHandling, createBackgroundExecutor(), Platform::runLater);
+  }
+
+  /**
+   * Commands and queries run on the background executor and their results are published on the UI
+   * executor. A single threaded background executor keeps the order of commands and queries, so a
+   * query result contains all changes sent before.
+   */
+  MainViewModel(MessageHandling messageHandling, Executor backgroundExecutor, Executor uiExecutor) {
     this.messageHandling = messageHandling;
+    this.backgroundExecutor = backgroundExecutor;
+    this.uiExecutor = uiExecutor;
+    todos.addListener(this::countTodos);
+  }
+
+  private static Executor createBackgroundExecutor() {
+    return Executors.newSingleThreadExecutor(
+        it -> {
+          var thread = new Thread(it, "MainViewModelBackground");
+          thread.setDaemon(true);
+          return thread;
+        });
   }
 
   public ReadOnlyBooleanProperty todosAvailableProperty() {
@@ -78,27 +122,80 @@ public class MainViewModel {
     return filteredTodos;
   }
 
+  public ReadOnlyBooleanProperty loadingProperty() {
+    return loading.getReadOnlyProperty();
+  }
+
   public void updateTodos() {
-    var result = messageHandling.handle(new TodosQuery());
-    todos = result.getTodos();
-    todosAvailable.set(!result.getTodos().isEmpty());
-    activeTodoCount.set(result.getTodos().stream().filter(Todo::isActive).count());
-    var completedCount = result.getTodos().stream().filter(Todo::isCompleted).count();
-    allCompleted.set(todosAvailable.get() && completedCount == todos.size());
-    allActive.set(todosAvailable.get() && completedCount == 0);
-    updateFilteredTodos();
+    refresh();
   }
 
-  private void updateFilteredTodos() {
-    var filtered =
-        todos.stream()
-            .filter(
-                it ->
-                    filter.get() == TodoFilter.ACTIVE && it.isActive()
-                        || filter.get() == TodoFilter.COMPLETED && it.isCompleted()
-                        || filter.get() == TodoFilter.ALL)
-            .collect(Collectors.toList());
-    filteredTodos.setAll(filtered);
+  /**
+   * Queries the todos in the background. While a query is running, further updates are coalesced
+   * into one query after it.
+   */
+  private void refresh() {
+    if (refreshing) {
+      refreshRequested = true;
+      return;
+    }
+
+    refreshing = true;
+    loading.set(true);
+    var settledChanges = List.copyOf(pendingChanges);
+    var query =
+        todosVersion != null
+            ? new TodosQuery(TodosQuery.Filter.ALL, todosVersion)
+            : new TodosQuery(TodosQuery.Filter.ALL);
+    CompletableFuture.supplyAsync(() -> messageHandling.handle(query), backgroundExecutor)
+        .whenCompleteAsync(
+            (result, e) -> {
+              if (e != null) {
+                e.printStackTrace();
+              } else {
+                pendingChanges.removeAll(settledChanges);
+                applyQueryResult(result);
+              }
+              refreshing = false;
+              loading.set(false);
+              if (refreshRequested) {
+                refreshRequested = false;
+                refresh();
+              }
+            },
+            uiExecutor);
+  }
+
+  /**
+   * All todos are queried once, then only the todos changed since the last query. The filter is
+   * applied locally, so switching it needs no query.
+   */
+  private void applyQueryResult(TodosQueryResult result) {
+    result.applyTo(queriedTodos);
+    todosVersion = result.getVersion();
+    updateView();
+  }
+
+  /**
+   * Shows the queried todos with the pending changes applied. Only the added, removed and updated
+   * todos are changed in the shown list.
+   */
+  private void updateView() {
+    var todos = new ArrayList<>(queriedTodos);
+    pendingChanges.forEach(it -> it.applyTo(todos));
+    TodosDiff.apply(todos, this.todos);
+  }
+
+  /** Keeps the counts up to date with the changed todos only. */
+  private void countTodos(ListChangeListener.Change<? extends Todo> change) {
+    while (change.next()) {
+      completedCount -= change.getRemoved().stream().filter(Todo::isCompleted).count();
+      completedCount += change.getAddedSubList().stream().filter(Todo::isCompleted).count();
+    }
+    todosAvailable.set(!todos.isEmpty());
+    activeTodoCount.set(todos.size() - completedCount);
+    allCompleted.set(todosAvailable.get() && completedCount == todos.size());
+    allActive.set(todosAvailable.get() && completedCount == 0);
   }
 
   public void newTodo() {
@@ -107,33 +204,114 @@ public class MainViewModel {
       return;
     }
 
-    messageHandling.handle(new NewTodoCommand(text));
     newTodo.set("");
-    updateTodos();
+    // The backend takes the id of the client, so commands for the new todo can be sent at once
+    var todo = new Todo(text);
+    execute(
+        () -> messageHandling.handle(new NewTodoCommand(text, todo.getId())),
+        todos -> todos.add(todo));
   }
 
   public void toggle(Todo todo) {
-    messageHandling.handle(new ToggleCommand(todo.getId()));
-    updateTodos();
+    var completed = !todo.isCompleted();
+    execute(
+        () -> messageHandling.handle(new ToggleCommand(todo.getId(), todo.getVersion())),
+        todos ->
+            replace(
+                todos,
+                todo.getId(),
+                it -> new Todo(it.getId(), it.getTitle(), completed, it.getVersion() + 1)));
   }
 
   public void edit(Todo todo) {
-    messageHandling.handle(new EditCommand(todo.getId(), todo.getTitle()));
-    updateTodos();
+    execute(
+        () ->
+            messageHandling.handle(
+                new EditCommand(todo.getId(), todo.getTitle(), todo.getVersion())),
+        todos ->
+            replace(
+                todos,
+                todo.getId(),
+                it ->
+                    new Todo(it.getId(), todo.getTitle(), it.isCompleted(), it.getVersion() + 1)));
   }
 
   public void destroy(Todo todo) {
-    messageHandling.handle(new DestroyCommand(todo.getId()));
-    updateTodos();
+    execute(
+        () -> messageHandling.handle(new DestroyCommand(todo.getId(), todo.getVersion())),
+        todos -> {
+          var index = indexOf(todos, todo.getId());
+          if (index != -1) {
+            todos.remove(index);
+          }
+        });
   }
 
   public void clearCompleted() {
-    messageHandling.handle(new ClearCompletedCommand());
-    updateTodos();
+    execute(
+        () -> messageHandling.handle(new ClearCompletedCommand()),
+        todos -> todos.removeIf(Todo::isCompleted));
   }
 
   public void toggleAll() {
-    messageHandling.handle(new ToggleAllCommand(allCompleted.get()));
-    updateTodos();
+    var completed = allCompleted.get();
+    execute(
+        () -> messageHandling.handle(new ToggleAllCommand(completed)),
+        todos ->
+            todos.replaceAll(
+                it ->
+                    it.isCompleted() != completed
+                        ? new Todo(it.getId(), it.getTitle(), completed, it.getVersion() + 1)
+                        : it));
+  }
+
+  /**
+   * Applies the change to the view at once and sends the command in the background. A changed
+   * todo gets the version the backend will assign, so following commands for it do not conflict. A
+   * failed command rolls back its change. After the last command the todos are queried again, the
+   * result replaces the pending changes.
+   *
+   * <p>The shown todos are the queried todos with all pending changes applied, so a new change is
+   * applied to the shown todos only, without building them again.
+   */
+  private void execute(Supplier<CommandStatus> command, PendingChange change) {
+    pendingChanges.add(change);
+    runningCommands++;
+    change.applyTo(todos);
+    CompletableFuture.supplyAsync(command, backgroundExecutor)
+        .exceptionally(e -> new Failure(e.getLocalizedMessage()))
+        .thenAcceptAsync(it -> reconcile(change, it), uiExecutor);
+  }
+
+  private void reconcile(PendingChange change, CommandStatus status) {
+    runningCommands--;
+    if (!(status instanceof Success)) {
+      pendingChanges.remove(change);
+      updateView();
+    }
+    if (runningCommands == 0) {
+      refresh();
+    }
+  }
+
+  /** Sets only the changed todo, so an observable list fires one change for it. */
+  private static void replace(List<Todo> todos, String id, UnaryOperator<Todo> update) {
+    var index = indexOf(todos, id);
+    if (index != -1) {
+      todos.set(index, update.apply(todos.get(index)));
+    }
+  }
+
+  private static int indexOf(List<Todo> todos, String id) {
+    for (var i = 0; i < todos.size(); i++) {
+      if (todos.get(i).getId().equals(id)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private interface PendingChange {
+    void applyTo(List<Todo> todos);
   }
 }
@@ -31,21 +31,39 @@ public class TodoListCell extends ListCell<Todo> {
   private final Button destroy;
   private final TextField titleTextField;
 
+  private Todo editingItem;
+
+  /**
+   * The handlers are installed once and act on the current item, so updating a recycled cell does
+   * not allocate or add listeners.
+   */
   public TodoListCell() {
     completed = new CheckBox();
+    completed.setOnAction(it -> onToggle.accept(getItem()));
 
     titleLabel = new Label();
     titleLabel.setMaxWidth(Double.MAX_VALUE);
     titleLabel.setMaxHeight(Double.MAX_VALUE);
+    titleLabel.setOnMouseClicked(this::startEdit);
     HBox.setHgrow(titleLabel, Priority.ALWAYS);
 
     titleTextField = new TextField();
     titleTextField.setMaxWidth(Double.MAX_VALUE);
     titleTextField.setMaxHeight(Double.MAX_VALUE);
+    titleTextField.setOnAction(it -> endEdit());
+    titleTextField
+        .focusedProperty()
+        .addListener(
+            (observableValue, oldValue, newValue) -> {
+              if (oldValue && !newValue) {
+                endEdit();
+              }
+            });
     HBox.setHgrow(titleTextField, Priority.ALWAYS);
 
     destroy = new Button("X");
     destroy.setVisible(false);
+    destroy.setOnAction(it -> onDestroy.accept(getItem()));
 
     container = new HBox(8);
     container.setAlignment(Pos.CENTER_LEFT);
@@ -54,42 +72,34 @@ public class TodoListCell extends ListCell<Todo> {
         .hoverProperty()
         .addListener(
             (observableValue, oldValue, newValue) ->
-                destroy.setVisible(newValue && container.getChildren().contains(titleLabel)));
+                destroy.setVisible(newValue && editingItem == null));
   }
 
   @Override
   protected void updateItem(Todo item, boolean empty) {
     super.updateItem(item, empty);
 
+    if (editingItem != null) {
+      if (item != null && item.getId().equals(editingItem.getId())) {
+        editingItem = item;
+      } else {
+        closeEditor();
+      }
+    }
     if (empty || item == null) {
       setText(null);
       setGraphic(null);
     } else {
       setGraphic(container);
-
       completed.setSelected(item.isCompleted());
-      completed.setOnAction(it -> onToggle.accept(item));
-
       titleLabel.setText(item.getTitle());
-      titleLabel.setOnMouseClicked(this::startEdit);
-
-      titleTextField.setText(item.getTitle());
-      titleTextField.setOnAction(it -> endEdit(item));
-      titleTextField
-          .focusedProperty()
-          .addListener(
-              (observableValue, oldValue, newValue) -> {
-                if (oldValue && !newValue) {
-                  endEdit(item);
-                }
-              });
-
-      destroy.setOnAction(it -> onDestroy.accept(item));
     }
   }
 
   private void startEdit(MouseEvent it) {
     if (it.getButton() == MouseButton.PRIMARY && it.getClickCount() == 2) {
+      editingItem = getItem();
+      titleTextField.setText(editingItem.getTitle());
       completed.setVisible(false);
       container.getChildren().set(1, titleTextField);
       titleTextField.requestFocus();
@@ -97,9 +107,20 @@ public class TodoListCell extends ListCell<Todo> {
     }
   }
 
-  private void endEdit(Todo item) {
+  /** Ends the edit once, the text field fires an action and loses the focus afterwards. */
+  private void endEdit() {
+    if (editingItem == null) {
+      return;
+    }
+
+    var item = editingItem;
+    closeEditor();
     var newTitle = titleTextField.getText().trim();
-    onEdit.accept(new Todo(item.getId(), newTitle, item.isCompleted()));
+    onEdit.accept(new Todo(item.getId(), newTitle, item.isCompleted(), item.getVersion()));
+  }
+
+  private void closeEditor() {
+    editingItem = null;
     completed.setVisible(true);
     container.getChildren().set(1, titleLabel);
     destroy.setVisible(container.isHover());
@@ -0,0 +1,84 @@
+/*
+ * TodoMVC - Frontend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.frontend;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/** Updates a list of todos keyed by todo id. */
+class TodosDiff {
+  private TodosDiff() {}
+
+  /**
+   * Changes the target to the source with minimal changes, so an observable target fires only
+   * changes for added, removed, moved and updated todos instead of replacing all todos.
+   */
+  static void apply(List<Todo> source, List<Todo> target) {
+    // Usually only a few todos are updated, appended or removed from the end
+    var start = 0;
+    var length = Math.min(source.size(), target.size());
+    while (start < length && source.get(start).getId().equals(target.get(start).getId())) {
+      update(source, target, start);
+      start++;
+    }
+    if (start == length) {
+      if (source.size() > target.size()) {
+        target.addAll(source.subList(start, source.size()));
+      } else if (target.size() > source.size()) {
+        target.subList(start, target.size()).clear();
+      }
+      return;
+    }
+
+    var sourceIds = new HashSet<String>();
+    source.forEach(it -> sourceIds.add(it.getId()));
+    var removed =
+        target.subList(start, target.size()).stream()
+            .filter(it -> !sourceIds.contains(it.getId()))
+            .collect(Collectors.toCollection(HashSet::new));
+    if (!removed.isEmpty()) {
+      target.removeAll(removed);
+    }
+
+    var targetIds = new HashSet<String>();
+    target.forEach(it -> targetIds.add(it.getId()));
+    for (var i = start; i < source.size(); i++) {
+      if (i == target.size()) {
+        target.addAll(source.subList(i, source.size()));
+        return;
+      }
+
+      var todo = source.get(i);
+      if (target.get(i).getId().equals(todo.getId())) {
+        update(source, target, i);
+      } else {
+        if (targetIds.contains(todo.getId())) {
+          target.remove(indexOf(target, todo.getId(), i + 1));
+        }
+        target.add(i, todo);
+      }
+    }
+  }
+
+  private static void update(List<Todo> source, List<Todo> target, int index) {
+    var todo = source.get(index);
+    var current = target.get(index);
+    if (current != todo && (!current.equals(todo) || current.getVersion() != todo.getVersion())) {
+      target.set(index, todo);
+    }
+  }
+
+  private static int indexOf(List<Todo> todos, String id, int fromIndex) {
+    for (var i = fromIndex; i < todos.size(); i++) {
+      if (todos.get(i).getId().equals(id)) {
+        return i;
+      }
+    }
+    throw new IllegalStateException("Todo " + id + " not found.");
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * TodoMVC - Frontend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.frontend;
+
+import de.muspellheim.todomvc.contract.MessageHandling;
+import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommand;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.ClearCompletedCommand;
+import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
+import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
+import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
+import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleAllCommand;
+import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQueryResult;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+/**
+ * Compares replacing all todos with the keyed diff, when a refresh of 50k todos returns one
+ * toggled todo, and measures switching the filter.
+ *
+ * <p>The view model runs its background and UI work on the calling thread, so the measured time is
+ * the time a refresh blocks the FX pulse, the rendering of the cells is not included. Run with
+ * {@code ./gradlew :todomvc-frontend:viewModelBenchmark}.
+ */
+public class MainViewModelBenchmark {
+  private static final int TODO_COUNT = 50_000;
+  private static final int WARMUP_ROUNDS = 50;
+  private static final int ROUNDS = 200;
+
+  public static void main(String[] args) {
+    var backend = new Backend();
+    var replaced = FXCollections.<Todo>observableArrayList(backend.todos);
+    var replacedChanges = countChanges(replaced);
+    var diffed = FXCollections.<Todo>observableArrayList(backend.todos);
+    var diffedChanges = countChanges(diffed);
+
+    measure(WARMUP_ROUNDS, backend, () -> replaced.setAll(backend.todos));
+    measure(WARMUP_ROUNDS, backend, () -> TodosDiff.apply(backend.todos, diffed));
+    replacedChanges[0] = 0;
+    diffedChanges[0] = 0;
+    var replaceTime = measure(ROUNDS, backend, () -> replaced.setAll(backend.todos));
+    var diffTime = measure(ROUNDS, backend, () -> TodosDiff.apply(backend.todos, diffed));
+    System.out.printf(
+        "%-20s %14s %20s%n", "refresh " + TODO_COUNT, "time [ms/op]", "changed todos [1/op]");
+    System.out.printf(
+        "%-20s %14.3f %20d%n", "replace all", replaceTime, replacedChanges[0] / ROUNDS);
+    System.out.printf("%-20s %14.3f %20d%n", "keyed diff", diffTime, diffedChanges[0] / ROUNDS);
+
+    var viewModel = new MainViewModel(backend, Runnable::run, Runnable::run);
+    viewModel.updateTodos();
+    measure(WARMUP_ROUNDS, backend, viewModel::updateTodos);
+    var viewModelTime = measure(ROUNDS, backend, viewModel::updateTodos);
+    var filters = TodoFilter.values();
+    var filterTime =
+        measure(
+            ROUNDS,
+            () -> {
+              var filter = viewModel.filterProperty().get();
+              viewModel.filterProperty().set(filters[(filter.ordinal() + 1) % filters.length]);
+              viewModel.getFilteredTodos().size();
+            });
+    System.out.printf("%-20s %14.3f%n", "view model refresh", viewModelTime);
+    System.out.printf("%-20s %14.3f%n", "switch filter", filterTime);
+  }
+
+  private static long[] countChanges(ObservableList<Todo> todos) {
+    var count = new long[1];
+    todos.addListener(
+        (ListChangeListener<Todo>)
+            change -> {
+              while (change.next()) {
+                count[0] += Math.max(change.getAddedSize(), change.getRemovedSize());
+              }
+            });
+    return count;
+  }
+
+  private static double measure(int rounds, Backend backend, Runnable refresh) {
+    return measure(
+        rounds,
+        () -> {
+          backend.toggleRandomTodo();
+          refresh.run();
+        });
+  }
+
+  private static double measure(int rounds, Runnable operation) {
+    var start = System.nanoTime();
+    for (var i = 0; i < rounds; i++) {
+      operation.run();
+    }
+    return (System.nanoTime() - start) / 1_000_000.0 / rounds;
+  }
+
+  private static class Backend implements MessageHandling {
+    private final Random random = new Random(42);
+    private final List<Todo> todos = new ArrayList<>();
+    private long version;
+
+    Backend() {
+      for (var i = 0; i < TODO_COUNT; i++) {
+        todos.add(new Todo(String.valueOf(i), "Todo " + i, i % 2 == 0));
+      }
+    }
+
+    void toggleRandomTodo() {
+      var index = random.nextInt(todos.size());
+      var todo = todos.get(index);
+      todos.set(
+          index,
+          new Todo(todo.getId(), todo.getTitle(), !todo.isCompleted(), todo.getVersion() + 1));
+      version++;
+    }
+
+    @Override
+    public CommandStatus handle(ClearCompletedCommand command) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CommandStatus handle(DestroyCommand command) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CommandStatus handle(EditCommand command) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CommandStatus handle(NewTodoCommand command) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CommandStatus handle(ToggleAllCommand command) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CommandStatus handle(ToggleCommand command) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public BatchCommandStatus handle(BatchCommand command) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public TodosQueryResult handle(TodosQuery query) {
+      return new TodosQueryResult(List.copyOf(todos), version, List.of(), false);
+    }
+
+    @Override
+    public TodoStatsQueryResult handle(TodoStatsQuery query) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -8,29 +8,36 @@ package de.muspellheim.todomvc.frontend;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import de.muspellheim.todomvc.contract.MessageHandling;
 import de.muspellheim.todomvc.contract.data.Todo;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommand;
+import de.muspellheim.todomvc.contract.messages.commands.BatchCommandStatus;
 import de.muspellheim.todomvc.contract.messages.commands.ClearCompletedCommand;
 import de.muspellheim.todomvc.contract.messages.commands.CommandStatus;
 import de.muspellheim.todomvc.contract.messages.commands.DestroyCommand;
 import de.muspellheim.todomvc.contract.messages.commands.EditCommand;
+import de.muspellheim.todomvc.contract.messages.commands.Failure;
 import de.muspellheim.todomvc.contract.messages.commands.NewTodoCommand;
 import de.muspellheim.todomvc.contract.messages.commands.Success;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleAllCommand;
 import de.muspellheim.todomvc.contract.messages.commands.ToggleCommand;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQuery;
+import de.muspellheim.todomvc.contract.messages.queries.TodoStatsQueryResult;
 import de.muspellheim.todomvc.contract.messages.queries.TodosQuery;
 import de.muspellheim.todomvc.contract.messages.queries.TodosQueryResult;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 
 class MainViewModelTests {
   @Test
   void allActive() {
     var viewModel =
-        new MainViewModel(
+        createViewModel(
             new TestingMessageHandling(
                 new Todo("1", "Taste JavaScript", false), new Todo("2", "Buy a unicorn", false)));
 
@@ -55,7 +62,7 @@ class MainViewModelTests {
   @Test
   void allCompleted() {
     var viewModel =
-        new MainViewModel(
+        createViewModel(
             new TestingMessageHandling(
                 new Todo("1", "Taste JavaScript", true), new Todo("2", "Buy a unicorn", true)));
 
@@ -78,7 +85,7 @@ class MainViewModelTests {
 
   @Test
   void noTodos() {
-    var viewModel = new MainViewModel(new TestingMessageHandling());
+    var viewModel = createViewModel(new TestingMessageHandling());
 
     viewModel.updateTodos();
 
@@ -95,7 +102,7 @@ class MainViewModelTests {
   @Test
   void filterAll() {
     var viewModel =
-        new MainViewModel(
+        createViewModel(
             new TestingMessageHandling(
                 new Todo("1", "Taste JavaScript", true), new Todo("2", "Buy a unicorn", false)));
 
@@ -119,7 +126,7 @@ class MainViewModelTests {
   @Test
   void filterActive() {
     var viewModel =
-        new MainViewModel(
+        createViewModel(
             new TestingMessageHandling(
                 new Todo("1", "Taste JavaScript", true), new Todo("2", "Buy a unicorn", false)));
     viewModel.updateTodos();
@@ -143,7 +150,7 @@ class MainViewModelTests {
   @Test
   void filterCompleted() {
     var viewModel =
-        new MainViewModel(
+        createViewModel(
             new TestingMessageHandling(
                 new Todo("1", "Taste JavaScript", true), new Todo("2", "Buy a unicorn", false)));
     viewModel.updateTodos();
@@ -166,16 +173,19 @@ class MainViewModelTests {
 
   @Test
   void newTodo() {
-    var viewModel =
-        new MainViewModel(
-            new TestingMessageHandling(
-                new Todo("1", "Taste JavaScript", true), new Todo("2", "Buy a unicorn", false)));
+    var messageHandling =
+        new TestingMessageHandling(
+            new Todo("1", "Taste JavaScript", true), new Todo("2", "Buy a unicorn", false));
+    var viewModel = createViewModel(messageHandling);
     viewModel.updateTodos();
 
     viewModel.newTodoProperty().set("Lorem ipsum");
     viewModel.newTodo();
 
+    // The client chooses the id, so the todo shown at once has the id of the backend
+    var id = messageHandling.todos.get(2).getId();
     assertAll(
+        () -> assertNotNull(id, "id of new todo"),
         () -> assertTrue(viewModel.todosAvailableProperty().get(), "todos available"),
         () -> assertEquals(2, viewModel.activeTodoCountProperty().get(), "active todo count"),
         () -> assertFalse(viewModel.allCompletedProperty().get(), "all completed"),
@@ -187,7 +197,7 @@ class MainViewModelTests {
                 List.of(
                     new Todo("1", "Taste JavaScript", true),
                     new Todo("2", "Buy a unicorn", false),
-                    new Todo("3", "Lorem ipsum", false)),
+                    new Todo(id, "Lorem ipsum", false)),
                 viewModel.getFilteredTodos(),
                 "filtered todos"));
   }
@@ -195,7 +205,7 @@ class MainViewModelTests {
   @Test
   void newTodoWithBlankTitle() {
     var viewModel =
-        new MainViewModel(
+        createViewModel(
             new TestingMessageHandling(
                 new Todo("1", "Taste JavaScript", true), new Todo("2", "Buy a unicorn", false)));
     viewModel.updateTodos();
@@ -218,6 +228,122 @@ class MainViewModelTests {
                 "filtered todos"));
   }
 
+  @Test
+  void applyChangedTodos() {
+    var viewModel =
+        createViewModel(
+            new TestingMessageHandling(
+                new Todo("1", "Taste JavaScript", true), new Todo("2", "Buy a unicorn", false)) {
+              @Override
+              public TodosQueryResult handle(TodosQuery query) {
+                if (query.getSinceVersion() == null) {
+                  return new TodosQueryResult(super.handle(query).getTodos(), 1, List.of(), false);
+                }
+
+                return new TodosQueryResult(
+                    List.of(new Todo("2", "Buy a unicorn", true)), 2, List.of("1"), true);
+              }
+            });
+    viewModel.updateTodos();
+
+    viewModel.updateTodos();
+
+    assertEquals(
+        List.of(new Todo("2", "Buy a unicorn", true)),
+        viewModel.getFilteredTodos(),
+        "filtered todos");
+  }
+
+  @Test
+  void showChangeBeforeCommandReturned() {
+    var tasks = new ArrayList<Runnable>();
+    var viewModel =
+        new MainViewModel(
+            new TestingMessageHandling(
+                new Todo("1", "Taste JavaScript", true), new Todo("2", "Buy a unicorn", false)),
+            tasks::add,
+            Runnable::run);
+    viewModel.updateTodos();
+    tasks.remove(0).run();
+
+    viewModel.toggle(new Todo("2", "Buy a unicorn", false));
+
+    assertAll(
+        () -> assertEquals(1, tasks.size(), "pending tasks"),
+        () -> assertEquals(0, viewModel.activeTodoCountProperty().get(), "active todo count"),
+        () -> assertTrue(viewModel.allCompletedProperty().get(), "all completed"),
+        () ->
+            assertEquals(
+                List.of(
+                    new Todo("1", "Taste JavaScript", true), new Todo("2", "Buy a unicorn", true)),
+                viewModel.getFilteredTodos(),
+                "filtered todos"));
+  }
+
+  @Test
+  void rollBackFailedCommand() {
+    var viewModel =
+        createViewModel(
+            new TestingMessageHandling(
+                new Todo("1", "Taste JavaScript", true), new Todo("2", "Buy a unicorn", false)) {
+              @Override
+              public CommandStatus handle(DestroyCommand command) {
+                return new Failure("Todo not found.");
+              }
+            });
+    viewModel.updateTodos();
+
+    viewModel.destroy(new Todo("2", "Buy a unicorn", false));
+
+    assertAll(
+        () -> assertEquals(1, viewModel.activeTodoCountProperty().get(), "active todo count"),
+        () ->
+            assertEquals(
+                List.of(
+                    new Todo("1", "Taste JavaScript", true), new Todo("2", "Buy a unicorn", false)),
+                viewModel.getFilteredTodos(),
+                "filtered todos"));
+  }
+
+  @Test
+  void coalesceUpdates() {
+    var tasks = new ArrayList<Runnable>();
+    var viewModel =
+        new MainViewModel(
+            new TestingMessageHandling(new Todo("1", "Taste JavaScript", true)),
+            tasks::add,
+            Runnable::run);
+
+    viewModel.updateTodos();
+    viewModel.updateTodos();
+    viewModel.updateTodos();
+
+    assertAll(
+        () -> assertEquals(1, tasks.size(), "running queries"),
+        () -> assertTrue(viewModel.loadingProperty().get(), "loading"));
+
+    tasks.remove(0).run();
+
+    assertAll(
+        () -> assertEquals(1, tasks.size(), "running queries"),
+        () -> assertTrue(viewModel.loadingProperty().get(), "loading"),
+        () ->
+            assertEquals(
+                List.of(new Todo("1", "Taste JavaScript", true)),
+                viewModel.getFilteredTodos(),
+                "filtered todos"));
+
+    tasks.remove(0).run();
+
+    assertAll(
+        () -> assertEquals(0, tasks.size(), "running queries"),
+        () -> assertFalse(viewModel.loadingProperty().get(), "loading"));
+  }
+
+  private static MainViewModel createViewModel(MessageHandling messageHandling) {
+    return new MainViewModel(messageHandling, Runnable::run, Runnable::run);
+  }
+
   private static class TestingMessageHandling implements MessageHandling {
     private final List<Todo> todos = new ArrayList<>();
 
@@ -242,7 +368,7 @@ class MainViewModelTests {
 
     @Override
     public CommandStatus handle(NewTodoCommand command) {
-      todos.add(new Todo(String.valueOf(todos.size() + 1), command.getTitle(), false));
+      todos.add(new Todo(command.getId(), command.getTitle(), false));
       return new Success();
     }
 
@@ -256,9 +382,23 @@ class MainViewModelTests {
       return new Success();
     }
 
+    @Override
+    public BatchCommandStatus handle(BatchCommand command) {
+      return new BatchCommandStatus(
+          command.getCommands().stream().map(it -> new Success()).collect(Collectors.toList()));
+    }
+
     @Override
     public TodosQueryResult handle(TodosQuery query) {
-      return new TodosQueryResult(todos);
+      return new TodosQueryResult(
+          todos.stream().filter(query.getFilter()).collect(Collectors.toList()));
+    }
+
+    @Override
+    public TodoStatsQueryResult handle(TodoStatsQuery query) {
+      var completedCount = (int) todos.stream().filter(Todo::isCompleted).count();
+      return new TodoStatsQueryResult(
+          todos.size(), todos.size() - completedCount, completedCount);
     }
   }
 }
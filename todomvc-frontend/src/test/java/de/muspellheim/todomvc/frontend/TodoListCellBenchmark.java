@@ -0,0 +1,191 @@
+/*
+ * TodoMVC - Frontend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.frontend;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+
+/**
+ * Scrolls a list of 100k todos through a pool of cells and compares the former todo list cell with
+ * the recycled one.
+ *
+ * <p>The cells are updated with the next indices like a list view reuses its cells while
+ * scrolling. They are not shown, because the text layout of a shown list needs the native font
+ * libraries, which a headless build machine often lacks. Runs with Monocle, so no display is
+ * needed.
+ *
+ * <p>Reports the bytes allocated on the FX thread per cell update and the heap retained after the
+ * scroll, which grows with every listener the former cell added. Run with {@code ./gradlew
+ * :todomvc-frontend:cellBenchmark}.
+ */
+public class TodoListCellBenchmark {
+  private static final int TODO_COUNT = 100_000;
+  private static final int SCROLL_STEP = 7;
+  private static final int CELL_COUNT = 25;
+
+  public static void main(String[] args) throws Exception {
+    System.setProperty("glass.platform", "Monocle");
+    System.setProperty("monocle.platform", "Headless");
+    System.setProperty("prism.order", "sw");
+    var started = new CountDownLatch(1);
+    Platform.startup(started::countDown);
+    started.await();
+
+    var todos = new ArrayList<Todo>(TODO_COUNT);
+    for (var i = 0; i < TODO_COUNT; i++) {
+      todos.add(new Todo(String.valueOf(i), "Todo " + i, i % 3 == 0));
+    }
+
+    System.out.printf(
+        "%-12s %14s %18s %20s %18s%n",
+        "cell",
+        "updates",
+        "time [us/update]",
+        "allocated [B/update]",
+        "retained [KiB]");
+    for (var round = 0; round < 2; round++) {
+      var print = round == 1;
+      measure("former", todos, FormerTodoListCell::new, print);
+      measure("recycled", todos, TodoListCell::new, print);
+    }
+    Platform.exit();
+  }
+
+  private static void measure(
+      String name, List<Todo> todos, Supplier<ListCell<Todo>> cellFactory, boolean print)
+      throws Exception {
+    var updates = new long[1];
+    var cells =
+        callAndWait(
+            () -> {
+              var listView = new ListView<>(FXCollections.observableArrayList(todos));
+              var result = new ArrayList<ListCell<Todo>>();
+              for (var i = 0; i < CELL_COUNT; i++) {
+                var cell = cellFactory.get();
+                cell.itemProperty().addListener((o, oldValue, newValue) -> updates[0]++);
+                if (cell instanceof TodoListCell) {
+                  var todoListCell = (TodoListCell) cell;
+                  todoListCell.setOnToggle(todo -> {});
+                  todoListCell.setOnEdit(todo -> {});
+                  todoListCell.setOnDestroy(todo -> {});
+                }
+                cell.updateListView(listView);
+                result.add(cell);
+              }
+              return result;
+            });
+
+    var retainedBefore = retainedHeap();
+    var threadId = callAndWait(() -> Thread.currentThread().getId());
+    var allocatedBefore = allocatedBytes(threadId);
+    var start = System.nanoTime();
+    callAndWait(
+        () -> {
+          for (var i = 0; i < TODO_COUNT; i += SCROLL_STEP) {
+            for (var j = 0; j < cells.size(); j++) {
+              cells.get(j).updateIndex(Math.min(i + j, TODO_COUNT - 1));
+            }
+          }
+          return null;
+        });
+    var time = System.nanoTime() - start;
+    var allocated = allocatedBytes(threadId) - allocatedBefore;
+    var retained = retainedHeap() - retainedBefore;
+
+    if (print) {
+      System.out.printf(
+          "%-12s %14d %18.2f %20d %18d%n",
+          name,
+          updates[0],
+          time / 1000.0 / updates[0],
+          allocated / updates[0],
+          retained / 1024);
+    }
+  }
+
+  /** Rethrows an exception of the action, so the benchmark does not wait forever. */
+  private static <T> T callAndWait(Supplier<T> action) throws Exception {
+    var result = new CompletableFuture<T>();
+    Platform.runLater(
+        () -> {
+          try {
+            result.complete(action.get());
+          } catch (Throwable e) {
+            result.completeExceptionally(e);
+          }
+        });
+    return result.get();
+  }
+
+  private static long allocatedBytes(long threadId) {
+    var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    return threads.getThreadAllocatedBytes(threadId);
+  }
+
+  private static long retainedHeap() {
+    var runtime = Runtime.getRuntime();
+    for (var i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /** The former cell, which installed new handlers and a focus listener on every update. */
+  private static class FormerTodoListCell extends ListCell<Todo> {
+    private final Consumer<Todo> ignore = it -> {};
+    private final HBox container;
+    private final CheckBox completed;
+    private final Label titleLabel;
+    private final TextField titleTextField;
+
+    FormerTodoListCell() {
+      completed = new CheckBox();
+      titleLabel = new Label();
+      titleTextField = new TextField();
+      container = new HBox(8);
+      container.getChildren().setAll(completed, titleLabel);
+    }
+
+    @Override
+    protected void updateItem(Todo item, boolean empty) {
+      super.updateItem(item, empty);
+
+      if (empty || item == null) {
+        setText(null);
+        setGraphic(null);
+      } else {
+        setGraphic(container);
+        completed.setSelected(item.isCompleted());
+        completed.setOnAction(it -> ignore.accept(item));
+        titleLabel.setText(item.getTitle());
+        titleTextField.setText(item.getTitle());
+        titleTextField.setOnAction(it -> ignore.accept(item));
+        titleTextField
+            .focusedProperty()
+            .addListener(
+                (observableValue, oldValue, newValue) -> {
+                  if (oldValue && !newValue) {
+                    ignore.accept(item);
+                  }
+                });
+      }
+    }
+  }
+}
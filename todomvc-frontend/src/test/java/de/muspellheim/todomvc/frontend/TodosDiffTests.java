@@ -0,0 +1,86 @@
+/*
+ * TodoMVC - Frontend
+ * Copyright (c) 2021 Falko Schumann <falko.schumann@muspellheim.de>
+ */
+
+package de.muspellheim.todomvc.frontend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.muspellheim.todomvc.contract.data.Todo;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TodosDiffTests {
+  @Test
+  void addRemoveAndUpdateTodos() {
+    var target =
+        new ArrayList<>(
+            List.of(
+                new Todo("1", "Taste JavaScript", true),
+                new Todo("2", "Buy a unicorn", false),
+                new Todo("3", "Lorem ipsum", false)));
+
+    TodosDiff.apply(
+        List.of(
+            new Todo("1", "Taste JavaScript", true),
+            new Todo("3", "Lorem ipsum", true, 1),
+            new Todo("4", "Dolor sit amet", false)),
+        target);
+
+    assertEquals(
+        List.of(
+            new Todo("1", "Taste JavaScript", true),
+            new Todo("3", "Lorem ipsum", true),
+            new Todo("4", "Dolor sit amet", false)),
+        target,
+        "target");
+  }
+
+  @Test
+  void removeLastTodo() {
+    var target =
+        new ArrayList<>(
+            List.of(
+                new Todo("1", "Taste JavaScript", true), new Todo("2", "Buy a unicorn", false)));
+
+    TodosDiff.apply(List.of(new Todo("1", "Taste JavaScript", true)), target);
+
+    assertEquals(List.of(new Todo("1", "Taste JavaScript", true)), target, "target");
+  }
+
+  @Test
+  void updateVersion() {
+    var target = new ArrayList<>(List.of(new Todo("1", "Taste JavaScript", true, 1)));
+
+    TodosDiff.apply(List.of(new Todo("1", "Taste JavaScript", true, 2)), target);
+
+    assertEquals(2, target.get(0).getVersion(), "version");
+  }
+
+  @Test
+  void moveTodos() {
+    var target =
+        new ArrayList<>(
+            List.of(
+                new Todo("1", "Taste JavaScript", true),
+                new Todo("2", "Buy a unicorn", false),
+                new Todo("3", "Lorem ipsum", false)));
+
+    TodosDiff.apply(
+        List.of(
+            new Todo("3", "Lorem ipsum", false),
+            new Todo("1", "Taste JavaScript", true),
+            new Todo("2", "Buy a unicorn", false)),
+        target);
+
+    assertEquals(
+        List.of(
+            new Todo("3", "Lorem ipsum", false),
+            new Todo("1", "Taste JavaScript", true),
+            new Todo("2", "Buy a unicorn", false)),
+        target,
+        "target");
+  }
+}
@@ -8,7 +8,12 @@ import {
   ToggleAllCommand,
   ToggleCommand,
 } from '../contract/messages/commands';
-import { TodosQuery, TodosQueryResult } from '../contract/messages/queries';
+import {
+  TodosQuery,
+  TodosQueryResult,
+  TodoStatsQuery,
+  TodoStatsQueryResult,
+} from '../contract/messages/queries';
 import { HttpJsonClient } from './HttpJsonClient';
 
 const BACKEND_URL = 'http://localhost:8080/api/';
@@ -71,4 +76,12 @@ export class BackendProxy implements MessageHandling {
       return { todos: [] };
     }
   }
+
+  async handleTodoStatsQuery(query: TodoStatsQuery): Promise<TodoStatsQueryResult> {
+    try {
+      return await this.client.execute('todo-stats-query', query);
+    } catch (error) {
+      return { totalCount: 0, activeCount: 0, completedCount: 0 };
+    }
+  }
 }
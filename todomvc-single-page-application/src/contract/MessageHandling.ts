@@ -7,7 +7,12 @@ import {
   ToggleAllCommand,
   ToggleCommand,
 } from './messages/commands';
-import { TodosQuery, TodosQueryResult } from './messages/queries';
+import {
+  TodosQuery,
+  TodosQueryResult,
+  TodoStatsQuery,
+  TodoStatsQueryResult,
+} from './messages/queries';
 
 export interface MessageHandling {
   handleClearCompletedCommand(command: ClearCompletedCommand): Promise<CommandStatus>;
@@ -17,4 +22,5 @@ export interface MessageHandling {
   handleToggleAllCommand(command: ToggleAllCommand): Promise<CommandStatus>;
   handleToggleCommand(command: ToggleCommand): Promise<CommandStatus>;
   handleTodosQuery(query: TodosQuery): Promise<TodosQueryResult>;
+  handleTodoStatsQuery(query: TodoStatsQuery): Promise<TodoStatsQueryResult>;
 }
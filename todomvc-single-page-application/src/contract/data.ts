@@ -4,4 +4,5 @@ export type Todo = Readonly<{
   id: TodoId;
   title: string;
   completed: boolean;
+  version?: number;
 }>;
@@ -3,21 +3,25 @@ import { TodoId } from '../data';
 export type CommandStatus = {
   success: boolean;
   errorMessage?: string; // required if success=false
+  conflict?: boolean; // true if an expected version does not match
 };
 
 export type ClearCompletedCommand = Readonly<{}>;
 
 export type DestroyCommand = Readonly<{
   id: TodoId;
+  expectedVersion?: number;
 }>;
 
 export type EditCommand = Readonly<{
   id: TodoId;
   title: string;
+  expectedVersion?: number;
 }>;
 
 export type NewTodoCommand = Readonly<{
   title: string;
+  id?: TodoId;
 }>;
 
 export type ToggleAllCommand = Readonly<{
@@ -26,4 +30,23 @@ export type ToggleAllCommand = Readonly<{
 
 export type ToggleCommand = Readonly<{
   id: TodoId;
+  expectedVersion?: number;
 }>;
+
+export type BatchCommandItem = Readonly<{
+  clearCompleted?: ClearCompletedCommand;
+  destroy?: DestroyCommand;
+  edit?: EditCommand;
+  newTodo?: NewTodoCommand;
+  toggleAll?: ToggleAllCommand;
+  toggle?: ToggleCommand;
+}>;
+
+export type BatchCommand = Readonly<{
+  commands: readonly BatchCommandItem[];
+}>;
+
+export type BatchCommandStatus = {
+  success: boolean;
+  statuses: CommandStatus[];
+};
@@ -0,0 +1,8 @@
+import { Todo, TodoId } from '../data';
+
+export type TodosChangedNotification = Readonly<{
+  version: number;
+  changedTodos: readonly Todo[];
+  removedIds: readonly TodoId[];
+  resync: boolean;
+}>;
@@ -1,7 +1,25 @@
-import { Todo } from '../data';
+import { Todo, TodoId } from '../data';
 
-export type TodosQuery = Readonly<{}>;
+export type TodosFilter = 'ALL' | 'ACTIVE' | 'COMPLETED';
+
+export type TodosQuery = Readonly<{
+  filter?: TodosFilter;
+  offset?: number;
+  limit?: number;
+  sinceVersion?: number;
+}>;
 
 export type TodosQueryResult = Readonly<{
   todos: readonly Todo[];
+  version?: number;
+  removedIds?: readonly TodoId[];
+  delta?: boolean;
+}>;
+
+export type TodoStatsQuery = Readonly<{}>;
+
+export type TodoStatsQueryResult = Readonly<{
+  totalCount: number;
+  activeCount: number;
+  completedCount: number;
 }>;
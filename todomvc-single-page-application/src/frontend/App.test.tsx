@@ -15,6 +15,9 @@ test('renders todos title', async () => {
     handleToggleAllCommand: jest.fn(),
     handleToggleCommand: jest.fn(),
     handleTodosQuery: jest.fn(() => Promise.resolve({ todos: [] })),
+    handleTodoStatsQuery: jest.fn(() =>
+      Promise.resolve({ totalCount: 0, activeCount: 0, completedCount: 0 })
+    ),
   };
   render(
     <MessageHandlingProvider messageHandling={messageHandlerMock}>
@@ -23,6 +23,9 @@ function mockMessageHandling(): MessageHandling {
         todos: [todo1, todo2],
       })
     ),
+    handleTodoStatsQuery: jest.fn(() =>
+      Promise.resolve({ totalCount: 2, activeCount: 1, completedCount: 1 })
+    ),
   };
 }
 